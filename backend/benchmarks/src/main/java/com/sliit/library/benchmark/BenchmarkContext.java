@@ -0,0 +1,41 @@
+package com.sliit.library.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.sliit.library.LibraryApplication;
+
+/**
+ * Starts the backend inside a benchmark fork: a fresh in-memory H2 database, no web server,
+ * no pollers, schedulers or tracing, and nothing written outside target/.
+ */
+public final class BenchmarkContext {
+
+    // Passed as command-line arguments, which take precedence over application.properties
+    private static final String[] ARGUMENTS = {
+        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+        "--logging.level.root=WARN",
+        "--spring.devtools.restart.enabled=false",
+        "--app.tracing.sample-rate=0",
+        "--app.notifications.dispatcher.enabled=false",
+        "--app.dashboard.snapshot.refresh-interval-ms=3600000",
+        "--app.counters.rebuild-interval-ms=3600000",
+        "--app.policy.refresh-interval-ms=3600000",
+        "--app.reference-cache.refresh-interval-ms=3600000",
+        "--app.auth.denylist.refresh-interval-ms=3600000",
+        "--app.activity.writer.spill-dir=target/benchmark/activity-spill",
+        "--app.activity.archive.dir=target/benchmark/activity-archive",
+        "--spring.quartz.auto-startup=false"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(ARGUMENTS);
+    }
+}
@@ -0,0 +1,105 @@
+package com.sliit.library.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sliit.library.dto.BookDto.BookResponse;
+import com.sliit.library.dto.BookDto.BookSummaryResponse;
+import com.sliit.library.dto.BookDto.SearchMode;
+import com.sliit.library.service.BookSearchIndex;
+import com.sliit.library.service.BookService;
+
+/**
+ * Catalogue reads against 10k, 100k and 1M books: a page of the listing, one book by id, and
+ * the first page of a two-word search through the in-memory index and through the database.
+ * Ids, pages and queries come from a fixed sequence, so each run issues the same calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class CatalogBenchmark {
+
+    private static final long SEED = 42;
+    private static final int PAGE_SIZE = 20;
+    private static final int SEQUENCE = 1 << 12;
+
+    @Param({"10000", "100000", "1000000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long[] ids;
+    private int[] pages;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        long firstId = new CatalogSeeder(context.getBean(JdbcTemplate.class), SEED).seed(books, 1);
+        context.getBean(BookSearchIndex.class).rebuild();
+        bookService = context.getBean(BookService.class);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        ids = new long[SEQUENCE];
+        pages = new int[SEQUENCE];
+        queries = new String[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            ids[i] = firstId + random.nextInt(books);
+            pages[i] = 1 + random.nextInt(books / PAGE_SIZE);
+            queries[i] = CatalogSeeder.WORDS[random.nextInt(CatalogSeeder.WORDS.length)] + " "
+                    + CatalogSeeder.WORDS[random.nextInt(CatalogSeeder.WORDS.length)];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookSummaryResponse> listPage() {
+        return bookService.get(pages[advance()], PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookResponse getById() {
+        return bookService.getById(ids[advance()]);
+    }
+
+    @Benchmark
+    public List<BookSummaryResponse> searchIndex() {
+        return bookService.search(queries[advance()], SearchMode.INDEX, null, null, null, null, 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookSummaryResponse> searchDatabase() {
+        return bookService.search(queries[advance()], SearchMode.DATABASE, null, null, null, null, 1, PAGE_SIZE);
+    }
+
+    private int advance() {
+        int current = next;
+        next = (current + 1) & (SEQUENCE - 1);
+        return current;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sliit.library.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sliit.library.model.BookCondition;
+import com.sliit.library.model.BookStatus;
+
+/**
+ * Bulk-loads books and copies with JDBC batches, far faster than going through JPA with
+ * identity keys. The rows depend only on the seed, so every run and commit measures the
+ * same catalogue.
+ */
+public final class CatalogSeeder {
+
+    /** Words titles are made of; benchmarks search for them. */
+    public static final String[] WORDS = {
+        "river", "shadow", "garden", "empire", "winter", "silent", "golden", "harbor", "forest", "mirror",
+        "journey", "kingdom", "ocean", "ember", "stone", "glass", "thunder", "whisper", "lantern", "voyage",
+        "machine", "theory", "history", "algebra", "island", "desert", "signal", "memory", "orbit", "atlas"
+    };
+
+    private static final int BATCH = 5_000;
+
+    private final JdbcTemplate jdbc;
+    private final long seed;
+
+    public CatalogSeeder(JdbcTemplate jdbc, long seed) {
+        this.jdbc = jdbc;
+        this.seed = seed;
+    }
+
+    /** Insert the books, each with the given number of available copies; returns the first book's id. */
+    public long seed(int books, int copiesPerBook) {
+        List<Long> authors = jdbc.queryForList("SELECT id FROM authors ORDER BY id", Long.class);
+        List<Long> publishers = jdbc.queryForList("SELECT id FROM publishers ORDER BY id", Long.class);
+        List<Long> categories = jdbc.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+        List<Long> languages = jdbc.queryForList("SELECT id FROM languages ORDER BY id", Long.class);
+        long firstId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM books", Long.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < books; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            rows.add(new Object[] {firstId + i, title, String.format("978%010d", i), 1900 + random.nextInt(125),
+                    pick(authors, random), pick(publishers, random), pick(categories, random), pick(languages, random),
+                    now, now});
+            if (rows.size() == BATCH) {
+                insertBooks(rows);
+            }
+        }
+        insertBooks(rows);
+
+        for (int i = 0; i < books; i++) {
+            for (int c = 0; c < copiesPerBook; c++) {
+                rows.add(new Object[] {firstId + i, BookStatus.AVAILABLE.name(), "B" + (firstId + i) + "-" + c,
+                        BookCondition.GOOD.ordinal(), "Shelf " + (i % 200), now, now});
+                if (rows.size() == BATCH) {
+                    insertCopies(rows);
+                }
+            }
+        }
+        insertCopies(rows);
+        jdbc.execute("ALTER TABLE books ALTER COLUMN id RESTART WITH " + (firstId + books));
+        return firstId;
+    }
+
+    private void insertBooks(List<Object[]> rows) {
+        jdbc.batchUpdate("""
+                INSERT INTO books (id, title, isbn, publication_year, author_id, publisher_id, category_id, language_id,
+                                   created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+        rows.clear();
+    }
+
+    private void insertCopies(List<Object[]> rows) {
+        jdbc.batchUpdate("""
+                INSERT INTO book_copies (book_id, status, barcode, book_condition, location, is_reference_only,
+                                         created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, FALSE, ?, ?)
+                """, rows);
+        rows.clear();
+    }
+
+    private static Long pick(List<Long> ids, SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
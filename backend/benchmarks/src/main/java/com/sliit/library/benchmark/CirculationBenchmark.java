@@ -0,0 +1,84 @@
+package com.sliit.library.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sliit.library.model.BookCondition;
+import com.sliit.library.model.BookCopy;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.BookCopyRepository;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.BookTransactionService;
+
+/**
+ * Checkout desk throughput: each operation looks a copy up, issues it to a member and takes
+ * it back, the way the issue and return endpoints do. Copies are used round-robin so the
+ * member never reaches the loan limit and no copy is issued twice in a row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CirculationBenchmark {
+
+    private static final long SEED = 42;
+    private static final int COPIES = 1_000;
+
+    @Param({"10000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookTransactionService transactionService;
+    private BookCopyRepository bookCopyRepository;
+    private User member;
+    private User librarian;
+    private List<Long> copyIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        new CatalogSeeder(jdbc, SEED).seed(books, 1);
+        copyIds = jdbc.queryForList("SELECT id FROM book_copies ORDER BY id LIMIT " + COPIES, Long.class);
+
+        transactionService = context.getBean(BookTransactionService.class);
+        bookCopyRepository = context.getBean(BookCopyRepository.class);
+        UserRepository users = context.getBean(UserRepository.class);
+        member = users.findByUsername("john_doe").orElseThrow();
+        librarian = users.findByUsername("librarian").orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookTransaction issueAndReturn() {
+        Long copyId = copyIds.get(next);
+        next = (next + 1) % copyIds.size();
+        BookCopy copy = bookCopyRepository.findById(copyId).orElseThrow();
+        transactionService.issueBook(member, copy, librarian, null);
+        return transactionService.returnBook(copy, librarian, BookCondition.GOOD, null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.sliit.library.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sliit.library.model.BookCopy;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.BookCopyRepository;
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.FineService;
+
+/**
+ * Overdue fine calculation as the nightly run does it: one call fines a batch of overdue
+ * loans, updating the pending fine each already has. The overdue days move on every call, so
+ * each fine's amount changes and is written back. Scores are per loan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class FineCalculationBenchmark {
+
+    private static final long SEED = 42;
+    private static final int LOANS = 100;
+    private static final int DAY_STEPS = 30;
+
+    @Param({"10000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private FineService fineService;
+    private List<BookTransaction> loans;
+    private List<Map<Long, Long>> overdueDays;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        new CatalogSeeder(jdbc, SEED).seed(books, 1);
+
+        UserRepository users = context.getBean(UserRepository.class);
+        List<User> members = List.of(users.findByUsername("john_doe").orElseThrow(),
+                users.findByUsername("jane_smith").orElseThrow());
+        User librarian = users.findByUsername("librarian").orElseThrow();
+        List<Long> copyIds = jdbc.queryForList("SELECT id FROM book_copies ORDER BY id LIMIT " + LOANS, Long.class);
+        List<BookCopy> copies = context.getBean(BookCopyRepository.class).findAllById(copyIds);
+
+        LocalDateTime issuedAt = LocalDateTime.now().minusDays(60);
+        List<BookTransaction> overdue = new ArrayList<>();
+        for (int i = 0; i < copies.size(); i++) {
+            BookTransaction loan = new BookTransaction();
+            loan.setUser(members.get(i % members.size()));
+            loan.setBookCopy(copies.get(i));
+            loan.setStatus(TransactionStatus.OVERDUE);
+            loan.setIssuedAt(issuedAt);
+            loan.setDueDate(issuedAt.plusDays(14));
+            loan.setIssuedBy(librarian);
+            overdue.add(loan);
+        }
+        loans = context.getBean(BookTransactionRepository.class).saveAll(overdue);
+        fineService = context.getBean(FineService.class);
+
+        overdueDays = new ArrayList<>();
+        for (int step = 0; step < DAY_STEPS; step++) {
+            Map<Long, Long> days = new HashMap<>();
+            for (BookTransaction loan : loans) {
+                days.put(loan.getId(), 5L + step);
+            }
+            overdueDays.add(days);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOANS)
+    public FineService.OverdueFines applyOverdueFines() {
+        Map<Long, Long> days = overdueDays.get(next);
+        next = (next + 1) % DAY_STEPS;
+        return fineService.applyOverdueFines(loans, days);
+    }
+}
@@ -0,0 +1,86 @@
+package com.sliit.library.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files, e.g. from two commits. Prints each benchmark's score
+ * in both runs and the change, and marks it when the error intervals do not overlap, which
+ * is when a difference is more than run-to-run noise. Allocation per operation is compared
+ * too when both runs used {@code -prof gc}.
+ *
+ * <pre>java -cp ... com.sliit.library.benchmark.ResultComparison baseline.json candidate.json</pre>
+ */
+public final class ResultComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    record Score(double value, double error, String unit) {
+
+        boolean overlaps(Score other) {
+            return Math.abs(value - other.value) <= error + other.error;
+        }
+    }
+
+    private ResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ResultComparison <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> candidate = read(new File(args[1]));
+
+        System.out.printf(Locale.ROOT, "%-70s %16s %16s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, Score> entry : baseline.entrySet()) {
+            Score before = entry.getValue();
+            Score after = candidate.get(entry.getKey());
+            if (after == null) {
+                continue;
+            }
+            double change = before.value() == 0 ? 0 : (after.value() - before.value()) / before.value() * 100;
+            System.out.printf(Locale.ROOT, "%-70s %16s %16s %+8.1f%% %s%n", entry.getKey(), format(before),
+                    format(after), change, before.overlaps(after) ? "" : "*");
+        }
+        System.out.println("* error intervals do not overlap");
+    }
+
+    /** Primary scores and allocation per operation, keyed by benchmark and parameters. */
+    static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.get("benchmark").asText().replace("com.sliit.library.", "") + params(run);
+            scores.put(name, score(run.get("primaryMetric")));
+            JsonNode allocation = run.path("secondaryMetrics").get(ALLOCATION);
+            if (allocation != null) {
+                scores.put(name + " alloc", score(allocation));
+            }
+        }
+        return scores;
+    }
+
+    private static String params(JsonNode run) {
+        Map<String, String> params = new LinkedHashMap<>();
+        run.path("params").properties().forEach(param -> params.put(param.getKey(), param.getValue().asText()));
+        return params.isEmpty() ? "" : params.toString();
+    }
+
+    private static Score score(JsonNode metric) {
+        double error = metric.get("scoreError").asDouble();
+        return new Score(metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                metric.get("scoreUnit").asText());
+    }
+
+    private static String format(Score score) {
+        return String.format(Locale.ROOT, "%.1f %s", score.value(), score.unit());
+    }
+}
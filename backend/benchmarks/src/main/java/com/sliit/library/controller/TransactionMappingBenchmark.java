@@ -0,0 +1,80 @@
+package com.sliit.library.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sliit.library.model.Author;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.BookCopy;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.model.User;
+
+/**
+ * Cost of mapping loaded loans to the rows of the transaction listings, with no database
+ * involved. Run with {@code -prof gc} to get the bytes allocated per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TransactionMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private final List<BookTransaction> transactions = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        LocalDateTime issuedAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < ROWS; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle("Benchmark Book " + i);
+            book.setIsbn(String.format("978%010d", i));
+            book.setAuthor(Author.builder().id((long) i % 50).name("Author " + i % 50).build());
+
+            BookCopy copy = new BookCopy();
+            copy.setId((long) i);
+            copy.setBook(book);
+            copy.setBarcode("B" + i + "-0");
+
+            User member = User.builder().id((long) i % 200).username("member" + i % 200).name("Member " + i % 200).build();
+
+            BookTransaction transaction = new BookTransaction();
+            transaction.setId((long) i);
+            transaction.setUser(member);
+            transaction.setBookCopy(copy);
+            transaction.setStatus(i % 3 == 0 ? TransactionStatus.RETURNED : TransactionStatus.ACTIVE);
+            transaction.setIssuedAt(issuedAt);
+            transaction.setDueDate(issuedAt.plusDays(14));
+            transaction.setReturnedAt(i % 3 == 0 ? issuedAt.plusDays(10) : null);
+            transactions.add(transaction);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void toTransactionSummaryDto(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(BookTransactionController.toTransactionSummaryDto(transactions.get(i)));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sliit.library.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sliit.library.dto.BookReviewDto.BookReviewSummary;
+import com.sliit.library.model.Author;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.Category;
+import com.sliit.library.model.Language;
+import com.sliit.library.model.Publisher;
+
+/**
+ * Cost of mapping loaded books to listing rows, with no database involved. Run with
+ * {@code -prof gc} to get the bytes allocated per row ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BookMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<BookReviewSummary> summaries = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle("Benchmark Book " + i);
+            book.setIsbn(String.format("978%010d", i));
+            book.setYear(1950 + i % 75);
+            book.setAuthor(Author.builder().id((long) i % 50).name("Author " + i % 50).build());
+            book.setPublisher(Publisher.builder().id((long) i % 20).name("Publisher " + i % 20).build());
+            book.setCategory(Category.builder().id((long) i % 10).name("Category " + i % 10).build());
+            book.setLanguage(new Language("Language " + i % 4));
+            book.setCreatedAt(createdAt);
+            books.add(book);
+
+            BookReviewSummary summary = new BookReviewSummary();
+            summary.setBookId((long) i);
+            summary.setAverageRating(1 + (i % 40) / 10.0);
+            summary.setTotalReviews((long) i % 25);
+            summaries.add(summary);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void toSummaryResponse(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(BookService.toSummaryResponse(books.get(i), summaries.get(i)));
+        }
+    }
+}
@@ -4,14 +4,20 @@ import com.sliit.library.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataMigrationRunner implements CommandLineRunner {
 
     private final PaymentService paymentService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public void run(String... args) throws Exception {
@@ -22,5 +28,37 @@ public class DataMigrationRunner implements CommandLineRunner {
         } catch (Exception e) {
             log.error("Error during payment type migration", e);
         }
+        try {
+            migrateNotificationStatusColumn();
+        } catch (Exception e) {
+            log.error("Error during notification status column migration", e);
+        }
+    }
+
+    /**
+     * Databases created while notifications.status was mapped as an ENUM list only the
+     * statuses known then, so writing a newer one such as SKIPPED fails. Schema update does
+     * not run everywhere (ddl-auto none or validate), so convert the column here as well.
+     */
+    void migrateNotificationStatusColumn() {
+        String columnType = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? "NOTIFICATIONS" : "notifications";
+            String column = metaData.storesUpperCaseIdentifiers() ? "STATUS" : "status";
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+                return columns.next() ? columns.getString("TYPE_NAME") : null;
+            }
+        });
+        if (columnType == null || !columnType.toUpperCase().startsWith("ENUM")) {
+            return;
+        }
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(product)) {
+            jdbcTemplate.execute("ALTER TABLE notifications ALTER COLUMN status SET DATA TYPE VARCHAR(20)");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE notifications MODIFY COLUMN status VARCHAR(20)");
+        }
+        log.info("Migrated notifications.status from {} to VARCHAR(20)", columnType);
     }
-}
\ No newline at end of file
+}
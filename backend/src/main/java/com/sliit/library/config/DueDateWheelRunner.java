@@ -0,0 +1,25 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.DueDateWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DueDateWheelRunner implements CommandLineRunner {
+
+    private final DueDateWheel dueDateWheel;
+
+    @Override
+    public void run(String... args) throws Exception {
+        try {
+            // Loans already past due are fired on the first tick
+            dueDateWheel.load();
+        } catch (Exception e) {
+            log.error("Error loading the due-date wheel", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sliit.library.config;
+
+import com.sliit.library.util.RequestSqlStats;
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time each session spends preparing and executing JDBC statements to the current
+ * request's {@link RequestSqlStats}. Hibernate creates one per session, so it is never shared
+ * between threads.
+ */
+public class JdbcTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        RequestSqlStats.jdbcTime(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestSqlStats.jdbcTime(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestSqlStats.jdbcTime(System.nanoTime() - startedAt);
+    }
+}
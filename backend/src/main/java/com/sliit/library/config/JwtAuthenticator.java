@@ -0,0 +1,44 @@
+package com.sliit.library.config;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.sliit.library.config.JwtTokenUtil.TokenUser;
+import com.sliit.library.service.JwtUserDetailsService;
+import com.sliit.library.service.TokenDenylist;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a Bearer token into an authentication for HTTP requests and STOMP sessions. The token
+ * is parsed once and its claims become the principal, so no user is loaded unless the token
+ * predates the embedded claims.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticator {
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final TokenDenylist tokenDenylist;
+    private final JwtUserDetailsService jwtUserDetailsService;
+
+    /** The authentication for a token, or null when it was revoked; throws a JwtException when invalid or expired. */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        Claims claims = jwtTokenUtil.parse(token);
+        TokenUser user = jwtTokenUtil.toUser(claims);
+        if (user == null) {
+            // Issued before claims were embedded: resolve the user as before until it expires
+            UserDetails userDetails = jwtUserDetailsService.loadUserByUsername(claims.getSubject());
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        }
+        if (tokenDenylist.isRevoked(user)) {
+            log.debug("Rejected revoked token of user {}", user.id());
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(user, null, user.authorities());
+    }
+}
@@ -1,19 +1,28 @@
 package com.sliit.library.config;
 
+import java.security.Principal;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.sliit.library.model.User;
+import com.sliit.library.model.UserRole;
+import com.sliit.library.model.UserStatus;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
@@ -22,9 +31,40 @@ public class JwtTokenUtil {
 
     public static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60; // 5 hours
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String STATUS_CLAIM = "status";
+
     @Value("${jwt.secret}")
     private String secret;
 
+    private SecretKeySpec signingKey;
+    private JwtParser parser;
+
+    /**
+     * The user a token was issued to, as recorded in its claims. Used as the authenticated
+     * principal so requests are authenticated without loading the user.
+     */
+    public record TokenUser(Long id, String username, UserRole role, UserStatus status, Date issuedAt)
+            implements Principal {
+
+        @Override
+        public String getName() {
+            return username;
+        }
+
+        public List<GrantedAuthority> authorities() {
+            return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        // Key and parser are immutable and thread-safe, so build them once
+        signingKey = new SecretKeySpec(secret.getBytes(), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -34,31 +74,33 @@ public class JwtTokenUtil {
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = parse(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private SecretKeySpec getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return new SecretKeySpec(keyBytes, SignatureAlgorithm.HS512.getJcaName());
+    /** Verify signature and expiry in one pass; throws a JwtException when either fails. */
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    /** The user recorded in the claims, or null for tokens issued without them. */
+    public TokenUser toUser(Claims claims) {
+        Number id = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        String status = claims.get(STATUS_CLAIM, String.class);
+        if (id == null || role == null || status == null) {
+            return null;
+        }
+        return new TokenUser(id.longValue(), claims.getSubject(), UserRole.valueOf(role), UserStatus.valueOf(status),
+                claims.getIssuedAt());
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, userDetails.getUsername());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(STATUS_CLAIM, user.getStatus().name());
+        return doGenerateToken(claims, user.getUsername());
     }
 
     private String doGenerateToken(Map<String, Object> claims, String subject) {
@@ -67,17 +109,7 @@ public class JwtTokenUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (Exception e) {
-            log.error("JWT validation failed: {}", e.getMessage());
-            return false;
-        }
-    }
-}
\ No newline at end of file
+}
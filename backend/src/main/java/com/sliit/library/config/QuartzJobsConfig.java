@@ -0,0 +1,59 @@
+package com.sliit.library.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.sliit.library.service.ClusteredJob;
+import com.sliit.library.service.OverduePartitionJob;
+import com.sliit.library.service.ScheduledJob;
+
+/**
+ * Registers every {@link ScheduledJob} with the clustered Quartz scheduler, plus the durable
+ * job that runs overdue partitions. Jobs request recovery, so a run interrupted by a node
+ * going down is re-run by another node.
+ */
+@Configuration
+public class QuartzJobsConfig {
+
+    @Bean
+    public SchedulerFactoryBeanCustomizer scheduledJobsCustomizer(Environment environment) {
+        return schedulerFactoryBean -> {
+            List<JobDetail> jobDetails = new ArrayList<>();
+            List<Trigger> triggers = new ArrayList<>();
+            for (ScheduledJob job : ScheduledJob.values()) {
+                JobDetail jobDetail = JobBuilder.newJob(ClusteredJob.class)
+                        .withIdentity(job.name())
+                        .storeDurably()
+                        .requestRecovery()
+                        .build();
+                CronScheduleBuilder schedule = CronScheduleBuilder.cronSchedule(environment.resolveRequiredPlaceholders(job.getCron()));
+                jobDetails.add(jobDetail);
+                triggers.add(TriggerBuilder.newTrigger()
+                        .forJob(jobDetail)
+                        .withIdentity(job.name())
+                        .withSchedule(job.isCatchUp()
+                                ? schedule.withMisfireHandlingInstructionFireAndProceed()
+                                : schedule.withMisfireHandlingInstructionDoNothing())
+                        .build());
+            }
+            jobDetails.add(JobBuilder.newJob(OverduePartitionJob.class)
+                    .withIdentity(OverduePartitionJob.NAME)
+                    .storeDurably()
+                    .requestRecovery()
+                    .build());
+
+            schedulerFactoryBean.setJobDetails(jobDetails.toArray(JobDetail[]::new));
+            schedulerFactoryBean.setTriggers(triggers.toArray(Trigger[]::new));
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.BookRatingStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RatingStatsRunner implements CommandLineRunner {
+
+    private final BookRatingStatsService ratingStatsService;
+
+    @Override
+    public void run(String... args) throws Exception {
+        try {
+            ratingStatsService.backfillIfEmpty();
+        } catch (Exception e) {
+            log.error("Error backfilling book rating statistics", e);
+        }
+    }
+}
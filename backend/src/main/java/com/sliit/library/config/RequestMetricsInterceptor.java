@@ -6,25 +6,31 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Component
 @RequiredArgsConstructor
 public class RequestMetricsInterceptor implements HandlerInterceptor {
 
+    private static final String STARTED_AT = RequestMetricsInterceptor.class.getName() + ".startedAt";
+
     private final RequestMetricsService requestMetricsService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // Record the request
-        requestMetricsService.recordRequest();
+        request.setAttribute(STARTED_AT, System.nanoTime());
         return true;
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        // Record errors (HTTP status 400-599)
-        if (response.getStatus() >= 400) {
-            requestMetricsService.recordError();
+        if (!(request.getAttribute(STARTED_AT) instanceof Long startedAt)) {
+            return;
         }
+        // Keyed by the matched template (/api/books/{id}) so ids do not create a series each
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern instanceof String template ? template : "UNMATCHED";
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        requestMetricsService.record(route, request.getMethod(), status, System.nanoTime() - startedAt);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.BookSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexRunner implements CommandLineRunner {
+
+    private final BookSearchIndex bookSearchIndex;
+
+    @Override
+    public void run(String... args) throws Exception {
+        log.info("Building catalog search index...");
+        try {
+            bookSearchIndex.rebuild();
+        } catch (Exception e) {
+            // Searches keep falling back to the database until the index is ready
+            log.error("Error building catalog search index", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.sliit.library.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -29,6 +30,7 @@ public class SecurityConfig {
 
     private final JwtRequestFilter jwtRequestFilter;
     private final RequestMetricsInterceptor requestMetricsInterceptor;
+    private final TracingInterceptor tracingInterceptor;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -62,8 +64,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:10}") int strength) {
+        // Hashes made at a lower cost are re-hashed at this strength on the user's next login
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -74,6 +77,9 @@ public class SecurityConfig {
                 registry.addInterceptor(requestMetricsInterceptor)
                         .addPathPatterns("/api/**")
                         .excludePathPatterns("/api/auth/**", "/h2-console/**");
+                registry.addInterceptor(tracingInterceptor)
+                        .addPathPatterns("/api/**")
+                        .excludePathPatterns("/api/traces/**");
             }
         };
     }
@@ -0,0 +1,36 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.TraceService;
+import com.sliit.library.util.RequestSqlStats;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sees every SQL statement Hibernate prepares and counts it against the current request and,
+ * when the request is traced, the span that issued it. The statement is passed through
+ * unchanged. Also registers {@link JdbcTimingListener} for the request's JDBC time.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final TraceService traceService;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestSqlStats.statementPrepared();
+        traceService.countStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sliit.library.config;
+
+import com.sliit.library.util.RequestSqlStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Counts the SQL statements and JDBC time of each API request. Requests over the warning
+ * threshold are logged (usually an N+1 lazy load); with the debug flag on, every response
+ * carries the totals in headers, buffered so they can be set after the body is produced.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String JDBC_TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Value("${app.sql-stats.debug-headers:false}")
+    private boolean debugHeaders;
+
+    @Value("${app.sql-stats.warn-statements:100}")
+    private int warnStatements;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = debugHeaders ? new ContentCachingResponseWrapper(response) : null;
+        RequestSqlStats.begin();
+        RequestSqlStats stats;
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            stats = RequestSqlStats.end();
+        }
+        if (stats.statements() >= warnStatements) {
+            log.warn("{} {} issued {} SQL statements ({} ms in JDBC)", request.getMethod(), request.getRequestURI(),
+                    stats.statements(), String.format(Locale.ROOT, "%.1f", stats.jdbcMillis()));
+        }
+        if (buffered != null) {
+            buffered.setHeader(STATEMENTS_HEADER, String.valueOf(stats.statements()));
+            buffered.setHeader(JDBC_TIME_HEADER, String.format(Locale.ROOT, "%.2f", stats.jdbcMillis()));
+            buffered.copyBodyToResponse();
+        }
+    }
+}
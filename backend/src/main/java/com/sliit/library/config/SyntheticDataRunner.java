@@ -0,0 +1,83 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.SyntheticDataGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Fills an empty database with the synthetic dataset described by app.datagen.* when the
+ * datagen profile is active. Runs once startup is complete, after DataInitializer has
+ * seeded the staff and reference data the dataset points at.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class SyntheticDataRunner {
+
+    private final SyntheticDataGenerator generator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+
+    // Empty means today
+    @Value("${app.datagen.as-of:}")
+    private String asOf;
+
+    @Value("${app.datagen.users:10000}")
+    private int users;
+
+    @Value("${app.datagen.authors:5000}")
+    private int authors;
+
+    @Value("${app.datagen.publishers:500}")
+    private int publishers;
+
+    @Value("${app.datagen.books:100000}")
+    private int books;
+
+    @Value("${app.datagen.copies-per-book:3}")
+    private int copiesPerBook;
+
+    @Value("${app.datagen.loans:1000000}")
+    private int loans;
+
+    @Value("${app.datagen.history-days:730}")
+    private int historyDays;
+
+    @Value("${app.datagen.review-rate:0.1}")
+    private double reviewRate;
+
+    @Value("${app.datagen.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.datagen.exit:false}")
+    private boolean exit;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generate() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        if (existing != null && existing > 0) {
+            // Keys and dates only repeat run to run when starting from the seeded tables
+            log.warn("Skipping synthetic data generation: the catalog already has {} books", existing);
+        } else {
+            generator.generate(new SyntheticDataGenerator.Spec(seed, asOf.isBlank() ? LocalDate.now() : LocalDate.parse(asOf),
+                    users, authors, publishers, books, copiesPerBook, loans, historyDays, reviewRate, batchSize));
+        }
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.TraceService;
+import com.sliit.library.service.TraceService.SpanKind;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a span around every public service method and repository call of a traced request.
+ * When the request is not sampled the advice only checks for an active trace.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private static final String REPOSITORY_PACKAGE = "com.sliit.library.repository.";
+
+    private final TraceService traceService;
+
+    @Around("execution(public * com.sliit.library.service..*(..)) && !within(com.sliit.library.service.TraceService)")
+    public Object traceService(ProceedingJoinPoint call) throws Throwable {
+        if (!traceService.isTracing()) {
+            return call.proceed();
+        }
+        String type = AopUtils.getTargetClass(call.getTarget()).getSimpleName();
+        return trace(call, type + "." + call.getSignature().getName(), SpanKind.SERVICE);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint call) throws Throwable {
+        if (!traceService.isTracing()) {
+            return call.proceed();
+        }
+        return trace(call, repositoryName(call.getThis()) + "." + call.getSignature().getName(), SpanKind.REPOSITORY);
+    }
+
+    private Object trace(ProceedingJoinPoint call, String name, SpanKind kind) throws Throwable {
+        TraceService.Span span = traceService.enter(name, kind);
+        try {
+            return call.proceed();
+        } finally {
+            traceService.exit(span);
+        }
+    }
+
+    // Inherited methods such as save() are declared on CrudRepository, so name the app's interface
+    private static String repositoryName(Object proxy) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return "Repository";
+    }
+}
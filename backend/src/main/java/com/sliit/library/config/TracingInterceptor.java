@@ -0,0 +1,33 @@
+package com.sliit.library.config;
+
+import com.sliit.library.service.TraceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+@RequiredArgsConstructor
+public class TracingInterceptor implements HandlerInterceptor {
+
+    private final TraceService traceService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        traceService.begin(request.getMethod() + " " + request.getRequestURI());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!traceService.isTracing()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern instanceof String template ? template : request.getRequestURI();
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        traceService.finish(request.getMethod() + " " + route, status);
+    }
+}
@@ -0,0 +1,88 @@
+package com.sliit.library.config;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import com.sliit.library.service.RecentActivityFeed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates STOMP sessions from the Bearer token sent with CONNECT and keeps the live
+ * activity topic to staff, including subscriptions whose pattern would match it. Clients may
+ * not SEND to broker destinations at all: only the server publishes there.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final PathMatcher DESTINATIONS = new AntPathMatcher();
+
+    // The simple broker relays a client SEND to its subscribers as is; /user/ destinations
+    // resolve into /queue/
+    private static final List<String> BROKER_PREFIXES = List.of("/topic/", "/queue/", "/user/");
+
+    private final JwtAuthenticator jwtAuthenticator;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            Authentication user = authenticate(accessor.getFirstNativeHeader("Authorization"));
+            if (user != null) {
+                accessor.setUser(user);
+            }
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE
+                && reachesActivityTopic(accessor.getDestination())
+                && !isStaff(accessor.getUser())) {
+            throw new MessagingException("Not allowed to subscribe to " + RecentActivityFeed.TOPIC);
+        } else if (accessor.getCommand() == StompCommand.SEND && isBrokerDestination(accessor.getDestination())) {
+            throw new MessagingException("Not allowed to send to " + accessor.getDestination());
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtAuthenticator.authenticate(header.substring(7));
+        } catch (Exception e) {
+            log.warn("WebSocket JWT rejected: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    // The simple broker treats subscription destinations as Ant patterns, so /topic/** or
+    // /topic/activit?es receive the activity feed just like its exact name
+    private static boolean reachesActivityTopic(String destination) {
+        return destination != null && DESTINATIONS.match(destination, RecentActivityFeed.TOPIC);
+    }
+
+    private static boolean isBrokerDestination(String destination) {
+        return destination != null && BROKER_PREFIXES.stream().anyMatch(destination::startsWith);
+    }
+
+    private static boolean isStaff(java.security.Principal principal) {
+        return principal instanceof Authentication authentication && authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")
+                        || authority.getAuthority().equals("ROLE_LIBRARIAN"));
+    }
+}
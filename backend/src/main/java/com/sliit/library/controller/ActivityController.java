@@ -2,34 +2,67 @@ package com.sliit.library.controller;
 
 import com.sliit.library.dto.ActivityDto.*;
 import com.sliit.library.service.ActivityService;
+import com.sliit.library.service.ActivityWriter;
 import com.sliit.library.util.CurrentUser;
-import com.sliit.library.model.User;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/activities")
 public class ActivityController {
 
   private final ActivityService service;
   private final CurrentUser currentUser;
+  private final ActivityWriter writer;
   
-  public ActivityController(ActivityService service, CurrentUser currentUser) { 
+  public ActivityController(ActivityService service, CurrentUser currentUser, ActivityWriter writer) { 
     this.service = service; 
     this.currentUser = currentUser;
+    this.writer = writer;
   }
 
   @GetMapping
-  public List<ActivityResponse> getAll(@RequestParam(defaultValue = "0") int page,
-                                       @RequestParam(defaultValue = "10") int size) {
-    User user = currentUser.require();
-    return service.getAllActivities(user.getId(), page, size);
+  public ActivityPageResponse getAll(@RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "10") int size) {
+    return service.getAllActivities(currentUser.requireId(), cursor, size);
   }
 
   @GetMapping("/users/{id}")
-  public List<ActivityResponse> getByUserId(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
-    return service.getByUserId(id, limit);
+  public ActivityPageResponse getByUserId(@PathVariable Long id,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "10") int limit) {
+    return service.getByUserId(id, cursor, limit);
+  }
+
+  @GetMapping("/system")
+  @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+  public ActivityPageResponse getSystem(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "10") int limit) {
+    return service.getSystemActivities(cursor, limit);
+  }
+
+  @GetMapping("/types/{type}")
+  @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+  public ActivityPageResponse getByType(@PathVariable ActivityType type,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "10") int limit) {
+    return service.getActivitiesByType(type, cursor, limit);
+  }
+
+  @GetMapping("/severities/{severity}")
+  @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+  public ActivityPageResponse getBySeverity(@PathVariable ActivitySeverity severity,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "10") int limit) {
+    return service.getActivitiesBySeverity(severity, cursor, limit);
+  }
+
+  @GetMapping("/writer/stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ActivityWriter.Stats getWriterStats() {
+    return writer.getStats();
   }
 
 }
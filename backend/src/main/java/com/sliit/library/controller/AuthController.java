@@ -1,17 +1,20 @@
 package com.sliit.library.controller;
 
 import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.exception.ServiceUnavailableException;
 import com.sliit.library.model.User;
 import com.sliit.library.model.UserRole;
 import com.sliit.library.model.UserStatus;
-import com.sliit.library.service.JwtUserDetailsService;
+import com.sliit.library.service.PasswordVerifier;
+import com.sliit.library.service.TokenDenylist;
 import com.sliit.library.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -28,9 +31,8 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
     private final JwtTokenUtil jwtTokenUtil;
-    private final JwtUserDetailsService userDetailsService;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
@@ -42,14 +44,26 @@ public class AuthController {
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid username or password"));
             }
 
-            // Check password
-            if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPasswordHash())) {
+            // Check password on the hashing pool, which refuses the login when it is saturated
+            PasswordVerifier.Verification verification =
+                    passwordVerifier.verify(loginRequest.getPassword(), user.getPasswordHash());
+            if (!verification.matched()) {
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid username or password"));
             }
 
-            // Generate JWT token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-            String token = jwtTokenUtil.generateToken(userDetails);
+            // Tokens of disabled accounts are refused, so do not issue one
+            if (TokenDenylist.isDisabled(user.getStatus())) {
+                return ResponseEntity.status(403).body(Map.of("message", "Account is disabled"));
+            }
+
+            // Replace a hash made at a lower cost than the current strength
+            if (verification.upgradedHash() != null) {
+                user.setPasswordHash(verification.upgradedHash());
+                user = userService.save(user);
+            }
+
+            // Generate JWT token carrying the user's id, role and status
+            String token = jwtTokenUtil.generateToken(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -66,6 +80,8 @@ public class AuthController {
             response.put("user", userResponse);
 
             return ResponseEntity.ok(response);
+        } catch (ServiceUnavailableException e) {
+            return unavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("message", "Login failed: " + e.getMessage()));
         }
@@ -90,7 +106,7 @@ public class AuthController {
             User newUser = new User();
             newUser.setUsername(registerRequest.getUsername());
             newUser.setEmail(registerRequest.getEmail());
-            newUser.setPasswordHash(passwordEncoder.encode(registerRequest.getPassword()));
+            newUser.setPasswordHash(passwordVerifier.encode(registerRequest.getPassword()));
             newUser.setName(registerRequest.getFirstName() + " " + registerRequest.getLastName());
             newUser.setRole(UserRole.MEMBER); // Default role
             newUser.setStatus(UserStatus.ACTIVE);
@@ -98,8 +114,7 @@ public class AuthController {
             User savedUser = userService.save(newUser);
 
             // Generate proper JWT token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getUsername());
-            String token = jwtTokenUtil.generateToken(userDetails);
+            String token = jwtTokenUtil.generateToken(savedUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
@@ -115,11 +130,19 @@ public class AuthController {
             response.put("user", userResponse);
 
             return ResponseEntity.ok(response);
+        } catch (ServiceUnavailableException e) {
+            return unavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("message", "Registration failed: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/hashing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PasswordVerifier.Stats> getHashingStats() {
+        return ResponseEntity.ok(passwordVerifier.getStats());
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String authorization) {
         try {
@@ -155,6 +178,12 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> unavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+
     // Inner classes for request DTOs
     @Getter
     @Setter
@@ -14,11 +14,13 @@ import java.io.IOException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.sliit.library.service.BookService;
+import com.sliit.library.service.ReferenceDataCache;
 import com.sliit.library.service.BookReviewService;
 import com.sliit.library.dto.BookReviewDto.BookReviewResponse;
 import com.sliit.library.dto.BookReviewDto.BookReviewSummary;
@@ -35,6 +37,7 @@ public class BookController {
 
     private final BookService service;
     private final BookReviewService reviewService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
@@ -126,9 +129,10 @@ public class BookController {
                                      @RequestParam(required = false) Long author,
                                      @RequestParam(required = false) Long publisher,
                                      @RequestParam(required = false) Long language,
+                                     @RequestParam(defaultValue = "INDEX") SearchMode mode,
                                      @RequestParam(defaultValue = "0") int page,
                                      @RequestParam(defaultValue = "10") int pageSize) {
-        return service.search(query, category, author, publisher, language, page, pageSize);
+        return service.search(query, mode, category, author, publisher, language, page, pageSize);
     }
 
     @GetMapping("/{id}/reviews")
@@ -143,6 +147,12 @@ public class BookController {
         return reviewService.getBookReviewSummary(id);
     }
 
+    @GetMapping("/reference-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ReferenceDataCache.RegionStats> getReferenceCacheStats() {
+        return referenceDataCache.getStats();
+    }
+
     // Image upload methods
     private String uploadBookCover(MultipartFile file) throws IOException {
         validateFile(file);
@@ -3,6 +3,7 @@ package com.sliit.library.controller;
 import com.sliit.library.model.*;
 import com.sliit.library.service.BookTransactionService;
 import com.sliit.library.service.BookCopyService;
+import com.sliit.library.service.OverdueProcessingService;
 import com.sliit.library.service.UserService;
 import com.sliit.library.util.CurrentUser;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +25,7 @@ public class BookTransactionController {
 
     private final BookTransactionService transactionService;
     private final BookCopyService bookCopyService;
+    private final OverdueProcessingService overdueProcessingService;
     private final UserService userService;
     private final CurrentUser currentUser;
 
@@ -46,7 +48,7 @@ public class BookTransactionController {
         );
     }
 
-    private TransactionSummaryDto toTransactionSummaryDto(BookTransaction transaction) {
+    static TransactionSummaryDto toTransactionSummaryDto(BookTransaction transaction) {
         return new TransactionSummaryDto(
             transaction.getId(),
             transaction.getBookCopy().getId(),
@@ -122,7 +124,7 @@ public class BookTransactionController {
         }
 
         List<TransactionSummaryDto> dtos = transactions.stream()
-            .map(this::toTransactionSummaryDto)
+            .map(BookTransactionController::toTransactionSummaryDto)
             .toList();
         return ResponseEntity.ok(dtos);
     }
@@ -142,7 +144,7 @@ public class BookTransactionController {
         }
 
         List<TransactionSummaryDto> dtos = transactions.stream()
-            .map(this::toTransactionSummaryDto)
+            .map(BookTransactionController::toTransactionSummaryDto)
             .toList();
         return ResponseEntity.ok(dtos);
     }
@@ -152,17 +154,23 @@ public class BookTransactionController {
     public ResponseEntity<List<TransactionSummaryDto>> getOverdueTransactions() {
         List<BookTransaction> transactions = transactionService.getOverdueTransactions();
         List<TransactionSummaryDto> dtos = transactions.stream()
-            .map(this::toTransactionSummaryDto)
+            .map(BookTransactionController::toTransactionSummaryDto)
             .toList();
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping("/overdue/processing")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<OverdueProcessingService.Progress> getOverdueProcessingProgress() {
+        return ResponseEntity.ok(overdueProcessingService.getProgress());
+    }
+
     @GetMapping("/renewable")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<List<TransactionSummaryDto>> getRenewableTransactions() {
         List<BookTransaction> transactions = transactionService.getRenewableTransactions();
         List<TransactionSummaryDto> dtos = transactions.stream()
-            .map(this::toTransactionSummaryDto)
+            .map(BookTransactionController::toTransactionSummaryDto)
             .toList();
         return ResponseEntity.ok(dtos);
     }
@@ -182,7 +190,7 @@ public class BookTransactionController {
         }
 
         List<TransactionSummaryDto> dtos = transactions.stream()
-            .map(this::toTransactionSummaryDto)
+            .map(BookTransactionController::toTransactionSummaryDto)
             .toList();
         return ResponseEntity.ok(dtos);
     }
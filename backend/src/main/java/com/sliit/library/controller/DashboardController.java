@@ -1,11 +1,21 @@
 package com.sliit.library.controller;
 
+import com.sliit.library.dto.AnalyticsDto.SeriesPoint;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+import com.sliit.library.model.RollupGranularity;
+import com.sliit.library.model.RollupMetric;
+import com.sliit.library.service.AnalyticsRollupService;
 import com.sliit.library.service.DashboardService;
+import com.sliit.library.service.DashboardSnapshotCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,43 +24,55 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final DashboardSnapshotCache snapshotCache;
 
     // Admin Dashboard APIs
     @GetMapping("/admin/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getAdminDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getAdminDashboardStats());
+        return ResponseEntity.ok(snapshotCache.get("admin-stats", dashboardService::getAdminDashboardStats));
     }
 
     @GetMapping("/admin/overview")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getAdminOverview() {
-        return ResponseEntity.ok(dashboardService.getAdminOverview());
+        return ResponseEntity.ok(snapshotCache.get("admin-overview", dashboardService::getAdminOverview));
     }
 
     @GetMapping("/admin/financial")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getFinancialStats() {
-        return ResponseEntity.ok(dashboardService.getFinancialStats());
+        return ResponseEntity.ok(snapshotCache.get("admin-financial", dashboardService::getFinancialStats));
+    }
+
+    @GetMapping("/admin/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SeriesPoint>> getAnalyticsSeries(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<RollupMetric> metrics) {
+        return ResponseEntity.ok(analyticsRollupService.series(granularity, from, to, metrics));
     }
 
     @GetMapping("/admin/users")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getUserManagementStats() {
-        return ResponseEntity.ok(dashboardService.getUserManagementStats());
+        return ResponseEntity.ok(snapshotCache.get("admin-users", dashboardService::getUserManagementStats));
     }
 
     // Librarian Dashboard APIs
     @GetMapping("/librarian/stats")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<Map<String, Object>> getLibrarianDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getLibrarianDashboardStats());
+        return ResponseEntity.ok(snapshotCache.get("librarian-stats", dashboardService::getLibrarianDashboardStats));
     }
 
     @GetMapping("/librarian/circulation")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<Map<String, Object>> getCirculationStats() {
-        return ResponseEntity.ok(dashboardService.getCirculationStats());
+        return ResponseEntity.ok(snapshotCache.get("librarian-circulation", dashboardService::getCirculationStats));
     }
 
     @GetMapping("/librarian/overdue")
@@ -67,7 +89,9 @@ public class DashboardController {
 
     @GetMapping("/librarian/activity")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<Map<String, Object>> getRecentActivity(@RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(dashboardService.getRecentActivity(limit));
+    public ResponseEntity<Map<String, Object>> getRecentActivity(@RequestParam(defaultValue = "10") int limit,
+                                                                 @RequestParam(required = false) ActivityType type,
+                                                                 @RequestParam(required = false) ActivitySeverity severity) {
+        return ResponseEntity.ok(dashboardService.getRecentActivity(limit, type, severity));
     }
 }
\ No newline at end of file
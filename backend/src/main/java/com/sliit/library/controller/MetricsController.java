@@ -0,0 +1,35 @@
+package com.sliit.library.controller;
+
+import com.sliit.library.service.RequestMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+    private final RequestMetricsService requestMetricsService;
+
+    @GetMapping("/requests")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RequestMetricsService.EndpointStats>> getRequestStats() {
+        return ResponseEntity.ok(requestMetricsService.getEndpointStats());
+    }
+
+    // Scrape with the admin's token as bearer_token
+    @GetMapping("/prometheus")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> getPrometheusMetrics() {
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(requestMetricsService.toPrometheus());
+    }
+}
@@ -2,6 +2,7 @@ package com.sliit.library.controller;
 
 import com.sliit.library.dto.NotificationDto;
 import com.sliit.library.model.*;
+import com.sliit.library.service.NotificationDispatcher;
 import com.sliit.library.service.NotificationService;
 import com.sliit.library.util.CurrentUser;
 import lombok.RequiredArgsConstructor;
@@ -18,8 +19,15 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
     private final CurrentUser currentUser;
 
+    @GetMapping("/dispatcher/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<NotificationDispatcher.ChannelStats>> getDispatcherStats() {
+        return ResponseEntity.ok(notificationDispatcher.getStats());
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('MEMBER') or hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<List<NotificationDto>> getMyNotifications() {
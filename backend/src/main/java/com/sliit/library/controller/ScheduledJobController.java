@@ -0,0 +1,35 @@
+package com.sliit.library.controller;
+
+import com.sliit.library.model.JobExecution;
+import com.sliit.library.service.ClusteredJobService;
+import com.sliit.library.service.JobHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class ScheduledJobController {
+
+    private final ClusteredJobService clusteredJobService;
+    private final JobHistoryService jobHistoryService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        return ResponseEntity.ok(clusteredJobService.describeJobs());
+    }
+
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<JobExecution>> getJobHistory(
+            @RequestParam(required = false) String job,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(jobHistoryService.recent(job, limit));
+    }
+}
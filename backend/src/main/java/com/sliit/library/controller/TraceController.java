@@ -0,0 +1,63 @@
+package com.sliit.library.controller;
+
+import com.sliit.library.exception.ResourceNotFoundException;
+import com.sliit.library.service.TraceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/traces")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final TraceService traceService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TraceService.TraceSummary>> getRecentTraces(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(traceService.getRecent(Math.max(1, limit)));
+    }
+
+    @GetMapping("/slowest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TraceService.TraceSummary>> getSlowestTraces() {
+        return ResponseEntity.ok(traceService.getSlowest());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TraceService.TraceRecord> getTrace(@PathVariable long id) {
+        return ResponseEntity.ok(findTrace(id));
+    }
+
+    @GetMapping(value = "/{id}/tree", produces = MediaType.TEXT_PLAIN_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> getTraceTree(@PathVariable long id) {
+        return ResponseEntity.ok(traceService.render(findTrace(id)));
+    }
+
+    @GetMapping("/sampling")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Double>> getSampling() {
+        return ResponseEntity.ok(Map.of("sampleRate", traceService.getSampleRate()));
+    }
+
+    // Raise temporarily while chasing a slow endpoint; the configured rate applies again after a restart
+    @PutMapping("/sampling")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Double>> setSampling(@RequestParam double sampleRate) {
+        traceService.setSampleRate(sampleRate);
+        return ResponseEntity.ok(Map.of("sampleRate", traceService.getSampleRate()));
+    }
+
+    private TraceService.TraceRecord findTrace(long id) {
+        return traceService.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Trace not found or no longer kept: " + id));
+    }
+}
@@ -1,7 +1,12 @@
 package com.sliit.library.dto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
 
+import com.sliit.library.exception.ValidationException;
+import com.sliit.library.model.ActivitySeverity;
 import com.sliit.library.model.ActivityType;
 import com.sliit.library.model.User;
 
@@ -22,4 +27,46 @@ public final class ActivityDto {
             String message,
             LocalDateTime timestamp
     ) {}
+
+    /** Activity as shown in the live dashboard feed. */
+    public record ActivitySummary(
+            Long id,
+            Long userId,
+            String user,
+            ActivityType type,
+            ActivitySeverity severity,
+            String description,
+            LocalDateTime timestamp
+    ) {}
+
+    /** One page of an activity feed; pass nextCursor back to get the following page. */
+    public record ActivityPageResponse(
+            List<ActivityResponse> content,
+            String nextCursor,
+            boolean hasMore
+    ) {}
+
+    /** Position in a feed ordered by (timestamp, id) descending, sent to clients as an opaque string. */
+    public record ActivityCursor(LocalDateTime timestamp, long id) {
+
+        // Sorts after every real activity, so the first page needs no separate query
+        public static final ActivityCursor START = new ActivityCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        public static ActivityCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+                return new ActivityCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new ValidationException("Invalid activity cursor");
+            }
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((timestamp + "_" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package com.sliit.library.dto;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.sliit.library.model.RollupMetric;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+public class AnalyticsDto {
+
+    /** One bucket of a rollup time series; metrics without events in the bucket report zero. */
+    @Data
+    @NoArgsConstructor
+    public static class SeriesPoint {
+        private LocalDateTime bucketStart;
+        private Map<RollupMetric, Long> counts = new EnumMap<>(RollupMetric.class);
+        private Map<RollupMetric, Double> amounts = new EnumMap<>(RollupMetric.class);
+
+        public SeriesPoint(LocalDateTime bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        public long count(RollupMetric metric) {
+            return counts.getOrDefault(metric, 0L);
+        }
+
+        public double amount(RollupMetric metric) {
+            return amounts.getOrDefault(metric, 0.0);
+        }
+    }
+}
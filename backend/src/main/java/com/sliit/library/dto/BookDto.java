@@ -7,6 +7,11 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 public final class BookDto {
+    public enum SearchMode {
+        INDEX,
+        DATABASE
+    }
+
     public static record BookCreateRequest(
         @NotBlank @Size(min = 2, max = 100) String title,
         @NotNull Long authorId,
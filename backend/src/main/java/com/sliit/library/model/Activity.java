@@ -7,7 +7,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "activities")
+@Table(name = "activities", indexes = {
+        @Index(name = "idx_activity_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_activity_user_timestamp", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_activity_type_timestamp", columnList = "type, timestamp, id"),
+        @Index(name = "idx_activity_severity_timestamp", columnList = "severity, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,43 @@
+package com.sliit.library.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Pre-aggregated count and amount of one metric over one hour or one day, written by the
+ * rollup aggregator so that analytics ranges never scan the transactional tables.
+ */
+@Entity
+@Table(name = "analytics_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"granularity", "metric", "bucket_start"}),
+        indexes = @Index(name = "idx_rollup_range", columnList = "granularity, bucket_start, metric"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class AnalyticsRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private RollupMetric metric;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long eventCount;
+
+    @Column(nullable = false)
+    private double amount;
+}
@@ -6,8 +6,10 @@ import java.util.List;
 import jakarta.persistence.*; 
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "books", uniqueConstraints = {
     @UniqueConstraint(columnNames = "isbn")
 })
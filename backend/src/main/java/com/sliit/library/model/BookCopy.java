@@ -4,10 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data; 
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "book_copies", uniqueConstraints = @UniqueConstraint(columnNames = {"barcode"}))
 @Data @NoArgsConstructor @AllArgsConstructor
 public class BookCopy {
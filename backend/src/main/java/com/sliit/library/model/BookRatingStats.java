@@ -0,0 +1,73 @@
+package com.sliit.library.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Denormalized rating aggregates of a book, maintained incrementally as reviews are
+ * written so that catalog reads never have to aggregate book_reviews.
+ */
+@Entity
+@Table(name = "book_rating_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class BookRatingStats {
+    @Id
+    @Column(name = "book_id")
+    @EqualsAndHashCode.Include
+    private Long bookId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(nullable = false)
+    private long oneStarCount;
+
+    @Column(nullable = false)
+    private long twoStarCount;
+
+    @Column(nullable = false)
+    private long threeStarCount;
+
+    @Column(nullable = false)
+    private long fourStarCount;
+
+    @Column(nullable = false)
+    private long fiveStarCount;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /** Add (delta = 1) or remove (delta = -1) one rating. */
+    public void apply(int rating, int delta) {
+        ratingSum += (long) rating * delta;
+        ratingCount += delta;
+        switch (rating) {
+            case 1 -> oneStarCount += delta;
+            case 2 -> twoStarCount += delta;
+            case 3 -> threeStarCount += delta;
+            case 4 -> fourStarCount += delta;
+            case 5 -> fiveStarCount += delta;
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+}
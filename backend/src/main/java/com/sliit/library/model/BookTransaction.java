@@ -2,9 +2,11 @@ package com.sliit.library.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "book_transactions")
 @Data
 @NoArgsConstructor
@@ -33,6 +35,9 @@ public class BookTransaction {
 
     private LocalDateTime returnedAt;
     private LocalDateTime lastRenewalDate;
+
+    // Set when the due reminder goes out, so that only one node sends it
+    private LocalDateTime dueReminderSentAt;
     
     private Integer renewalCount = 0;
     private Integer maxRenewals = 2;
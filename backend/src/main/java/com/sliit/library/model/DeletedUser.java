@@ -0,0 +1,28 @@
+package com.sliit.library.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Tombstone of a deleted user, kept while tokens issued to it may still be valid so that
+ * every node's TokenDenylist learns of the deletion, not just the node that performed it.
+ */
+@Entity
+@Table(name = "deleted_users", indexes = @Index(name = "idx_deleted_users_deleted_at", columnList = "deleted_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DeletedUser {
+    @Id
+    @Column(name = "user_id")
+    @EqualsAndHashCode.Include
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,56 @@
+package com.sliit.library.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One run of a cluster-scheduled job: which node ran it, when it was due and when it
+ * actually started (the difference shows misfires), how long it took and how it ended.
+ */
+@Entity
+@Table(name = "job_executions",
+        indexes = @Index(name = "idx_job_execution_job", columnList = "job_name, started_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class JobExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    // Id range of a partitioned run, null for whole runs
+    @Column(length = 64)
+    private String partitionLabel;
+
+    @Column(nullable = false, length = 200)
+    private String instanceId;
+
+    private LocalDateTime scheduledAt;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private long durationMs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobExecutionStatus status;
+
+    // Re-run on another node after the node running it died
+    private boolean recovering;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+}
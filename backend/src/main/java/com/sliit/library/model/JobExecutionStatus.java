@@ -0,0 +1,6 @@
+package com.sliit.library.model;
+
+public enum JobExecutionStatus {
+    SUCCEEDED,
+    FAILED
+}
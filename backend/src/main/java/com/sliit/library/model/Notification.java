@@ -2,10 +2,14 @@ package com.sliit.library.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+        indexes = @Index(name = "idx_notification_outbox", columnList = "channel, status, next_attempt_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +31,10 @@ public class Notification {
     @Column(columnDefinition = "TEXT")
     private String message;
 
+    // Text rather than a database ENUM, so adding a status needs no column change
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20)
     private NotificationStatus status = NotificationStatus.PENDING;
 
     @Enumerated(EnumType.STRING)
@@ -39,6 +46,10 @@ public class Notification {
     private LocalDateTime sentAt;
     private LocalDateTime readAt;
 
+    // When the dispatcher should (re)try delivery; null once delivered or out of retries
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
     private Integer retryCount = 0;
     private Integer maxRetries = 3;
 
@@ -6,5 +6,7 @@ public enum NotificationStatus {
     DELIVERED,
     READ,
     FAILED,
-    CANCELLED
+    CANCELLED,
+    // Not delivered because the channel is disabled or has no provider; never retried
+    SKIPPED
 }
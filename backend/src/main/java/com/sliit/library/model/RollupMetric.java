@@ -0,0 +1,13 @@
+package com.sliit.library.model;
+
+public enum RollupMetric {
+    BOOKS_ISSUED,
+    BOOKS_RETURNED,
+    BOOKS_RENEWED,
+    LOANS_OVERDUE,
+    FINES_CREATED,
+    FINES_COLLECTED,
+    PAYMENTS_COMPLETED,
+    MEMBERS_REGISTERED,
+    REQUESTS_PLACED
+}
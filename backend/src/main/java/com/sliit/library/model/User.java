@@ -3,13 +3,18 @@ package com.sliit.library.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "users",
        uniqueConstraints = {
          @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
          @UniqueConstraint(name = "uk_users_username", columnNames = "username")
+       },
+       indexes = {
+         @Index(name = "idx_users_updated_at", columnList = "updated_at")
        })
 @Getter
 @Setter
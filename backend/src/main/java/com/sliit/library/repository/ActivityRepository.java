@@ -3,13 +3,58 @@ package com.sliit.library.repository;
 import com.sliit.library.model.Activity;
 import com.sliit.library.model.ActivityType;
 import com.sliit.library.model.ActivitySeverity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Activity feeds are read newest first with keyset pagination on (timestamp, id): each query
+ * continues strictly after the given position, so any page costs one index range scan no
+ * matter how deep it is. The leading "timestamp <= :timestamp" keeps the range sargable.
+ */
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
-  List<Activity> findByUserIdOrderByTimestampDesc(Long userId);
-  List<Activity> findAllByOrderByTimestampDesc();
-  List<Activity> findByTypeOrderByTimestampDesc(ActivityType type);
-  List<Activity> findBySeverityOrderByTimestampDesc(ActivitySeverity severity);
+
+  @Query("""
+      SELECT a FROM Activity a
+      WHERE a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id)
+      ORDER BY a.timestamp DESC, a.id DESC
+      """)
+  List<Activity> findPage(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Pageable pageable);
+
+  @Query("""
+      SELECT a FROM Activity a
+      WHERE a.user.id = :userId
+        AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id)
+      ORDER BY a.timestamp DESC, a.id DESC
+      """)
+  List<Activity> findPageByUser(@Param("userId") Long userId, @Param("timestamp") LocalDateTime timestamp,
+                                @Param("id") Long id, Pageable pageable);
+
+  @Query("""
+      SELECT a FROM Activity a
+      WHERE a.type = :type
+        AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id)
+      ORDER BY a.timestamp DESC, a.id DESC
+      """)
+  List<Activity> findPageByType(@Param("type") ActivityType type, @Param("timestamp") LocalDateTime timestamp,
+                                @Param("id") Long id, Pageable pageable);
+
+  @Query("""
+      SELECT a FROM Activity a
+      WHERE a.severity = :severity
+        AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id)
+      ORDER BY a.timestamp DESC, a.id DESC
+      """)
+  List<Activity> findPageBySeverity(@Param("severity") ActivitySeverity severity, @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id, Pageable pageable);
+
+  /** Newest activities with their users, for summaries that show the user's name. */
+  @Query("""
+      SELECT a FROM Activity a JOIN FETCH a.user
+      ORDER BY a.timestamp DESC, a.id DESC
+      """)
+  List<Activity> findLatestWithUser(Pageable pageable);
 }
@@ -0,0 +1,162 @@
+package com.sliit.library.repository;
+
+import com.sliit.library.model.AnalyticsRollup;
+import com.sliit.library.model.RollupGranularity;
+import com.sliit.library.model.RollupMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+
+    @Query("""
+            SELECT r FROM AnalyticsRollup r
+            WHERE r.granularity = :granularity AND r.metric IN :metrics
+              AND r.bucketStart >= :from AND r.bucketStart < :to
+            ORDER BY r.bucketStart
+            """)
+    List<AnalyticsRollup> findSeries(@Param("granularity") RollupGranularity granularity,
+                                     @Param("metrics") Collection<RollupMetric> metrics,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT MAX(r.bucketStart) FROM AnalyticsRollup r WHERE r.granularity = :granularity")
+    LocalDateTime findLatestBucketStart(@Param("granularity") RollupGranularity granularity);
+
+    @Modifying
+    @Query("DELETE FROM AnalyticsRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteRange(@Param("granularity") RollupGranularity granularity,
+                    @Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT r.metric AS metric, CAST(r.bucketStart AS LocalDate) AS day,
+                   SUM(r.eventCount) AS total, SUM(r.amount) AS amount
+            FROM AnalyticsRollup r
+            WHERE r.granularity = 'HOUR' AND r.bucketStart >= :from AND r.bucketStart < :to
+            GROUP BY r.metric, CAST(r.bucketStart AS LocalDate)
+            """)
+    List<DailyRollup> sumHourlyPerDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Hourly totals read from the source tables by the aggregator, for [from, to)
+
+    @Query("""
+            SELECT CAST(t.issuedAt AS LocalDate) AS day, EXTRACT(HOUR FROM t.issuedAt) AS hour,
+                   COUNT(t) AS total, 0.0 AS amount
+            FROM BookTransaction t WHERE t.issuedAt >= :from AND t.issuedAt < :to
+            GROUP BY CAST(t.issuedAt AS LocalDate), EXTRACT(HOUR FROM t.issuedAt)
+            """)
+    List<HourlyTotal> countIssuedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT CAST(t.returnedAt AS LocalDate) AS day, EXTRACT(HOUR FROM t.returnedAt) AS hour,
+                   COUNT(t) AS total, 0.0 AS amount
+            FROM BookTransaction t WHERE t.returnedAt >= :from AND t.returnedAt < :to
+            GROUP BY CAST(t.returnedAt AS LocalDate), EXTRACT(HOUR FROM t.returnedAt)
+            """)
+    List<HourlyTotal> countReturnedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT CAST(t.lastRenewalDate AS LocalDate) AS day, EXTRACT(HOUR FROM t.lastRenewalDate) AS hour,
+                   COUNT(t) AS total, 0.0 AS amount
+            FROM BookTransaction t WHERE t.lastRenewalDate >= :from AND t.lastRenewalDate < :to
+            GROUP BY CAST(t.lastRenewalDate AS LocalDate), EXTRACT(HOUR FROM t.lastRenewalDate)
+            """)
+    List<HourlyTotal> countRenewedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** Loans that passed their due date without having been returned, bucketed by due date. */
+    @Query("""
+            SELECT CAST(t.dueDate AS LocalDate) AS day, EXTRACT(HOUR FROM t.dueDate) AS hour,
+                   COUNT(t) AS total, 0.0 AS amount
+            FROM BookTransaction t
+            WHERE t.dueDate >= :from AND t.dueDate < :to AND t.dueDate < :now
+              AND (t.returnedAt IS NULL OR t.returnedAt > t.dueDate)
+            GROUP BY CAST(t.dueDate AS LocalDate), EXTRACT(HOUR FROM t.dueDate)
+            """)
+    List<HourlyTotal> countOverduePerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                          @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT CAST(f.createdAt AS LocalDate) AS day, EXTRACT(HOUR FROM f.createdAt) AS hour,
+                   COUNT(f) AS total, SUM(f.amount) AS amount
+            FROM Fine f WHERE f.createdAt >= :from AND f.createdAt < :to
+            GROUP BY CAST(f.createdAt AS LocalDate), EXTRACT(HOUR FROM f.createdAt)
+            """)
+    List<HourlyTotal> sumFinesCreatedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** Paid amounts of PAID and PARTIALLY_PAID fines, bucketed by their latest payment. */
+    @Query("""
+            SELECT CAST(f.paidAt AS LocalDate) AS day, EXTRACT(HOUR FROM f.paidAt) AS hour,
+                   COUNT(f) AS total, SUM(f.paidAmount) AS amount
+            FROM Fine f
+            WHERE f.paidAt >= :from AND f.paidAt < :to AND f.status IN ('PAID', 'PARTIALLY_PAID')
+            GROUP BY CAST(f.paidAt AS LocalDate), EXTRACT(HOUR FROM f.paidAt)
+            """)
+    List<HourlyTotal> sumFinesCollectedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT CAST(p.paidAt AS LocalDate) AS day, EXTRACT(HOUR FROM p.paidAt) AS hour,
+                   COUNT(p) AS total, SUM(p.amount) AS amount
+            FROM Payment p
+            WHERE p.paidAt >= :from AND p.paidAt < :to AND p.status = 'COMPLETED'
+            GROUP BY CAST(p.paidAt AS LocalDate), EXTRACT(HOUR FROM p.paidAt)
+            """)
+    List<HourlyTotal> sumPaymentsCompletedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT CAST(u.createdAt AS LocalDate) AS day, EXTRACT(HOUR FROM u.createdAt) AS hour,
+                   COUNT(u) AS total, 0.0 AS amount
+            FROM User u WHERE u.createdAt >= :from AND u.createdAt < :to
+            GROUP BY CAST(u.createdAt AS LocalDate), EXTRACT(HOUR FROM u.createdAt)
+            """)
+    List<HourlyTotal> countMembersRegisteredPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT CAST(r.requestedAt AS LocalDate) AS day, EXTRACT(HOUR FROM r.requestedAt) AS hour,
+                   COUNT(r) AS total, 0.0 AS amount
+            FROM BookRequest r WHERE r.requestedAt >= :from AND r.requestedAt < :to
+            GROUP BY CAST(r.requestedAt AS LocalDate), EXTRACT(HOUR FROM r.requestedAt)
+            """)
+    List<HourlyTotal> countRequestsPlacedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Earliest source events, used to size the first backfill
+
+    @Query("SELECT MIN(t.issuedAt) FROM BookTransaction t")
+    LocalDateTime findEarliestIssuedAt();
+
+    @Query("SELECT MIN(f.createdAt) FROM Fine f")
+    LocalDateTime findEarliestFineCreatedAt();
+
+    @Query("SELECT MIN(p.createdAt) FROM Payment p")
+    LocalDateTime findEarliestPaymentCreatedAt();
+
+    @Query("SELECT MIN(u.createdAt) FROM User u")
+    LocalDateTime findEarliestUserCreatedAt();
+
+    @Query("SELECT MIN(r.requestedAt) FROM BookRequest r")
+    LocalDateTime findEarliestRequestedAt();
+
+    /** Count and amount of one source event type within one clock hour. */
+    interface HourlyTotal {
+        LocalDate getDay();
+        Integer getHour();
+        Long getTotal();
+        Double getAmount();
+    }
+
+    /** Sum of a metric's hourly buckets over one calendar day. */
+    interface DailyRollup {
+        RollupMetric getMetric();
+        LocalDate getDay();
+        Long getTotal();
+        Double getAmount();
+    }
+}
@@ -15,5 +15,6 @@ public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
     List<BookCopy> findByBookId(Long bookId);
     List<BookCopy> findByBook(Book book);
     List<BookCopy> findByStatus(BookStatus status);
+    long countByStatus(BookStatus status);
     Optional<BookCopy> findByBarcode(String barcode);
 }
@@ -0,0 +1,25 @@
+package com.sliit.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sliit.library.model.BookRatingStats;
+
+import jakarta.persistence.LockModeType;
+
+public interface BookRatingStatsRepository extends JpaRepository<BookRatingStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookRatingStats s WHERE s.bookId = :bookId")
+    Optional<BookRatingStats> findByIdForUpdate(@Param("bookId") Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookRatingStats s WHERE s.bookId IN :bookIds")
+    List<BookRatingStats> findAllByIdForUpdate(@Param("bookIds") Collection<Long> bookIds);
+}
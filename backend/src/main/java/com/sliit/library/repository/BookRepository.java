@@ -39,6 +39,33 @@ public interface BookRepository extends JpaRepository<Book, Long> {
         Pageable pageable
     );
 
+    @Query("""
+        SELECT b.id AS id, b.title AS title, b.isbn AS isbn,
+               a.id AS authorId, a.name AS authorName,
+               p.id AS publisherId, p.name AS publisherName,
+               b.category.id AS categoryId, b.language.id AS languageId
+        FROM Book b JOIN b.author a JOIN b.publisher p
+        WHERE b.id > :afterId
+        ORDER BY b.id
+    """)
+    List<SearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     @Query("SELECT count(bc) FROM BookCopy bc WHERE bc.status = com.sliit.library.model.BookStatus.AVAILABLE")
     long countAvailableBooks();
+
+    /** Flat row used to (re)build the in-memory catalog search index. */
+    interface SearchRow {
+        Long getId();
+        String getTitle();
+        String getIsbn();
+        Long getAuthorId();
+        String getAuthorName();
+        Long getPublisherId();
+        String getPublisherName();
+        Long getCategoryId();
+        Long getLanguageId();
+    }
 }
@@ -1,5 +1,6 @@
 package com.sliit.library.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +34,19 @@ public interface BookReviewRepository extends JpaRepository<BookReview, Long> {
     List<BookReview> findByBookIdOrderByCreatedAtDesc(@Param("bookId") Long bookId);
     
     boolean existsByUserIdAndBookId(Long userId, Long bookId);
+
+    @Query("""
+        SELECT br.book.id AS bookId, br.rating AS rating, COUNT(br) AS reviewCount
+        FROM BookReview br
+        WHERE br.book.id IN :bookIds
+        GROUP BY br.book.id, br.rating
+    """)
+    List<RatingCount> countRatingsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    /** One star-histogram bucket of a book, as returned by the grouped rating query. */
+    interface RatingCount {
+        Long getBookId();
+        Integer getRating();
+        Long getReviewCount();
+    }
 }
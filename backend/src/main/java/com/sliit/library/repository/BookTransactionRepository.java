@@ -4,12 +4,19 @@ import com.sliit.library.model.BookTransaction;
 import com.sliit.library.model.TransactionStatus;
 import com.sliit.library.model.User;
 import com.sliit.library.model.BookCopy;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +51,82 @@ public interface BookTransactionRepository extends JpaRepository<BookTransaction
     List<BookTransaction> findAllOrderByIssuedAtDesc();
     
     long countByStatus(TransactionStatus status);
+
+    @Query("SELECT t.id FROM BookTransaction t WHERE t.status = 'ACTIVE' AND t.dueDate < :now AND t.id > :afterId AND t.id <= :toId ORDER BY t.id")
+    List<Long> findOverdueIdsAfter(@Param("now") LocalDateTime now, @Param("afterId") Long afterId,
+                                   @Param("toId") Long toId, Pageable pageable);
+
+    @Query("SELECT COUNT(t) AS total, MIN(t.id) AS minId, MAX(t.id) AS maxId FROM BookTransaction t WHERE t.status = 'ACTIVE' AND t.dueDate < :now")
+    IdSpan findOverdueIdSpan(@Param("now") LocalDateTime now);
+
+    /** Lock the given loans that are still ACTIVE and past due, so concurrent runs cannot both process them. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM BookTransaction t WHERE t.id IN :ids AND t.status = 'ACTIVE' AND t.dueDate < :now ORDER BY t.id")
+    List<Long> lockOverdueIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /** Lock the given ACTIVE loans due in (from, to] whose due reminder has not gone out yet. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT t.id FROM BookTransaction t
+            WHERE t.id IN :ids AND t.status = 'ACTIVE' AND t.dueReminderSentAt IS NULL
+              AND t.dueDate > :from AND t.dueDate <= :to
+            ORDER BY t.id
+            """)
+    List<Long> lockPendingDueReminders(@Param("ids") Collection<Long> ids, @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookTransaction t SET t.dueReminderSentAt = :now WHERE t.id IN :ids")
+    int markDueReminderSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT t.id AS id, t.dueDate AS dueDate, t.dueReminderSentAt AS dueReminderSentAt
+            FROM BookTransaction t WHERE t.status = 'ACTIVE' AND t.id > :afterId ORDER BY t.id
+            """)
+    List<DueRow> findActiveDueDatesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /** Flip the given loans from ACTIVE to OVERDUE, skipping any returned or renewed meanwhile. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookTransaction t SET t.status = 'OVERDUE' WHERE t.id IN :ids AND t.status = 'ACTIVE' AND t.dueDate < :now")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT t FROM BookTransaction t
+            JOIN FETCH t.user JOIN FETCH t.issuedBy JOIN FETCH t.bookCopy c JOIN FETCH c.book
+            WHERE t.id IN :ids AND t.status = :status
+            """)
+    List<BookTransaction> findWithDetailsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                         @Param("status") TransactionStatus status);
+
+    @Query("SELECT CAST(t.issuedAt AS LocalDate) AS day, COUNT(t) AS total FROM BookTransaction t WHERE t.issuedAt >= :from GROUP BY CAST(t.issuedAt AS LocalDate)")
+    List<DailyCount> countIssuedPerDaySince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT CAST(t.returnedAt AS LocalDate) AS day, COUNT(t) AS total FROM BookTransaction t WHERE t.returnedAt >= :from GROUP BY CAST(t.returnedAt AS LocalDate)")
+    List<DailyCount> countReturnedPerDaySince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT CAST(t.lastRenewalDate AS LocalDate) AS day, COUNT(t) AS total FROM BookTransaction t WHERE t.lastRenewalDate >= :from GROUP BY CAST(t.lastRenewalDate AS LocalDate)")
+    List<DailyCount> countRenewedPerDaySince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT CAST(t.dueDate AS LocalDate) AS day, COUNT(t) AS total FROM BookTransaction t WHERE t.status = 'ACTIVE' GROUP BY CAST(t.dueDate AS LocalDate)")
+    List<DailyCount> countActiveDuePerDay();
+
+    /** Number and id bounds of a set of transactions. */
+    interface IdSpan {
+        long getTotal();
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    /** Due date of one ACTIVE loan and when its due reminder went out, if it did. */
+    interface DueRow {
+        Long getId();
+        LocalDateTime getDueDate();
+        LocalDateTime getDueReminderSentAt();
+    }
+
+    /** Number of transactions falling on one calendar day. */
+    interface DailyCount {
+        LocalDate getDay();
+        Long getTotal();
+    }
 }
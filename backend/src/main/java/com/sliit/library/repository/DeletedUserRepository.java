@@ -0,0 +1,24 @@
+package com.sliit.library.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sliit.library.model.DeletedUser;
+
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, Long> {
+
+    @Query("SELECT d.userId FROM DeletedUser d WHERE d.deletedAt >= :since")
+    List<Long> findIdsDeletedSince(@Param("since") LocalDateTime since);
+
+    /** Drop tombstones no token can match any more. */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeletedUser d WHERE d.deletedAt < :before")
+    int purgeDeletedBefore(@Param("before") LocalDateTime before);
+}
@@ -9,8 +9,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FineRepository extends JpaRepository<Fine, Long> {
@@ -38,4 +41,23 @@ public interface FineRepository extends JpaRepository<Fine, Long> {
     List<Fine> findFinesDueBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     boolean existsByTransactionIdAndType(Long transactionId, FineType type);
+
+    Optional<Fine> findFirstByTransactionIdAndTypeAndStatus(Long transactionId, FineType type, FineStatus status);
+
+    List<Fine> findByTransactionIdInAndTypeAndStatus(Collection<Long> transactionIds, FineType type, FineStatus status);
+
+    @Query("SELECT COALESCE(SUM(f.amount), 0.0) FROM Fine f")
+    double sumOfAllFines();
+
+    @Query("SELECT COALESCE(SUM(f.paidAmount), 0.0) FROM Fine f WHERE f.status IN ('PAID', 'PARTIALLY_PAID')")
+    double sumOfCollectedFines();
+
+    @Query("SELECT CAST(f.createdAt AS LocalDate) AS day, SUM(f.amount) AS total FROM Fine f WHERE f.createdAt >= :from GROUP BY CAST(f.createdAt AS LocalDate)")
+    List<DailyAmount> sumAmountPerDaySince(@Param("from") LocalDateTime from);
+
+    /** Sum of fine amounts created on one calendar day. */
+    interface DailyAmount {
+        LocalDate getDay();
+        Double getTotal();
+    }
 }
@@ -0,0 +1,23 @@
+package com.sliit.library.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sliit.library.model.JobExecution;
+
+public interface JobExecutionRepository extends JpaRepository<JobExecution, Long> {
+
+    List<JobExecution> findAllByOrderByStartedAtDescIdDesc(Pageable pageable);
+
+    List<JobExecution> findByJobNameOrderByStartedAtDescIdDesc(String jobName, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM JobExecution e WHERE e.startedAt < :cutoff")
+    int deleteStartedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
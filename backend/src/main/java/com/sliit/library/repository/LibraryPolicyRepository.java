@@ -2,10 +2,13 @@ package com.sliit.library.repository;
 
 import com.sliit.library.model.LibraryPolicy;
 import com.sliit.library.model.PolicyStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +20,13 @@ public interface LibraryPolicyRepository extends JpaRepository<LibraryPolicy, Lo
     Optional<LibraryPolicy> findActivePolicy();
     
     Optional<LibraryPolicy> findByPolicyName(String policyName);
+
+    /** Identity and last change of the active policy; enough to tell whether a cached copy is stale. */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM LibraryPolicy p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
+    List<PolicyStamp> findActiveStamp(Pageable pageable);
+
+    interface PolicyStamp {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -1,15 +1,22 @@
 package com.sliit.library.repository;
 
 import com.sliit.library.model.Notification;
+import com.sliit.library.model.NotificationChannel;
 import com.sliit.library.model.NotificationStatus;
 import com.sliit.library.model.NotificationType;
 import com.sliit.library.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -34,4 +41,67 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     
     @Query("SELECT n FROM Notification n WHERE n.status = 'FAILED' AND n.retryCount < n.maxRetries")
     List<Notification> findFailedNotificationsForRetry();
+
+    /** Put failed notifications that still have retries left but no attempt scheduled back into the outbox. */
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.nextAttemptAt = :now
+            WHERE n.status = 'FAILED' AND n.retryCount < n.maxRetries AND n.nextAttemptAt IS NULL
+            """)
+    int requeueFailed(@Param("now") LocalDateTime now);
+
+    /** Lock the oldest outbox entries of one channel that are due, so only one dispatcher claims them. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT n.id FROM Notification n
+            WHERE n.channel = :channel AND n.status IN ('PENDING', 'FAILED') AND n.nextAttemptAt <= :now
+            ORDER BY n.nextAttemptAt, n.id
+            """)
+    List<Long> lockDue(@Param("channel") NotificationChannel channel, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :leaseUntil WHERE n.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("SELECT n FROM Notification n JOIN FETCH n.user WHERE n.id IN :ids ORDER BY n.id")
+    List<Notification> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.status = 'SENT', n.sentAt = :sentAt, n.nextAttemptAt = NULL, n.errorMessage = NULL
+            WHERE n.id IN :ids
+            """)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    /** Channel disabled or without a provider: the notification is SKIPPED and no longer attempted. */
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.status = 'SKIPPED', n.errorMessage = :reason, n.nextAttemptAt = NULL
+            WHERE n.id IN :ids
+            """)
+    int markSkipped(@Param("ids") Collection<Long> ids, @Param("reason") String reason);
+
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.status = 'FAILED', n.errorMessage = :error,
+                n.retryCount = :retryCount, n.nextAttemptAt = :nextAttemptAt
+            WHERE n.id = :id
+            """)
+    int markFailed(@Param("id") Long id, @Param("error") String error, @Param("retryCount") int retryCount,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Query("""
+            SELECT n.channel AS channel, COUNT(n) AS total, MIN(n.createdAt) AS oldestCreatedAt
+            FROM Notification n
+            WHERE n.status IN ('PENDING', 'FAILED') AND n.nextAttemptAt IS NOT NULL
+            GROUP BY n.channel
+            """)
+    List<ChannelBacklog> countBacklogPerChannel();
+
+    /** Outbox entries still to be delivered on one channel. */
+    interface ChannelBacklog {
+        NotificationChannel getChannel();
+        long getTotal();
+        LocalDateTime getOldestCreatedAt();
+    }
 }
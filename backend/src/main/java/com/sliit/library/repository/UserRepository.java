@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +27,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
   List<User> findWithFilters(@Param("search") String search,
                            @Param("role") UserRole role,
                            @Param("status") UserStatus status);
+
+  @Query("""
+      SELECT u.id AS id, u.username AS username, u.role AS role, u.status AS status
+      FROM User u
+      WHERE u.updatedAt >= :since
+      """)
+  List<UserStamp> findChangedSince(@Param("since") LocalDateTime since);
+
+  interface UserStamp {
+    Long getId();
+    String getUsername();
+    UserRole getRole();
+    UserStatus getStatus();
+  }
 }
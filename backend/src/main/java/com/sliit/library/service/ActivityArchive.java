@@ -0,0 +1,434 @@
+package com.sliit.library.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold tier of the activity log. Activities older than the hot window are moved out of the
+ * activities table into immutable segment files, one or more per day: a segment is a run of
+ * independently gzipped blocks of rows in (timestamp, id) order, next to a sparse index
+ * holding each block's offset, time range, user ids, types and severities. Queries read
+ * segments newest first and decompress only the blocks the index cannot rule out.
+ * <p>
+ * A segment's index file is written last, so a segment without one is incomplete and
+ * ignored. Rows are deleted from the table by id, and only the ids their segment holds, once
+ * it is on disk; a run interrupted in between deletes them on its next pass instead of
+ * archiving them again. Any other row of an archived day, such as one that committed late
+ * with a lower id, goes into a further segment for that day.
+ */
+@Slf4j
+@Service
+public class ActivityArchive {
+
+    private static final String COLUMNS = """
+            id, user_id, type, message, metadata, related_book_id, related_transaction_id,
+            related_fine_id, severity, ip_address, user_agent, timestamp""";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int READ_CHUNK_SIZE = 5000;
+    private static final int DELETE_BATCH_SIZE = 5000;
+
+    /** One archived activity; same columns as the activities table. */
+    public record ArchivedActivity(long id, long userId, ActivityType type, String message, String metadata,
+                                   Long relatedBookId, Long relatedTransactionId, Long relatedFineId,
+                                   ActivitySeverity severity, String ipAddress, String userAgent,
+                                   LocalDateTime timestamp) {}
+
+    /** Restricts a query to one user, type or severity; null fields match everything. */
+    public record Filter(Long userId, ActivityType type, ActivitySeverity severity) {
+
+        public static final Filter ALL = new Filter(null, null, null);
+
+        boolean mayMatch(Block block) {
+            return (userId == null || Arrays.binarySearch(block.userIds(), userId) >= 0)
+                    && (type == null || block.types().contains(type))
+                    && (severity == null || block.severities().contains(severity));
+        }
+
+        boolean matches(ArchivedActivity activity) {
+            return (userId == null || userId == activity.userId())
+                    && (type == null || type == activity.type())
+                    && (severity == null || severity == activity.severity());
+        }
+    }
+
+    /** Sparse index entry of one compressed block; userIds is sorted. */
+    public record Block(long offset, int length, int count, LocalDateTime minTimestamp, LocalDateTime maxTimestamp,
+                        long[] userIds, Set<ActivityType> types, Set<ActivitySeverity> severities) {}
+
+    /** Index of one segment file. */
+    public record Segment(String name, LocalDate day, long count, long minId, long maxId,
+                          LocalDateTime minTimestamp, LocalDateTime maxTimestamp, List<Block> blocks) {}
+
+    public record ArchiveResult(int segmentsWritten, long rowsArchived, long rowsDeleted, long durationMs) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.activity.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.activity.archive.dir:data/activity-archive}")
+    private Path dir;
+
+    // Activities newer than this many days stay in the activities table
+    @Value("${app.activity.archive.hot-days:90}")
+    private int hotDays;
+
+    @Value("${app.activity.archive.block-size:1024}")
+    private int blockSize;
+
+    // Newest first; replaced as a whole when the directory changes
+    private volatile List<Segment> segments = List.of();
+    private volatile FileTime loadedAt;
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    public ActivityArchive(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Newest archived timestamp, or null when nothing is archived. */
+    public LocalDateTime newestTimestamp() {
+        List<Segment> current = currentSegments();
+        return current.isEmpty() ? null : current.get(0).maxTimestamp();
+    }
+
+    /**
+     * Up to limit archived activities matching the filter that come strictly before
+     * (timestamp, id), newest first.
+     */
+    public List<ArchivedActivity> page(Filter filter, LocalDateTime timestamp, long id, int limit) {
+        List<ArchivedActivity> found = new ArrayList<>();
+        for (Segment segment : currentSegments()) {
+            if (found.size() >= limit && segment.maxTimestamp().isBefore(found.get(limit - 1).timestamp())) {
+                break;
+            }
+            if (segment.minTimestamp().isAfter(timestamp)) {
+                continue;
+            }
+            List<Block> blocks = segment.blocks();
+            for (int b = blocks.size() - 1; b >= 0; b--) {
+                Block block = blocks.get(b);
+                if (found.size() >= limit && block.maxTimestamp().isBefore(found.get(limit - 1).timestamp())) {
+                    break;
+                }
+                if (block.minTimestamp().isAfter(timestamp) || !filter.mayMatch(block)) {
+                    continue;
+                }
+                for (ArchivedActivity activity : readBlock(segment, block)) {
+                    if (before(activity, timestamp, id) && filter.matches(activity)) {
+                        found.add(activity);
+                    }
+                }
+                // Segments of the same day may overlap in time, so keep the candidates ordered
+                found.sort(NEWEST_FIRST);
+                if (found.size() > limit) {
+                    found.subList(limit, found.size()).clear();
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Move every day that lies entirely outside the hot window into segments. */
+    public ArchiveResult archive() {
+        if (!enabled) {
+            return new ArchiveResult(0, 0, 0, 0);
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDate.now().minusDays(hotDays).atStartOfDay();
+        int written = 0;
+        long archived = 0;
+        long deleted = 0;
+        LocalDateTime oldest;
+        while ((oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(timestamp) FROM activities WHERE timestamp < ?", LocalDateTime.class, cutoff)) != null) {
+            LocalDate day = oldest.toLocalDate();
+            // Rows of an earlier run that stopped after writing its segment but before deleting them
+            for (Segment segment : currentSegments()) {
+                if (segment.day().equals(day) && hasRowsBetween(day, segment.minId(), segment.maxId())) {
+                    deleted += delete(archivedIds(segment));
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            Segment segment = writeSegment(day, ids);
+            if (segment != null) {
+                written++;
+                archived += segment.count();
+                deleted += delete(ids);
+            }
+        }
+        ArchiveResult result = new ArchiveResult(written, archived, deleted, System.currentTimeMillis() - started);
+        if (written > 0) {
+            log.info("Archived {} activities older than {} into {} segments, {} ms",
+                    archived, cutoff.toLocalDate(), written, result.durationMs());
+        }
+        return result;
+    }
+
+    // Streams the day's rows into a new segment, adding their ids to ids; null when there were none
+    private Segment writeSegment(LocalDate day, List<Long> ids) {
+        String name = "activities-" + day + "." + segmentsOf(day);
+        Path data = dir.resolve(name + SEGMENT_SUFFIX);
+        Path temp = dir.resolve(name + SEGMENT_SUFFIX + ".tmp");
+        List<Block> blocks = new ArrayList<>();
+        List<ArchivedActivity> pending = new ArrayList<>(blockSize);
+        long count = 0;
+        long minId = Long.MAX_VALUE;
+        long maxId = 0;
+        try {
+            Files.createDirectories(dir);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                LocalDateTime lastTimestamp = day.atStartOfDay();
+                long lastId = 0;
+                while (true) {
+                    List<ArchivedActivity> rows = jdbcTemplate.query("SELECT " + COLUMNS + """
+                             FROM activities
+                            WHERE timestamp >= ? AND timestamp < ?
+                              AND (timestamp > ? OR (timestamp = ? AND id > ?))
+                            ORDER BY timestamp, id
+                            FETCH FIRST ? ROWS ONLY
+                            """, ActivityArchive::mapRow, day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                            lastTimestamp, lastTimestamp, lastId, READ_CHUNK_SIZE);
+                    for (ArchivedActivity row : rows) {
+                        pending.add(row);
+                        ids.add(row.id());
+                        minId = Math.min(minId, row.id());
+                        maxId = Math.max(maxId, row.id());
+                        if (pending.size() == blockSize) {
+                            blocks.add(writeBlock(out, pending));
+                            pending.clear();
+                        }
+                    }
+                    count += rows.size();
+                    if (rows.size() < READ_CHUNK_SIZE) {
+                        break;
+                    }
+                    ArchivedActivity last = rows.get(rows.size() - 1);
+                    lastTimestamp = last.timestamp();
+                    lastId = last.id();
+                }
+                if (!pending.isEmpty()) {
+                    blocks.add(writeBlock(out, pending));
+                }
+                out.force(true);
+            }
+            if (count == 0) {
+                Files.delete(temp);
+                return null;
+            }
+            Files.move(temp, data, StandardCopyOption.ATOMIC_MOVE);
+            Segment segment = new Segment(name, day, count, minId, maxId, blocks.get(0).minTimestamp(),
+                    blocks.get(blocks.size() - 1).maxTimestamp(), blocks);
+            Path indexTemp = dir.resolve(name + INDEX_SUFFIX + ".tmp");
+            objectMapper.writeValue(indexTemp.toFile(), segment);
+            Files.move(indexTemp, dir.resolve(name + INDEX_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            register(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write activity segment " + name, e);
+        }
+    }
+
+    private Block writeBlock(FileChannel out, List<ArchivedActivity> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (ArchivedActivity row : rows) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        long offset = out.position();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        TreeSet<Long> userIds = new TreeSet<>();
+        Set<ActivityType> types = EnumSet.noneOf(ActivityType.class);
+        Set<ActivitySeverity> severities = EnumSet.noneOf(ActivitySeverity.class);
+        for (ArchivedActivity row : rows) {
+            userIds.add(row.userId());
+            types.add(row.type());
+            severities.add(row.severity());
+        }
+        return new Block(offset, bytes.size(), rows.size(), rows.get(0).timestamp(), rows.get(rows.size() - 1).timestamp(),
+                userIds.stream().mapToLong(Long::longValue).toArray(), types, severities);
+    }
+
+    // Rows of the block in (timestamp, id) order, newest first
+    private List<ArchivedActivity> readBlock(Segment segment, Block block) {
+        try (FileChannel in = FileChannel.open(dir.resolve(segment.name() + SEGMENT_SUFFIX), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(block.length());
+            while (buffer.hasRemaining() && in.read(buffer, block.offset() + buffer.position()) >= 0) {
+                // keep reading until the block is complete
+            }
+            byte[] raw;
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(buffer.array()))) {
+                raw = gzip.readAllBytes();
+            }
+            List<ArchivedActivity> rows = new ArrayList<>(block.count());
+            for (String line : new String(raw, StandardCharsets.UTF_8).split("\n")) {
+                if (!line.isEmpty()) {
+                    rows.add(objectMapper.readValue(line, ArchivedActivity.class));
+                }
+            }
+            return rows.reversed();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read activity segment " + segment.name(), e);
+        }
+    }
+
+    // Deletes the rows with the given ids, a batch of ids per transaction
+    private long delete(List<Long> ids) {
+        long deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size()));
+            int[][] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                    "DELETE FROM activities WHERE id = ?", batch, batch.size(), (ps, id) -> ps.setLong(1, id)));
+            if (counts != null) {
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        deleted += Math.max(count, 0);
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private boolean hasRowsBetween(LocalDate day, long minId, long maxId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) > 0 FROM activities WHERE timestamp >= ? AND timestamp < ? AND id >= ? AND id <= ?
+                """, Boolean.class, day.atStartOfDay(), day.plusDays(1).atStartOfDay(), minId, maxId));
+    }
+
+    // Every id the segment holds, read back from its blocks
+    private List<Long> archivedIds(Segment segment) {
+        List<Long> ids = new ArrayList<>((int) segment.count());
+        for (Block block : segment.blocks()) {
+            for (ArchivedActivity activity : readBlock(segment, block)) {
+                ids.add(activity.id());
+            }
+        }
+        return ids;
+    }
+
+    private int segmentsOf(LocalDate day) {
+        return (int) currentSegments().stream().filter(segment -> segment.day().equals(day)).count();
+    }
+
+    private void register(Segment segment) {
+        indexLock.lock();
+        try {
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            updated.sort(NEWEST_SEGMENT_FIRST);
+            segments = List.copyOf(updated);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    // Re-reads the indexes when the directory changed, e.g. after another node archived
+    private List<Segment> currentSegments() {
+        try {
+            if (!Files.isDirectory(dir)) {
+                return segments;
+            }
+            FileTime modified = Files.getLastModifiedTime(dir);
+            if (!modified.equals(loadedAt)) {
+                // Reading the indexes is file I/O, which must not happen inside a monitor on a virtual thread
+                indexLock.lock();
+                try {
+                    if (!modified.equals(loadedAt)) {
+                        segments = load();
+                        loadedAt = modified;
+                    }
+                } finally {
+                    indexLock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not refresh the activity archive index: {}", e.getMessage());
+        }
+        return segments;
+    }
+
+    private List<Segment> load() throws IOException {
+        Map<String, Segment> loaded = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + INDEX_SUFFIX)) {
+            for (Path file : files) {
+                Segment segment = objectMapper.readValue(file.toFile(), Segment.class);
+                loaded.put(segment.name(), segment);
+            }
+        }
+        List<Segment> sorted = new ArrayList<>(loaded.values());
+        sorted.sort(NEWEST_SEGMENT_FIRST);
+        return List.copyOf(sorted);
+    }
+
+    private static boolean before(ArchivedActivity activity, LocalDateTime timestamp, long id) {
+        int compared = activity.timestamp().compareTo(timestamp);
+        return compared < 0 || (compared == 0 && activity.id() < id);
+    }
+
+    private static ArchivedActivity mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        return new ArchivedActivity(rs.getLong("id"), rs.getLong("user_id"), ActivityType.valueOf(rs.getString("type")),
+                rs.getString("message"), rs.getString("metadata"), rs.getObject("related_book_id", Long.class),
+                rs.getObject("related_transaction_id", Long.class), rs.getObject("related_fine_id", Long.class),
+                rs.getString("severity") != null ? ActivitySeverity.valueOf(rs.getString("severity")) : ActivitySeverity.INFO,
+                rs.getString("ip_address"), rs.getString("user_agent"), timestamp.toLocalDateTime());
+    }
+
+    private static final Comparator<ArchivedActivity> NEWEST_FIRST = Comparator
+            .comparing(ArchivedActivity::timestamp).thenComparingLong(ArchivedActivity::id).reversed();
+
+    private static final Comparator<Segment> NEWEST_SEGMENT_FIRST = Comparator
+            .comparing(Segment::maxTimestamp).thenComparing(Segment::name).reversed();
+}
@@ -2,11 +2,19 @@ package com.sliit.library.service;
 
 import com.sliit.library.model.*;
 import com.sliit.library.repository.ActivityRepository;
+import com.sliit.library.service.ActivityWriter.ActivityRecord;
+import com.sliit.library.util.AfterCommit;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.transaction.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -17,48 +25,65 @@ import com.sliit.library.dto.ActivityDto.*;
 @Service
 public class ActivityService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final ActivityRepository repo;
   private final ObjectMapper objectMapper;
+  private final ActivityWriter writer;
+  private final ActivityArchive archive;
 
-  public ActivityService(ActivityRepository repo, ObjectMapper objectMapper) {
+  public ActivityService(ActivityRepository repo, ObjectMapper objectMapper, ActivityWriter writer, ActivityArchive archive) {
     this.repo = repo;
     this.objectMapper = objectMapper;
+    this.writer = writer;
+    this.archive = archive;
   }
 
-  @Transactional
   public void log(User user, ActivityType type, String message) {
     logActivity(user, type, message, null, null, null, null);
   }
 
-  @Transactional
+  /**
+   * Record an activity. It is captured now (including the request's IP and User-Agent) and
+   * handed to the {@link ActivityWriter} once the surrounding transaction commits, so the
+   * caller never waits on the insert and rolled-back work leaves no trace in the log.
+   */
   public void logActivity(User user, ActivityType type, String message, String metadata, 
                          Long relatedBookId, Long relatedTransactionId, Long relatedFineId) {
-    Activity activity = new Activity();
-    activity.setUser(user);
-    activity.setType(type);
-    activity.setMessage(message);
-    activity.setMetadata(metadata);
-    activity.setRelatedBookId(relatedBookId);
-    activity.setRelatedTransactionId(relatedTransactionId);
-    activity.setRelatedFineId(relatedFineId);
-    activity.setSeverity(getDefaultSeverity(type));
+    ActivityRecord record = newActivity(user, type, message, metadata, relatedBookId, relatedTransactionId, relatedFineId);
+    AfterCommit.run(() -> writer.submit(record));
+  }
+
+  /** Queue a batch of activities built with {@link #newActivity} once the transaction commits. */
+  public void logAll(List<ActivityRecord> activities) {
+    if (!activities.isEmpty()) {
+      List<ActivityRecord> batch = List.copyOf(activities);
+      AfterCommit.run(() -> batch.forEach(writer::submit));
+    }
+  }
+
+  public ActivityRecord newActivity(User user, ActivityType type, String message, String metadata,
+                                    Long relatedBookId, Long relatedTransactionId, Long relatedFineId) {
+    String ipAddress = null;
+    String userAgent = null;
 
     // Try to get request context for IP and User Agent
     try {
       ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
       if (attributes != null) {
         HttpServletRequest request = attributes.getRequest();
-        activity.setIpAddress(getClientIpAddress(request));
-        activity.setUserAgent(request.getHeader("User-Agent"));
+        ipAddress = truncate(getClientIpAddress(request), 255);
+        userAgent = truncate(request.getHeader("User-Agent"), 500);
       }
     } catch (Exception e) {
       // Ignore if request context is not available
     }
 
-    repo.save(activity);
+    return new ActivityRecord(user != null ? user.getId() : null, user != null ? user.getName() : null, type, truncate(message, 255), metadata,
+        relatedBookId, relatedTransactionId, relatedFineId, getDefaultSeverity(type), ipAddress, userAgent,
+        LocalDateTime.now());
   }
 
-  @Transactional
   public void logWithMetadata(User user, ActivityType type, String message, Object metadataObject) {
     try {
       String metadata = objectMapper.writeValueAsString(metadataObject);
@@ -77,6 +102,11 @@ public class ActivityService {
     };
   }
 
+  // Column limits of the activities table; the batch insert would otherwise fail as a whole
+  private static String truncate(String value, int length) {
+    return value == null || value.length() <= length ? value : value.substring(0, length);
+  }
+
   private String getClientIpAddress(HttpServletRequest request) {
     String xForwardedFor = request.getHeader("X-Forwarded-For");
     if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -91,57 +121,77 @@ public class ActivityService {
     return request.getRemoteAddr();
   }
 
-  public List<ActivityResponse> getByUserId(Long userId, int limit) {
-    return repo.findByUserIdOrderByTimestampDesc(userId)
-               .stream()
-               .map(this::toResponse)
-               .limit(limit)
-               .toList();
+  public ActivityPageResponse getByUserId(Long userId, String cursor, int limit) {
+    return feed(new ActivityArchive.Filter(userId, null, null), cursor, limit,
+        (after, page) -> repo.findPageByUser(userId, after.timestamp(), after.id(), page));
   }
 
-  public List<ActivityResponse> getAllActivities(Long userId, int page, int size) {
+  public ActivityPageResponse getAllActivities(Long userId, String cursor, int size) {
     if (userId != null) {
-      return repo.findByUserIdOrderByTimestampDesc(userId)
-                 .stream()
-                 .skip((long) page * size)
-                 .limit(size)
-                 .map(this::toResponse)
-                 .toList();
-    } else {
-      return repo.findAllByOrderByTimestampDesc()
-                 .stream()
-                 .skip((long) page * size)
-                 .limit(size)
-                 .map(this::toResponse)
-                 .toList();
+      return getByUserId(userId, cursor, size);
     }
+    return getSystemActivities(cursor, size);
   }
 
-  public List<ActivityResponse> getSystemActivities(int limit) {
-    return repo.findAllByOrderByTimestampDesc()
-               .stream()
-               .map(this::toResponse)
-               .limit(limit)
-               .toList();
+  public ActivityPageResponse getSystemActivities(String cursor, int limit) {
+    return feed(ActivityArchive.Filter.ALL, cursor, limit,
+        (after, page) -> repo.findPage(after.timestamp(), after.id(), page));
   }
 
-  public List<ActivityResponse> getActivitiesByType(ActivityType type, int limit) {
-    return repo.findByTypeOrderByTimestampDesc(type)
-               .stream()
-               .map(this::toResponse)
-               .limit(limit)
-               .toList();
+  public ActivityPageResponse getActivitiesByType(ActivityType type, String cursor, int limit) {
+    return feed(new ActivityArchive.Filter(null, type, null), cursor, limit,
+        (after, page) -> repo.findPageByType(type, after.timestamp(), after.id(), page));
   }
 
-  public List<ActivityResponse> getActivitiesBySeverity(ActivitySeverity severity, int limit) {
-    return repo.findBySeverityOrderByTimestampDesc(severity)
-               .stream()
-               .map(this::toResponse)
-               .limit(limit)
-               .toList();
+  public ActivityPageResponse getActivitiesBySeverity(ActivitySeverity severity, String cursor, int limit) {
+    return feed(new ActivityArchive.Filter(null, null, severity), cursor, limit,
+        (after, page) -> repo.findPageBySeverity(severity, after.timestamp(), after.id(), page));
+  }
+
+  /**
+   * One page of a feed: the hot table first, then the archive once the page reaches back
+   * into archived time. Rows not archived yet can be older than archived ones, so the two
+   * are merged by (timestamp, id); one extra row tells whether another page follows.
+   */
+  private ActivityPageResponse feed(ActivityArchive.Filter filter, String cursor, int limit,
+                                    BiFunction<ActivityCursor, Pageable, List<Activity>> hotQuery) {
+    ActivityCursor after = ActivityCursor.parse(cursor);
+    int size = pageSize(limit);
+    List<ActivityResponse> rows = hotQuery.apply(after, PageRequest.of(0, size + 1)).stream()
+        .map(this::toResponse)
+        .toList();
+
+    LocalDateTime archivedUntil = archive.newestTimestamp();
+    if (archivedUntil != null && (rows.size() <= size || !rows.get(rows.size() - 1).timestamp().isAfter(archivedUntil))) {
+      Map<Long, ActivityResponse> merged = new LinkedHashMap<>();
+      rows.forEach(row -> merged.put(row.id(), row));
+      archive.page(filter, after.timestamp(), after.id(), size + 1)
+          .forEach(row -> merged.putIfAbsent(row.id(), toResponse(row)));
+      rows = merged.values().stream()
+          .sorted(Comparator.comparing(ActivityResponse::timestamp).thenComparing(ActivityResponse::id).reversed())
+          .limit(size + 1)
+          .toList();
+    }
+
+    boolean hasMore = rows.size() > size;
+    List<ActivityResponse> page = hasMore ? rows.subList(0, size) : rows;
+    String nextCursor = null;
+    if (hasMore) {
+      ActivityResponse last = page.get(page.size() - 1);
+      nextCursor = new ActivityCursor(last.timestamp(), last.id()).encode();
+    }
+    return new ActivityPageResponse(page, nextCursor, hasMore);
+  }
+
+  private static int pageSize(int requested) {
+    return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
   }
 
   private ActivityResponse toResponse(Activity a) {
     return new ActivityResponse(a.getId(), a.getUser().getId(), a.getType(), a.getMessage(), a.getTimestamp());
   }
+
+  private ActivityResponse toResponse(ActivityArchive.ArchivedActivity a) {
+    return new ActivityResponse(a.id(), a.userId(), a.type(), a.message(), a.timestamp());
+  }
 }
@@ -0,0 +1,426 @@
+package com.sliit.library.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sliit.library.dto.ActivityDto.ActivitySummary;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only pipeline for the activity log. Request threads hand over immutable records on
+ * a bounded queue; a single writer thread drains it and inserts each batch with one JDBC
+ * batch statement. When the queue is full the configured backpressure applies: BLOCK waits
+ * for room, DROP_INFO discards INFO records (and waits for the others), SPILL appends to a
+ * file that the writer replays once it is idle. Pending records are flushed on shutdown.
+ */
+@Slf4j
+@Service
+public class ActivityWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO activities (user_id, type, message, metadata, related_book_id, related_transaction_id,
+                                    related_fine_id, severity, ip_address, user_agent, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String SPILL_FILE = "activities.spill.jsonl";
+    private static final String REPLAY_PREFIX = "activities.replay.";
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    public enum Backpressure { BLOCK, DROP_INFO, SPILL }
+
+    /** One activity as captured on the calling thread; userName is only for the live feed. */
+    public record ActivityRecord(Long userId, String userName, ActivityType type, String message, String metadata,
+                                 Long relatedBookId, Long relatedTransactionId, Long relatedFineId,
+                                 ActivitySeverity severity, String ipAddress, String userAgent,
+                                 LocalDateTime timestamp) {}
+
+    public record Stats(int queueDepth, int queueCapacity, Backpressure backpressure, long enqueued,
+                        long written, long dropped, long spilled, long replayed, long batches,
+                        long failedBatches, long lastFlushMs, long averageFlushMs, long maxFlushMs) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentActivityFeed recentActivities;
+
+    @Value("${app.activity.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.activity.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.activity.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.activity.writer.backpressure:BLOCK}")
+    private Backpressure backpressure;
+
+    // Longest a caller waits for room before its record is dropped
+    @Value("${app.activity.writer.block-timeout-ms:2000}")
+    private long blockTimeoutMs;
+
+    @Value("${app.activity.writer.spill-dir:data/activity-spill}")
+    private Path spillDir;
+
+    @Value("${app.activity.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<ActivityRecord> queue;
+    private volatile boolean running;
+    private Thread writer;
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder flushTotalMs = new LongAdder();
+    private final AtomicLong maxFlushMs = new AtomicLong();
+    private volatile long lastFlushMs;
+
+    public ActivityWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                          RecentActivityFeed recentActivities) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.recentActivities = recentActivities;
+        // Writes made from an after-commit callback must not join the finished transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::drain, "activity-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        List<ActivityRecord> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            // The writer did not finish in time; keep what is left on disk for the next start
+            spill(left);
+            log.warn("Activity writer stopped with {} records pending; spilled to {}", left.size(), spillDir);
+        }
+    }
+
+    /** Queue a record for writing, applying backpressure when the queue is full. */
+    public void submit(ActivityRecord record) {
+        if (record.userId() == null) {
+            log.debug("Activity without a persisted user ignored: {}", record.message());
+            dropped.increment();
+            return;
+        }
+        if (!running) {
+            spill(write(List.of(record), true));
+            return;
+        }
+        if (queue.offer(record)) {
+            enqueued.increment();
+            return;
+        }
+        if (backpressure == Backpressure.SPILL) {
+            spill(List.of(record));
+            return;
+        }
+        if (backpressure == Backpressure.DROP_INFO && record.severity() == ActivitySeverity.INFO) {
+            drop(record);
+            return;
+        }
+        try {
+            if (queue.offer(record, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                enqueued.increment();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drop(record);
+    }
+
+    public Stats getStats() {
+        long batchCount = batches.sum();
+        return new Stats(queue.size(), queueCapacity, backpressure, enqueued.sum(), written.sum(), dropped.sum(),
+                spilled.sum(), replayed.sum(), batchCount, failedBatches.sum(), lastFlushMs,
+                batchCount == 0 ? 0 : flushTotalMs.sum() / batchCount, maxFlushMs.get());
+    }
+
+    private void drain() {
+        List<ActivityRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivityRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (running) {
+                        replaySpilled();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                spill(write(batch, true));
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Activity writer failed on a batch of {} records", batch.size(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert the records as one batch, retrying with backoff while the database is failing.
+     * A batch rejected for its data (say, a user deleted meanwhile) is written row by row and
+     * only the offending rows are dropped. Returns the records that could not be written and
+     * should be kept for later; empty when everything was written or dropped. Live records
+     * (as opposed to replayed ones) also go to the recent activity feed.
+     */
+    private List<ActivityRecord> write(List<ActivityRecord> records, boolean live) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(records, live);
+                return List.of();
+            } catch (DataIntegrityViolationException e) {
+                return records.size() == 1 ? dropInvalid(records.get(0), e) : writeEach(records, live);
+            } catch (Exception e) {
+                failedBatches.increment();
+                if (attempt >= MAX_WRITE_ATTEMPTS || !running) {
+                    log.error("Could not write {} activity records: {}", records.size(), e.getMessage());
+                    return records;
+                }
+                log.warn("Writing {} activity records failed (attempt {}), retrying: {}", records.size(), attempt, e.getMessage());
+                try {
+                    Thread.sleep(500L << attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return records;
+                }
+            }
+        }
+    }
+
+    private List<ActivityRecord> writeEach(List<ActivityRecord> records, boolean live) {
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                insert(List.of(records.get(i)), live);
+            } catch (DataIntegrityViolationException e) {
+                dropInvalid(records.get(i), e);
+            } catch (Exception e) {
+                failedBatches.increment();
+                log.error("Could not write {} activity records: {}", records.size() - i, e.getMessage());
+                return records.subList(i, records.size());
+            }
+        }
+        return List.of();
+    }
+
+    private List<ActivityRecord> dropInvalid(ActivityRecord record, DataIntegrityViolationException e) {
+        dropped.increment();
+        log.error("Dropping activity record {}: {}", record, e.getMostSpecificCause().getMessage());
+        return List.of();
+    }
+
+    private void insert(List<ActivityRecord> records, boolean live) {
+        long started = System.currentTimeMillis();
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        // One transaction per batch, so a rejected batch leaves no partial rows behind
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        ActivityRecord record = records.get(i);
+                        statement.setLong(1, record.userId());
+                        statement.setString(2, record.type().name());
+                        statement.setString(3, record.message());
+                        statement.setString(4, record.metadata());
+                        setLong(statement, 5, record.relatedBookId());
+                        setLong(statement, 6, record.relatedTransactionId());
+                        setLong(statement, 7, record.relatedFineId());
+                        statement.setString(8, record.severity().name());
+                        statement.setString(9, record.ipAddress());
+                        statement.setString(10, record.userAgent());
+                        statement.setTimestamp(11, Timestamp.valueOf(record.timestamp()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return records.size();
+                    }
+                }, keys));
+        if (live) {
+            publish(records, keys.getKeyList());
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        written.add(records.size());
+        batches.increment();
+        flushTotalMs.add(elapsed);
+        maxFlushMs.accumulateAndGet(elapsed, Math::max);
+        lastFlushMs = elapsed;
+    }
+
+    private void publish(List<ActivityRecord> records, List<Map<String, Object>> keys) {
+        List<ActivitySummary> summaries = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ActivityRecord record = records.get(i);
+            Long id = i < keys.size() ? ((Number) keys.get(i).values().iterator().next()).longValue() : null;
+            summaries.add(new ActivitySummary(id, record.userId(), record.userName(), record.type(), record.severity(),
+                    record.message(), record.timestamp()));
+        }
+        recentActivities.publish(summaries);
+    }
+
+    private void drop(ActivityRecord record) {
+        dropped.increment();
+        long total = dropped.sum();
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Activity queue full ({} records), {} records dropped so far", queueCapacity, total);
+        }
+    }
+
+    private void spill(List<ActivityRecord> records) {
+        if (!records.isEmpty() && appendToSpillFile(records)) {
+            spilled.add(records.size());
+        }
+    }
+
+    private boolean appendToSpillFile(List<ActivityRecord> records) {
+        spillLock.lock();
+        try {
+            Files.createDirectories(spillDir);
+            try (BufferedWriter out = Files.newBufferedWriter(spillDir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ActivityRecord record : records) {
+                    out.write(objectMapper.writeValueAsString(record));
+                    out.newLine();
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            dropped.add(records.size());
+            log.error("Could not spill {} activity records to {}", records.size(), spillDir, e);
+            return false;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    // Moves the spill file aside and writes it back in batches
+    private void replaySpilled() {
+        Path spillFile = spillDir.resolve(SPILL_FILE);
+        try {
+            spillLock.lock();
+            try {
+                if (Files.exists(spillFile)) {
+                    Files.move(spillFile, spillDir.resolve(REPLAY_PREFIX + System.currentTimeMillis() + ".jsonl"),
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                spillLock.unlock();
+            }
+            if (!Files.isDirectory(spillDir)) {
+                return;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, REPLAY_PREFIX + "*.jsonl")) {
+                for (Path file : files) {
+                    try {
+                        replay(file);
+                    } catch (IOException e) {
+                        log.warn("Could not replay spilled activity records from {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not replay spilled activity records: {}", e.getMessage());
+        }
+    }
+
+    // Records that still cannot be written go back to the spill file together with the rest of the replay.
+    // Lines that do not parse (say, cut short by a crash while spilling) are dropped.
+    private void replay(Path file) throws IOException {
+        List<ActivityRecord> records = new ArrayList<>();
+        int unreadable = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                records.add(objectMapper.readValue(line, ActivityRecord.class));
+            } catch (JsonProcessingException e) {
+                unreadable++;
+            }
+        }
+        if (unreadable > 0) {
+            dropped.add(unreadable);
+            log.warn("Dropped {} unreadable activity records from {}", unreadable, file.getFileName());
+        }
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<ActivityRecord> batch = records.subList(from, Math.min(from + batchSize, records.size()));
+            List<ActivityRecord> unwritten = write(batch, false);
+            replayed.add(batch.size() - unwritten.size());
+            if (!unwritten.isEmpty()) {
+                List<ActivityRecord> keep = new ArrayList<>(unwritten);
+                keep.addAll(records.subList(from + batch.size(), records.size()));
+                appendToSpillFile(keep);
+                break;
+            }
+        }
+        Files.delete(file);
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sliit.library.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.dto.AnalyticsDto.SeriesPoint;
+import com.sliit.library.exception.BusinessException;
+import com.sliit.library.model.AnalyticsRollup;
+import com.sliit.library.model.RollupGranularity;
+import com.sliit.library.model.RollupMetric;
+import com.sliit.library.repository.AnalyticsRollupRepository;
+import com.sliit.library.repository.AnalyticsRollupRepository.HourlyTotal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hourly and daily rollups of circulation, fine and payment events. The aggregator
+ * re-derives the hours since its last run (plus a short lookback for late commits) from
+ * the source tables and then re-sums the affected days from the hourly buckets; analytics
+ * reads only ever touch analytics_rollups.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsRollupService {
+
+    // Upper bound on the window aggregated in one transaction (matters for the first backfill)
+    private static final long CHUNK_HOURS = 7 * 24;
+
+    // Longest series a single range query may return
+    private static final long MAX_POINTS = 24 * 400;
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.rollups.lookback-hours:2}")
+    private int lookbackHours;
+
+    // Start of the first hour that has not been finalized yet
+    private LocalDateTime watermark;
+    private final ReentrantLock aggregateLock = new ReentrantLock();
+
+    /** Bring the rollups up to the current hour. */
+    public void aggregate() {
+        aggregateLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+            if (watermark == null) {
+                watermark = initialWatermark(currentHour);
+            }
+            LocalDateTime from = watermark.minusHours(lookbackHours);
+            int buckets = aggregateRange(from, currentHour.plusHours(1), now);
+            // The current hour is still filling up, so it is recomputed on the next run
+            watermark = currentHour;
+            log.debug("Analytics rollups aggregated from {}: {} hourly buckets", from, buckets);
+        } finally {
+            aggregateLock.unlock();
+        }
+    }
+
+    /**
+     * Recompute every bucket from the given day onwards, picking up edits to rows whose
+     * timestamps are older than the incremental lookback (e.g. a fine amount that grew).
+     */
+    public void reaggregateSince(LocalDate day) {
+        aggregateLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            int buckets = aggregateRange(day.atStartOfDay(), now.truncatedTo(ChronoUnit.HOURS).plusHours(1), now);
+            log.info("Analytics rollups re-aggregated since {}: {} hourly buckets in {} ms",
+                    day, buckets, System.currentTimeMillis() - started);
+        } finally {
+            aggregateLock.unlock();
+        }
+    }
+
+    /**
+     * Time series of the given metrics over [from, to), one point per bucket including empty
+     * buckets, read with a single query against the rollup table.
+     */
+    public List<SeriesPoint> series(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                    Collection<RollupMetric> metrics) {
+        ChronoUnit unit = granularity == RollupGranularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime start = floor(from, granularity);
+        if (!to.isAfter(start)) {
+            throw new BusinessException("Range end must be after its start");
+        }
+        if (unit.between(start, to) > MAX_POINTS) {
+            throw new BusinessException("Requested range is too long for " + granularity + " buckets");
+        }
+        Collection<RollupMetric> requested = metrics == null || metrics.isEmpty()
+                ? EnumSet.allOf(RollupMetric.class) : metrics;
+
+        Map<LocalDateTime, SeriesPoint> points = new LinkedHashMap<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = bucket.plus(1, unit)) {
+            SeriesPoint point = new SeriesPoint(bucket);
+            for (RollupMetric metric : requested) {
+                point.getCounts().put(metric, 0L);
+                point.getAmounts().put(metric, 0.0);
+            }
+            points.put(bucket, point);
+        }
+        for (AnalyticsRollup rollup : rollupRepository.findSeries(granularity, requested, start, to)) {
+            SeriesPoint point = points.get(rollup.getBucketStart());
+            if (point != null) {
+                point.getCounts().put(rollup.getMetric(), rollup.getEventCount());
+                point.getAmounts().put(rollup.getMetric(), rollup.getAmount());
+            }
+        }
+        return new ArrayList<>(points.values());
+    }
+
+    /** Daily series covering the given days, both inclusive. */
+    public List<SeriesPoint> dailySeries(LocalDate from, LocalDate to, Collection<RollupMetric> metrics) {
+        return series(RollupGranularity.DAY, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), metrics);
+    }
+
+    /** Totals over the given days, both inclusive, as a single point summed from the daily buckets. */
+    public SeriesPoint total(LocalDate from, LocalDate to, Collection<RollupMetric> metrics) {
+        SeriesPoint total = new SeriesPoint(from.atStartOfDay());
+        for (SeriesPoint point : dailySeries(from, to, metrics)) {
+            point.getCounts().forEach((metric, count) -> total.getCounts().merge(metric, count, Long::sum));
+            point.getAmounts().forEach((metric, amount) -> total.getAmounts().merge(metric, amount, Double::sum));
+        }
+        return total;
+    }
+
+    private LocalDateTime initialWatermark(LocalDateTime currentHour) {
+        LocalDateTime latest = rollupRepository.findLatestBucketStart(RollupGranularity.HOUR);
+        if (latest != null) {
+            return latest;
+        }
+        // Nothing aggregated yet: backfill from the oldest event in any source table
+        return Stream.of(
+                        rollupRepository.findEarliestIssuedAt(),
+                        rollupRepository.findEarliestFineCreatedAt(),
+                        rollupRepository.findEarliestPaymentCreatedAt(),
+                        rollupRepository.findEarliestUserCreatedAt(),
+                        rollupRepository.findEarliestRequestedAt())
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .map(earliest -> earliest.truncatedTo(ChronoUnit.HOURS))
+                .orElse(currentHour);
+    }
+
+    private int aggregateRange(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        int buckets = 0;
+        for (LocalDateTime chunkFrom = from; chunkFrom.isBefore(to); chunkFrom = chunkFrom.plusHours(CHUNK_HOURS)) {
+            LocalDateTime chunkStart = chunkFrom;
+            LocalDateTime chunkEnd = chunkFrom.plusHours(CHUNK_HOURS).isBefore(to) ? chunkFrom.plusHours(CHUNK_HOURS) : to;
+            Integer written = transactionTemplate.execute(status -> aggregateChunk(chunkStart, chunkEnd, now));
+            buckets += written != null ? written : 0;
+        }
+        return buckets;
+    }
+
+    private int aggregateChunk(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        rollupRepository.deleteRange(RollupGranularity.HOUR, from, to);
+
+        List<AnalyticsRollup> hourly = new ArrayList<>();
+        addHourly(hourly, RollupMetric.BOOKS_ISSUED, rollupRepository.countIssuedPerHour(from, to));
+        addHourly(hourly, RollupMetric.BOOKS_RETURNED, rollupRepository.countReturnedPerHour(from, to));
+        addHourly(hourly, RollupMetric.BOOKS_RENEWED, rollupRepository.countRenewedPerHour(from, to));
+        addHourly(hourly, RollupMetric.LOANS_OVERDUE, rollupRepository.countOverduePerHour(from, to, now));
+        addHourly(hourly, RollupMetric.FINES_CREATED, rollupRepository.sumFinesCreatedPerHour(from, to));
+        addHourly(hourly, RollupMetric.FINES_COLLECTED, rollupRepository.sumFinesCollectedPerHour(from, to));
+        addHourly(hourly, RollupMetric.PAYMENTS_COMPLETED, rollupRepository.sumPaymentsCompletedPerHour(from, to));
+        addHourly(hourly, RollupMetric.MEMBERS_REGISTERED, rollupRepository.countMembersRegisteredPerHour(from, to));
+        addHourly(hourly, RollupMetric.REQUESTS_PLACED, rollupRepository.countRequestsPlacedPerHour(from, to));
+        rollupRepository.saveAll(hourly);
+
+        // Every day touched by the window is re-summed from its (now complete) hourly buckets
+        LocalDateTime dayFrom = from.toLocalDate().atStartOfDay();
+        LocalDateTime dayTo = floor(to.minusNanos(1), RollupGranularity.DAY).plusDays(1);
+        rollupRepository.deleteRange(RollupGranularity.DAY, dayFrom, dayTo);
+        List<AnalyticsRollup> daily = new ArrayList<>();
+        for (AnalyticsRollupRepository.DailyRollup row : rollupRepository.sumHourlyPerDay(dayFrom, dayTo)) {
+            daily.add(AnalyticsRollup.builder()
+                    .granularity(RollupGranularity.DAY)
+                    .metric(row.getMetric())
+                    .bucketStart(row.getDay().atStartOfDay())
+                    .eventCount(row.getTotal())
+                    .amount(row.getAmount() != null ? row.getAmount() : 0.0)
+                    .build());
+        }
+        rollupRepository.saveAll(daily);
+        return hourly.size();
+    }
+
+    private static void addHourly(List<AnalyticsRollup> into, RollupMetric metric, List<HourlyTotal> rows) {
+        for (HourlyTotal row : rows) {
+            into.add(AnalyticsRollup.builder()
+                    .granularity(RollupGranularity.HOUR)
+                    .metric(metric)
+                    .bucketStart(row.getDay().atTime(row.getHour(), 0))
+                    .eventCount(row.getTotal())
+                    .amount(row.getAmount() != null ? row.getAmount() : 0.0)
+                    .build());
+        }
+    }
+
+    private static LocalDateTime floor(LocalDateTime time, RollupGranularity granularity) {
+        return granularity == RollupGranularity.HOUR
+                ? time.truncatedTo(ChronoUnit.HOURS)
+                : time.toLocalDate().atStartOfDay();
+    }
+}
@@ -24,12 +24,17 @@ public class AuthorService {
     private final ActivityService activityService;
     private final CurrentUser currentUser;
     private final ImageUploadService imageUploadService;
+    private final BookSearchIndex bookSearchIndex;
+    private final ReferenceDataCache referenceDataCache;
 
-    public AuthorService(AuthorRepository repo, ActivityService activityService, CurrentUser currentUser, ImageUploadService imageUploadService) {
+    public AuthorService(AuthorRepository repo, ActivityService activityService, CurrentUser currentUser, ImageUploadService imageUploadService,
+            BookSearchIndex bookSearchIndex, ReferenceDataCache referenceDataCache) {
         this.repo = repo;
         this.activityService = activityService;
         this.currentUser = currentUser;
         this.imageUploadService = imageUploadService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Transactional
@@ -74,8 +79,10 @@ public class AuthorService {
     public AuthorResponse update(Long id, AuthorUpdateRequest req) {
         var author = repo.findById(id).orElseThrow(() -> new ApiException("Author not found"));
 
-        if (req.name() != null)
+        if (req.name() != null) {
             author.setName(req.name());
+            bookSearchIndex.renameAuthor(id, req.name());
+        }
         if (req.biography() != null)
             author.setBiography(req.biography());
         if (req.picture() != null) {
@@ -87,6 +94,7 @@ public class AuthorService {
         }
         author.setUpdatedAt(LocalDateTime.now());
 
+        referenceDataCache.evictAfterCommit(Author.class, id);
         activityService.log(currentUser.require(), ActivityType.AUTHOR_UPDATED, "Author " + author.getName() + " updated!");
 
         return toResponse(author);
@@ -101,6 +109,7 @@ public class AuthorService {
         }
 
         repo.delete(author);
+        referenceDataCache.evictAfterCommit(Author.class, id);
         activityService.log(currentUser.require(), ActivityType.AUTHOR_DELETED, "Author " + author.getName() + " deleted!");
     }
 
@@ -0,0 +1,256 @@
+package com.sliit.library.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.dto.BookReviewDto.BookReviewSummary;
+import com.sliit.library.model.BookRatingStats;
+import com.sliit.library.repository.BookRatingStatsRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.BookReviewRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the per-book rating aggregates in book_rating_stats in step with book_reviews and
+ * serves review summaries from them.
+ */
+@Slf4j
+@Service
+public class BookRatingStatsService {
+
+    private static final int READ_BATCH_SIZE = 1000;
+    private static final int REPAIR_CHUNK_SIZE = 500;
+
+    private final BookRatingStatsRepository statsRepository;
+    private final BookRepository bookRepository;
+    private final BookReviewRepository bookReviewRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate seedTemplate;
+
+    public BookRatingStatsService(BookRatingStatsRepository statsRepository, BookRepository bookRepository,
+                                  BookReviewRepository bookReviewRepository, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.bookRepository = bookRepository;
+        this.bookReviewRepository = bookReviewRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A missing row is created outside the review's transaction, so a concurrent creator
+        // costs a caught duplicate key instead of rolling back the review
+        this.seedTemplate = new TransactionTemplate(transactionManager);
+        this.seedTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public void initialize(Long bookId) {
+        if (!statsRepository.existsById(bookId)) {
+            statsRepository.save(BookRatingStats.builder().bookId(bookId).build());
+        }
+    }
+
+    // The rating mutators must be called in the transaction that writes the review change.
+    // The stats row is locked so concurrent reviews of the same book serialize on it.
+
+    @Transactional
+    public void addRating(Long bookId, int rating) {
+        lock(bookId).apply(rating, 1);
+    }
+
+    @Transactional
+    public void changeRating(Long bookId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return;
+        }
+        BookRatingStats stats = lock(bookId);
+        stats.apply(oldRating, -1);
+        stats.apply(newRating, 1);
+    }
+
+    @Transactional
+    public void removeRating(Long bookId, int rating) {
+        lock(bookId).apply(rating, -1);
+    }
+
+    @Transactional
+    public void delete(Long bookId) {
+        if (statsRepository.existsById(bookId)) {
+            statsRepository.deleteById(bookId);
+        }
+    }
+
+    /**
+     * Review summaries for a set of books, read by primary key from the aggregates. Books
+     * without a stats row yet are reported with zero reviews; bookTitle is left unset.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BookReviewSummary> getSummaries(Collection<Long> bookIds) {
+        List<Long> ids = bookIds.stream().distinct().toList();
+        Map<Long, BookReviewSummary> summaries = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += READ_BATCH_SIZE) {
+            var batch = ids.subList(from, Math.min(from + READ_BATCH_SIZE, ids.size()));
+            for (BookRatingStats stats : statsRepository.findAllById(batch)) {
+                summaries.put(stats.getBookId(), toSummary(stats));
+            }
+        }
+        for (Long id : ids) {
+            summaries.computeIfAbsent(id, k -> toSummary(BookRatingStats.builder().bookId(k).build()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Recompute every book's aggregates from book_reviews in chunks of books, each in its
+     * own transaction. The chunk's stats rows are locked before counting so concurrent
+     * review writes are either fully counted or applied on top of the repaired values.
+     *
+     * @return number of books whose stats were out of date
+     */
+    public int repairAll() {
+        long started = System.currentTimeMillis();
+        int repaired = 0;
+        int scanned = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> bookIds = bookRepository.findIdsAfter(afterId, PageRequest.of(0, REPAIR_CHUNK_SIZE));
+            if (bookIds.isEmpty()) {
+                break;
+            }
+            Integer fixed = transactionTemplate.execute(status -> repairChunk(bookIds));
+            repaired += fixed != null ? fixed : 0;
+            scanned += bookIds.size();
+            afterId = bookIds.get(bookIds.size() - 1);
+        }
+        log.info("Rating statistics repair scanned {} books, fixed {} in {} ms",
+                scanned, repaired, System.currentTimeMillis() - started);
+        return repaired;
+    }
+
+    /** Backfill the aggregates when reviews exist but no stats have been recorded yet. */
+    public void backfillIfEmpty() {
+        if (statsRepository.count() == 0 && bookRepository.count() > 0) {
+            log.info("No rating statistics found, backfilling from reviews...");
+            repairAll();
+        }
+    }
+
+    private int repairChunk(List<Long> bookIds) {
+        Map<Long, BookRatingStats> existing = statsRepository.findAllByIdForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(BookRatingStats::getBookId, Function.identity()));
+
+        Map<Long, long[]> histograms = new HashMap<>();
+        for (Long bookId : bookIds) {
+            histograms.put(bookId, new long[6]);
+        }
+        for (BookReviewRepository.RatingCount row : bookReviewRepository.countRatingsByBookIds(bookIds)) {
+            if (row.getRating() >= 1 && row.getRating() <= 5) {
+                histograms.get(row.getBookId())[row.getRating()] += row.getReviewCount();
+            }
+        }
+
+        int fixed = 0;
+        for (Long bookId : bookIds) {
+            long[] histogram = histograms.get(bookId);
+            BookRatingStats expected = fromHistogram(bookId, histogram);
+            BookRatingStats stats = existing.get(bookId);
+            if (stats == null) {
+                statsRepository.save(expected);
+                fixed++;
+            } else if (!sameCounts(stats, expected)) {
+                stats.setRatingSum(expected.getRatingSum());
+                stats.setRatingCount(expected.getRatingCount());
+                stats.setOneStarCount(expected.getOneStarCount());
+                stats.setTwoStarCount(expected.getTwoStarCount());
+                stats.setThreeStarCount(expected.getThreeStarCount());
+                stats.setFourStarCount(expected.getFourStarCount());
+                stats.setFiveStarCount(expected.getFiveStarCount());
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private BookRatingStats lock(Long bookId) {
+        return statsRepository.findByIdForUpdate(bookId).orElseGet(() -> {
+            seed(bookId);
+            return statsRepository.findByIdForUpdate(bookId).orElseThrow();
+        });
+    }
+
+    private void seed(Long bookId) {
+        // No row yet (book predates the stats table). Seed it from the committed reviews; the
+        // caller's own change is not committed yet and is applied on top once the row is locked.
+        try {
+            seedTemplate.executeWithoutResult(status -> {
+                long[] histogram = new long[6];
+                for (BookReviewRepository.RatingCount row : bookReviewRepository.countRatingsByBookIds(List.of(bookId))) {
+                    if (row.getRating() >= 1 && row.getRating() <= 5) {
+                        histogram[row.getRating()] += row.getReviewCount();
+                    }
+                }
+                // persist rather than save: save merges, and would overwrite a row seeded meanwhile
+                entityManager.persist(fromHistogram(bookId, histogram));
+                statsRepository.flush();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent review seeded it first; its row counts the same committed reviews
+            log.debug("Rating statistics for book {} were seeded concurrently", bookId);
+        }
+    }
+
+    private static BookRatingStats fromHistogram(Long bookId, long[] histogram) {
+        long count = 0;
+        long sum = 0;
+        for (int rating = 1; rating <= 5; rating++) {
+            count += histogram[rating];
+            sum += rating * histogram[rating];
+        }
+        return BookRatingStats.builder()
+                .bookId(bookId)
+                .ratingSum(sum)
+                .ratingCount(count)
+                .oneStarCount(histogram[1])
+                .twoStarCount(histogram[2])
+                .threeStarCount(histogram[3])
+                .fourStarCount(histogram[4])
+                .fiveStarCount(histogram[5])
+                .build();
+    }
+
+    private static boolean sameCounts(BookRatingStats a, BookRatingStats b) {
+        return a.getRatingSum() == b.getRatingSum()
+                && a.getRatingCount() == b.getRatingCount()
+                && a.getOneStarCount() == b.getOneStarCount()
+                && a.getTwoStarCount() == b.getTwoStarCount()
+                && a.getThreeStarCount() == b.getThreeStarCount()
+                && a.getFourStarCount() == b.getFourStarCount()
+                && a.getFiveStarCount() == b.getFiveStarCount();
+    }
+
+    private static BookReviewSummary toSummary(BookRatingStats stats) {
+        BookReviewSummary summary = new BookReviewSummary();
+        summary.setBookId(stats.getBookId());
+        summary.setAverageRating(stats.getAverageRating());
+        summary.setTotalReviews(stats.getRatingCount());
+        summary.setFiveStarCount(stats.getFiveStarCount());
+        summary.setFourStarCount(stats.getFourStarCount());
+        summary.setThreeStarCount(stats.getThreeStarCount());
+        summary.setTwoStarCount(stats.getTwoStarCount());
+        summary.setOneStarCount(stats.getOneStarCount());
+        return summary;
+    }
+}
@@ -7,6 +7,7 @@ import com.sliit.library.exception.ForbiddenException;
 import com.sliit.library.exception.ResourceNotFoundException;
 import com.sliit.library.model.*;
 import com.sliit.library.repository.BookRequestRepository;
+import com.sliit.library.service.LibraryPolicyService.PolicySnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,12 +28,12 @@ public class BookRequestService {
 
     @Transactional
     public BookRequest requestBook(User user, Book book, String notes) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
 
         // Check if user has reached maximum requests
         long currentRequests = requestRepository.countByUserAndStatus(user, RequestStatus.PENDING);
-        if (currentRequests >= policy.getMaxRequestsPerUser()) {
-            throw new BusinessException("Maximum number of requests reached (" + policy.getMaxRequestsPerUser() + ")");
+        if (currentRequests >= policy.maxRequestsPerUser()) {
+            throw new BusinessException("Maximum number of requests reached (" + policy.maxRequestsPerUser() + ")");
         }
 
         // Check if user already has a pending request for this book
@@ -51,7 +52,7 @@ public class BookRequestService {
         request.setNotes(notes);
         request.setStatus(RequestStatus.PENDING);
         request.setRequestedAt(LocalDateTime.now());
-        request.setExpiresAt(LocalDateTime.now().plusDays(policy.getRequestExpiryDays()));
+        request.setExpiresAt(LocalDateTime.now().plusDays(policy.requestExpiryDays()));
 
         // Set queue position
         List<BookRequest> queue = requestRepository.findQueueForBook(book);
@@ -1,6 +1,8 @@
 package com.sliit.library.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
@@ -27,15 +29,18 @@ public class BookReviewService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final CurrentUser currentUser;
+    private final BookRatingStatsService ratingStatsService;
 
     public BookReviewService(BookReviewRepository bookReviewRepository, 
                            BookRepository bookRepository,
                            UserRepository userRepository,
-                           CurrentUser currentUser) {
+                           CurrentUser currentUser,
+                           BookRatingStatsService ratingStatsService) {
         this.bookReviewRepository = bookReviewRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.currentUser = currentUser;
+        this.ratingStatsService = ratingStatsService;
     }
 
     public BookReviewResponse createReview(BookReviewCreateRequest request) {
@@ -56,35 +61,39 @@ public class BookReviewService {
         review.setReview(request.getReview());
 
         BookReview savedReview = bookReviewRepository.save(review);
+        ratingStatsService.addRating(book.getId(), savedReview.getRating());
         return toResponse(savedReview);
     }
 
     public BookReviewResponse updateReview(Long reviewId, BookReviewUpdateRequest request) {
-        User user = currentUser.require();
+        Long userId = currentUser.requireId();
         BookReview review = bookReviewRepository.findById(reviewId)
             .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
 
-        if (!review.getUser().getId().equals(user.getId())) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new ValidationException("User can only update their own reviews");
         }
 
+        int oldRating = review.getRating();
         review.setRating(request.getRating());
         review.setReview(request.getReview());
 
         BookReview updatedReview = bookReviewRepository.save(review);
+        ratingStatsService.changeRating(review.getBook().getId(), oldRating, updatedReview.getRating());
         return toResponse(updatedReview);
     }
 
     public void deleteReview(Long reviewId) {
-        User user = currentUser.require();
+        Long userId = currentUser.requireId();
         BookReview review = bookReviewRepository.findById(reviewId)
             .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
 
-        if (!review.getUser().getId().equals(user.getId())) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new ValidationException("User can only delete their own reviews");
         }
 
         bookReviewRepository.delete(review);
+        ratingStatsService.removeRating(review.getBook().getId(), review.getRating());
     }
 
     @Transactional(readOnly = true)
@@ -118,40 +127,36 @@ public class BookReviewService {
 
     @Transactional(readOnly = true)
     public BookReviewSummary getBookReviewSummary(Long bookId) {
-        if (!bookRepository.existsById(bookId)) {
-            throw new ResourceNotFoundException("Book not found");
-        }
-
-        Book book = bookRepository.findById(bookId).get();
-        Double averageRating = bookReviewRepository.findAverageRatingByBookId(bookId);
-        Long totalReviews = bookReviewRepository.countByBookId(bookId);
+        Book book = bookRepository.findById(bookId)
+            .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
 
-        BookReviewSummary summary = new BookReviewSummary();
-        summary.setBookId(bookId);
+        BookReviewSummary summary = getBookReviewSummaries(List.of(bookId)).get(bookId);
         summary.setBookTitle(book.getTitle());
-        summary.setAverageRating(averageRating != null ? averageRating : 0.0);
-        summary.setTotalReviews(totalReviews);
-        summary.setFiveStarCount(bookReviewRepository.countByBookIdAndRating(bookId, 5));
-        summary.setFourStarCount(bookReviewRepository.countByBookIdAndRating(bookId, 4));
-        summary.setThreeStarCount(bookReviewRepository.countByBookIdAndRating(bookId, 3));
-        summary.setTwoStarCount(bookReviewRepository.countByBookIdAndRating(bookId, 2));
-        summary.setOneStarCount(bookReviewRepository.countByBookIdAndRating(bookId, 1));
-
         return summary;
     }
 
+    /**
+     * Average rating, review count and star histogram for a set of books, served from the
+     * denormalized rating aggregates. bookTitle is left unset because callers already hold
+     * the books.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BookReviewSummary> getBookReviewSummaries(Collection<Long> bookIds) {
+        return ratingStatsService.getSummaries(bookIds);
+    }
+
     @Transactional(readOnly = true)
     public List<BookReviewResponse> getMyReviews(int page, int pageSize) {
-        User user = currentUser.require();
+        Long userId = currentUser.requireId();
         Pageable pageable = PageRequest.of(page, pageSize);
-        List<BookReview> reviews = bookReviewRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageable);
+        List<BookReview> reviews = bookReviewRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
         return reviews.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public BookReviewResponse getMyReviewForBook(Long bookId) {
-        User user = currentUser.require();
-        BookReview review = bookReviewRepository.findByUserIdAndBookId(user.getId(), bookId)
+        Long userId = currentUser.requireId();
+        BookReview review = bookReviewRepository.findByUserIdAndBookId(userId, bookId)
             .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         return toResponse(review);
     }
@@ -0,0 +1,328 @@
+package com.sliit.library.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.sliit.library.model.Book;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.util.AfterCommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over book title, author name, publisher name and ISBN.
+ * Query terms are matched as token prefixes and AND-ed together; category, author,
+ * publisher and language filters are applied as posting-list intersections.
+ * <p>
+ * A rebuild reads the table into a fresh index and swaps it in. Changes that commit while
+ * it reads are applied to the live index and also recorded, then replayed onto the fresh
+ * index just before the swap so that none are lost.
+ */
+@Slf4j
+@Service
+public class BookSearchIndex {
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final BookRepository bookRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    // token -> ids of books containing a token with that exact text
+    private NavigableMap<String, Set<Long>> terms = new TreeMap<>();
+    private Map<Long, Set<Long>> byCategory = new HashMap<>();
+    private Map<Long, Set<Long>> byAuthor = new HashMap<>();
+    private Map<Long, Set<Long>> byPublisher = new HashMap<>();
+    private Map<Long, Set<Long>> byLanguage = new HashMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    // Guarded by the write lock; non-null while a rebuild is reading the table
+    private List<Consumer<BookSearchIndex>> rebuildDeltas;
+
+    record Document(long id, String title, String isbn, long authorId, String authorName,
+                    long publisherId, String publisherName, long categoryId, long languageId) {}
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rebuild the whole index from the books table, reading it in id-ordered chunks. */
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Catalog search index disabled, searches will use the database");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        BookSearchIndex fresh = new BookSearchIndex(bookRepository);
+        lock.writeLock().lock();
+        try {
+            rebuildDeltas = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<BookRepository.SearchRow> rows = bookRepository.findSearchRowsAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                for (BookRepository.SearchRow row : rows) {
+                    fresh.add(new Document(row.getId(), row.getTitle(), row.getIsbn(),
+                            row.getAuthorId(), row.getAuthorName(), row.getPublisherId(), row.getPublisherName(),
+                            row.getCategoryId(), row.getLanguageId()));
+                }
+                if (rows.size() < REBUILD_CHUNK_SIZE) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Chunks read before a change committed do not have it; deltas are idempotent, so replay them all in order
+                rebuildDeltas.forEach(delta -> delta.accept(fresh));
+                terms = fresh.terms;
+                byCategory = fresh.byCategory;
+                byAuthor = fresh.byAuthor;
+                byPublisher = fresh.byPublisher;
+                byLanguage = fresh.byLanguage;
+                documents = fresh.documents;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuildDeltas = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Catalog search index built: {} books, {} terms in {} ms",
+                documents.size(), terms.size(), System.currentTimeMillis() - started);
+    }
+
+    /** Index (or re-index) a book once the surrounding transaction commits. */
+    public void index(Book book) {
+        if (!enabled) {
+            return;
+        }
+        Document doc = new Document(book.getId(), book.getTitle(), book.getIsbn(),
+                book.getAuthor().getId(), book.getAuthor().getName(),
+                book.getPublisher().getId(), book.getPublisher().getName(),
+                book.getCategory().getId(), book.getLanguage().getId());
+        applyAfterCommit(index -> {
+            index.remove(doc.id());
+            index.add(doc);
+        });
+    }
+
+    /** Drop a book from the index once the surrounding transaction commits. */
+    public void unindex(Long bookId) {
+        if (!enabled) {
+            return;
+        }
+        applyAfterCommit(index -> index.remove(bookId));
+    }
+
+    public void renameAuthor(Long authorId, String name) {
+        rename(authorId, name, true);
+    }
+
+    public void renamePublisher(Long publisherId, String name) {
+        rename(publisherId, name, false);
+    }
+
+    /**
+     * Return the ids of matching books in ascending id order. A blank query matches every
+     * book, so the result is then driven purely by the facet filters.
+     */
+    public List<Long> search(String query, Long category, Long author, Long publisher, Long language) {
+        List<String> queryTokens = tokenizeQuery(query);
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> postings = new ArrayList<>();
+            if (category != null) postings.add(byCategory.getOrDefault(category, Set.of()));
+            if (author != null) postings.add(byAuthor.getOrDefault(author, Set.of()));
+            if (publisher != null) postings.add(byPublisher.getOrDefault(publisher, Set.of()));
+            if (language != null) postings.add(byLanguage.getOrDefault(language, Set.of()));
+            for (String token : queryTokens) {
+                postings.add(prefixPostings(token));
+            }
+
+            if (postings.isEmpty()) {
+                return new ArrayList<>(new TreeSet<>(documents.keySet()));
+            }
+
+            // Intersect starting from the shortest posting list
+            postings.sort(Comparator.comparingInt(Set::size));
+            TreeSet<Long> result = new TreeSet<>(postings.get(0));
+            for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+                result.retainAll(postings.get(i));
+            }
+            return new ArrayList<>(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> prefixPostings(String prefix) {
+        Collection<Set<Long>> matches = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (matches.size() == 1) {
+            return matches.iterator().next();
+        }
+        Set<Long> union = new HashSet<>();
+        for (Set<Long> ids : matches) {
+            union.addAll(ids);
+        }
+        return union;
+    }
+
+    private void rename(Long ownerId, String name, boolean author) {
+        if (!enabled) {
+            return;
+        }
+        applyAfterCommit(index -> {
+            Set<Long> ids = (author ? index.byAuthor : index.byPublisher).getOrDefault(ownerId, Set.of());
+            for (Long id : List.copyOf(ids)) {
+                Document old = index.documents.get(id);
+                index.remove(id);
+                index.add(author
+                        ? new Document(old.id(), old.title(), old.isbn(), old.authorId(), name,
+                                old.publisherId(), old.publisherName(), old.categoryId(), old.languageId())
+                        : new Document(old.id(), old.title(), old.isbn(), old.authorId(), old.authorName(),
+                                old.publisherId(), name, old.categoryId(), old.languageId()));
+            }
+        });
+    }
+
+    // Applies the change to the live index once committed, and keeps it for a rebuild in progress
+    private void applyAfterCommit(Consumer<BookSearchIndex> delta) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                delta.accept(this);
+                if (rebuildDeltas != null) {
+                    rebuildDeltas.add(delta);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Callers must hold the write lock (or own an unpublished instance)
+    private void add(Document doc) {
+        documents.put(doc.id(), doc);
+        for (String token : tokenizeDocument(doc)) {
+            terms.computeIfAbsent(token, k -> new HashSet<>()).add(doc.id());
+        }
+        byCategory.computeIfAbsent(doc.categoryId(), k -> new HashSet<>()).add(doc.id());
+        byAuthor.computeIfAbsent(doc.authorId(), k -> new HashSet<>()).add(doc.id());
+        byPublisher.computeIfAbsent(doc.publisherId(), k -> new HashSet<>()).add(doc.id());
+        byLanguage.computeIfAbsent(doc.languageId(), k -> new HashSet<>()).add(doc.id());
+    }
+
+    private void remove(Long id) {
+        Document doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String token : tokenizeDocument(doc)) {
+            removePosting(terms, token, id);
+        }
+        removePosting(byCategory, doc.categoryId(), id);
+        removePosting(byAuthor, doc.authorId(), id);
+        removePosting(byPublisher, doc.publisherId(), id);
+        removePosting(byLanguage, doc.languageId(), id);
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> postings, K key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> tokenizeDocument(Document doc) {
+        Set<String> tokens = new HashSet<>();
+        tokenize(doc.title(), tokens);
+        tokenize(doc.authorName(), tokens);
+        tokenize(doc.publisherName(), tokens);
+        tokenize(doc.isbn(), tokens);
+        String compactIsbn = compactIsbn(doc.isbn());
+        if (!compactIsbn.isEmpty()) {
+            tokens.add(compactIsbn);
+        }
+        return tokens;
+    }
+
+    static List<String> tokenizeQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        // An ISBN typed with hyphens or spaces is matched against the compact ISBN token
+        String compact = compactIsbn(query);
+        if (compact.length() >= 4 && compact.length() == query.replaceAll("[\\s-]", "").length()) {
+            return List.of(compact);
+        }
+        Set<String> tokens = new HashSet<>();
+        tokenize(query, tokens);
+        return new ArrayList<>(tokens);
+    }
+
+    private static void tokenize(String text, Set<String> into) {
+        if (text == null) {
+            return;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                into.add(token);
+            }
+        }
+    }
+
+    private static String compactIsbn(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        String compact = isbn.toLowerCase(Locale.ROOT).replaceAll("[\\s-]", "");
+        return compact.matches("[0-9]+x?") ? compact : "";
+    }
+}
@@ -2,6 +2,9 @@ package com.sliit.library.service;
  
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -13,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.sliit.library.dto.BookDto.*;
+import com.sliit.library.dto.BookReviewDto.BookReviewSummary;
 import com.sliit.library.exception.ApiException;
 import com.sliit.library.model.ActivityType;
 import com.sliit.library.model.Book;
@@ -36,6 +40,8 @@ public class BookService {
     private final CategoryRepository categoryRepository;
     private final LanguageRepository languageRepository;
     private final BookReviewService bookReviewService;
+    private final BookSearchIndex searchIndex;
+    private final BookRatingStatsService ratingStatsService;
 
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
@@ -43,7 +49,7 @@ public class BookService {
     public BookService(BookRepository repo, ActivityService activityService, CurrentUser currentUser,
             AuthorRepository authorRepository, PublisherRepository publisherRepository,
             CategoryRepository categoryRepository, LanguageRepository languageRepository,
-            BookReviewService bookReviewService) {
+            BookReviewService bookReviewService, BookSearchIndex searchIndex, BookRatingStatsService ratingStatsService) {
         this.repo = repo;
         this.activityService = activityService;
         this.currentUser = currentUser;
@@ -52,6 +58,8 @@ public class BookService {
         this.categoryRepository = categoryRepository;
         this.languageRepository = languageRepository;
         this.bookReviewService = bookReviewService;
+        this.searchIndex = searchIndex;
+        this.ratingStatsService = ratingStatsService;
     }
 
     @Transactional
@@ -77,6 +85,8 @@ public class BookService {
         book.setCreatedAt(LocalDateTime.now());
         book.setUpdatedAt(LocalDateTime.now());
         var saved = repo.save(book);
+        ratingStatsService.initialize(saved.getId());
+        searchIndex.index(saved);
         activityService.log(currentUser.require(), ActivityType.BOOK_CREATED, "Book " + book.getTitle() + " created!");
         return toResponse(saved);
     }
@@ -94,11 +104,9 @@ public class BookService {
     @Transactional(readOnly = true)
     public List<BookSummaryResponse> get(int page, int pageSize) {
         if (page == 0) {
-            var books = repo.findAll();
-            return books.stream().map(this::toSummaryResponse).toList();
+            return toSummaryResponses(repo.findAll());
         }
-        var books = repo.findAll(PageRequest.of(page - 1, pageSize)).getContent();
-        return books.stream().map(this::toSummaryResponse).toList();
+        return toSummaryResponses(repo.findAll(PageRequest.of(page - 1, pageSize)).getContent());
     }
 
     public BookResponse update(Long id, BookUpdateRequest req) {
@@ -134,6 +142,7 @@ public class BookService {
         }
 
         book.setUpdatedAt(LocalDateTime.now());
+        searchIndex.index(book);
 
         activityService.log(currentUser.require(), ActivityType.BOOK_UPDATED, "Book " + book.getTitle() + " updated!");
 
@@ -149,40 +158,68 @@ public class BookService {
         }
 
         repo.delete(book);
+        ratingStatsService.delete(id);
+        searchIndex.unindex(id);
         activityService.log(currentUser.require(), ActivityType.BOOK_DELETED, "Book " + book.getTitle() + " deleted!");
     }
 
     @Transactional(readOnly = true)
     public List<BookSummaryResponse> search(String query, Long category, Long author, Long publisher, Long language, int page, int pageSize) {
+        return search(query, SearchMode.INDEX, category, author, publisher, language, page, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookSummaryResponse> search(String query, SearchMode mode, Long category, Long author, Long publisher, Long language, int page, int pageSize) {
+        if (mode == SearchMode.INDEX && searchIndex.isReady()) {
+            return searchIndexed(query, category, author, publisher, language, page, pageSize);
+        }
         if(page == 0) {
-            var books = repo.search(query, category, author, publisher, language, PageRequest.of(0, Integer.MAX_VALUE));
-            return books.stream().map(this::toSummaryResponse).toList();
+            return toSummaryResponses(repo.search(query, category, author, publisher, language, PageRequest.of(0, Integer.MAX_VALUE)));
         }
-        var books = repo.search(query, category, author, publisher, language, PageRequest.of(page - 1, pageSize));
-        return books.stream().map(this::toSummaryResponse).toList();
+        return toSummaryResponses(repo.search(query, category, author, publisher, language, PageRequest.of(page - 1, pageSize)));
+    }
+
+    private List<BookSummaryResponse> searchIndexed(String query, Long category, Long author, Long publisher, Long language, int page, int pageSize) {
+        List<Long> ids = searchIndex.search(query, category, author, publisher, language);
+        if (page > 0) {
+            int from = (int) Math.min((long) (page - 1) * pageSize, ids.size());
+            ids = ids.subList(from, Math.min(from + pageSize, ids.size()));
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // findAllById does not preserve order, so re-apply the index order
+        Map<Long, Book> books = repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return toSummaryResponses(ids.stream()
+                .map(books::get)
+                .filter(b -> b != null)
+                .toList());
     }
 
     private BookResponse toResponse(Book book) {
         // Get rating information
-        var reviewSummary = bookReviewService.getBookReviewSummary(book.getId());
-        Double averageRating = reviewSummary != null ? reviewSummary.getAverageRating() : 0.0;
-        Long totalReviews = reviewSummary != null ? reviewSummary.getTotalReviews() : 0L;
+        var reviewSummary = bookReviewService.getBookReviewSummaries(List.of(book.getId())).get(book.getId());
 
         return new BookResponse(book.getId(), book.getTitle(), book.getAuthor().getId(), book.getPublisher().getId(), book.getIsbn(),
                 book.getYear(), book.getLanguage().getId(), book.getCategory().getId(), book.getDescription(), book.getCoverImage(),
-                book.getCreatedAt(), book.getUpdatedAt(), averageRating, totalReviews,
+                book.getCreatedAt(), book.getUpdatedAt(), reviewSummary.getAverageRating(), reviewSummary.getTotalReviews(),
                 book.getAuthor().getName(), book.getPublisher().getName(), book.getCategory().getName(), book.getLanguage().getName());
     }
 
-    private BookSummaryResponse toSummaryResponse(Book book) {
-        // Get rating information
-        var reviewSummary = bookReviewService.getBookReviewSummary(book.getId());
-        Double averageRating = reviewSummary != null ? reviewSummary.getAverageRating() : 0.0;
-        Long totalReviews = reviewSummary != null ? reviewSummary.getTotalReviews() : 0L;
+    private List<BookSummaryResponse> toSummaryResponses(List<Book> books) {
+        // Resolve ratings for the whole page in one grouped query instead of per row
+        var reviewSummaries = bookReviewService.getBookReviewSummaries(books.stream().map(Book::getId).toList());
+        return books.stream()
+                .map(book -> toSummaryResponse(book, reviewSummaries.get(book.getId())))
+                .toList();
+    }
 
+    static BookSummaryResponse toSummaryResponse(Book book, BookReviewSummary reviewSummary) {
         return new BookSummaryResponse(book.getId(), book.getTitle(), book.getIsbn(),
                 book.getAuthor().getName(), book.getPublisher().getName(), book.getCategory().getName(), book.getLanguage().getName(),
-                book.getYear(), book.getCoverImage(), averageRating, totalReviews, book.getCreatedAt());
+                book.getYear(), book.getCoverImage(), reviewSummary.getAverageRating(), reviewSummary.getTotalReviews(), book.getCreatedAt());
     }
 
     private boolean deleteImage(String imageUrl) {
@@ -7,6 +7,7 @@ import com.sliit.library.exception.ResourceNotFoundException;
 import com.sliit.library.model.*;
 import com.sliit.library.repository.BookCopyRepository;
 import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.service.LibraryPolicyService.PolicySnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -29,15 +32,18 @@ public class BookTransactionService {
     private final ActivityService activityService;
     private final FineService fineService;
     private final BookRequestService bookRequestService;
+    private final CirculationCounterService circulationCounters;
+    private final OverdueProcessingService overdueProcessing;
+    private final DueDateWheel dueDateWheel;
 
     @Transactional
     public BookTransaction issueBook(User user, BookCopy bookCopy, User issuedBy, String notes) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
 
         // Check if user has reached maximum books limit
         long activeTransactions = transactionRepository.countActiveTransactionsByUser(user);
-        if (activeTransactions >= policy.getMaxBooksPerUser()) {
-            throw new BusinessException("Maximum number of books already checked out (" + policy.getMaxBooksPerUser() + ")");
+        if (activeTransactions >= policy.maxBooksPerUser()) {
+            throw new BusinessException("Maximum number of books already checked out (" + policy.maxBooksPerUser() + ")");
         }
 
         // Check if book copy is available
@@ -56,12 +62,14 @@ public class BookTransactionService {
         transaction.setBookCopy(bookCopy);
         transaction.setStatus(TransactionStatus.ACTIVE);
         transaction.setIssuedAt(LocalDateTime.now());
-        transaction.setDueDate(LocalDateTime.now().plusDays(policy.getBorrowingPeriodDays()));
+        transaction.setDueDate(LocalDateTime.now().plusDays(policy.borrowingPeriodDays()));
         transaction.setIssuedBy(issuedBy);
         transaction.setNotes(notes);
-        transaction.setMaxRenewals(policy.getRenewalLimit());
+        transaction.setMaxRenewals(policy.renewalLimit());
 
         BookTransaction savedTransaction = transactionRepository.save(transaction);
+        circulationCounters.recordIssued(savedTransaction.getIssuedAt(), savedTransaction.getDueDate());
+        dueDateWheel.track(savedTransaction.getId(), savedTransaction.getDueDate());
 
         // Update book copy status
         bookCopy.setStatus(BookStatus.CHECKED_OUT);
@@ -102,7 +110,7 @@ public class BookTransactionService {
             transaction.setOverdueDays((int) overdueDays);
             
             // Create fine for overdue
-            if (overdueDays > policyService.getActivePolicy().getGracePeriodDays()) {
+            if (overdueDays > policyService.current().gracePeriodDays()) {
                 fineService.createOverdueFine(transaction, overdueDays);
             }
         }
@@ -123,6 +131,8 @@ public class BookTransactionService {
 
         BookTransaction savedTransaction = transactionRepository.save(transaction);
         bookCopyRepository.save(bookCopy);
+        circulationCounters.recordReturned(savedTransaction.getReturnedAt(), savedTransaction.getDueDate());
+        dueDateWheel.untrack(savedTransaction.getId());
 
         // Log activity
         activityService.logActivity(transaction.getUser(), ActivityType.BOOK_RETURNED, 
@@ -140,9 +150,9 @@ public class BookTransactionService {
 
     @Transactional
     public BookTransaction renewBook(Long transactionId, User user) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
 
-        if (!policy.getAllowRenewal()) {
+        if (!policy.allowRenewal()) {
             throw new BusinessException("Book renewal is not allowed by library policy");
         }
 
@@ -171,12 +181,16 @@ public class BookTransactionService {
             throw new BusinessException("Cannot renew books while having unpaid fines");
         }
 
+        LocalDateTime previousDueDate = transaction.getDueDate();
         transaction.setRenewalCount(transaction.getRenewalCount() + 1);
         transaction.setLastRenewalDate(LocalDateTime.now());
-        transaction.setDueDate(transaction.getDueDate().plusDays(policy.getBorrowingPeriodDays()));
+        transaction.setDueDate(transaction.getDueDate().plusDays(policy.borrowingPeriodDays()));
         transaction.setStatus(TransactionStatus.RENEWED);
 
         BookTransaction savedTransaction = transactionRepository.save(transaction);
+        circulationCounters.recordRenewed(savedTransaction.getLastRenewalDate(), previousDueDate);
+        // A renewed loan is no longer ACTIVE, so its events no longer apply
+        dueDateWheel.untrack(savedTransaction.getId());
 
         // Log activity
         activityService.logActivity(user, ActivityType.BOOK_RENEWED, 
@@ -189,45 +203,33 @@ public class BookTransactionService {
         return savedTransaction;
     }
 
-    @Transactional
+    // Chunked, one short transaction per chunk; see OverdueProcessingService
     public void processOverdueBooks() {
-        List<BookTransaction> overdueTransactions = transactionRepository.findOverdueTransactions(LocalDateTime.now());
-        
-        for (BookTransaction transaction : overdueTransactions) {
-            if (transaction.getStatus() == TransactionStatus.ACTIVE) {
-                transaction.setStatus(TransactionStatus.OVERDUE);
-                
-                long overdueDays = ChronoUnit.DAYS.between(transaction.getDueDate(), LocalDateTime.now());
-                transaction.setOverdueDays((int) overdueDays);
-                
-                transactionRepository.save(transaction);
-
-                // Create or update fine
-                fineService.updateOverdueFine(transaction, overdueDays);
-
-                // Send overdue notification
-                notificationService.sendOverdueNotification(transaction);
-
-                // Log activity
-                activityService.logActivity(transaction.getUser(), ActivityType.BOOK_OVERDUE, 
-                    "Book overdue: " + transaction.getBookCopy().getBook().getTitle(), 
-                    null, transaction.getBookCopy().getBook().getId(), transaction.getId(), null);
-            }
-        }
+        overdueProcessing.run();
     }
 
+    /** Send due reminders for the given loans that are still ACTIVE and due within the reminder lead. */
     @Transactional
-    public void sendDueReminders() {
-        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
-        LocalDateTime dayAfterTomorrow = LocalDateTime.now().plusDays(2);
-        
-        List<BookTransaction> dueSoonTransactions = transactionRepository.findTransactionsDueBetween(tomorrow, dayAfterTomorrow);
-        
-        for (BookTransaction transaction : dueSoonTransactions) {
-            if (transaction.getStatus() == TransactionStatus.ACTIVE) {
-                notificationService.sendBookDueReminder(transaction);
-            }
+    public int sendDueReminders(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusHours(dueDateWheel.getReminderLeadHours()).plusMinutes(1);
+
+        // Every node's wheel holds the event; the first to claim the loan sends the reminder
+        List<Long> due = transactionRepository.lockPendingDueReminders(transactionIds, now, horizon);
+        if (due.isEmpty()) {
+            return 0;
         }
+        transactionRepository.markDueReminderSent(due, now);
+
+        List<Notification> reminders = new ArrayList<>();
+        for (BookTransaction transaction : transactionRepository.findWithDetailsByIdInAndStatus(due, TransactionStatus.ACTIVE)) {
+            reminders.add(notificationService.dueReminderNotification(transaction));
+        }
+        notificationService.sendAll(reminders);
+        return reminders.size();
     }
 
     private void checkAndFulfillRequests(Book book) {
@@ -285,6 +287,10 @@ public class BookTransactionService {
     @Transactional
     public void markBookAsLost(Long transactionId, User librarian) {
         BookTransaction transaction = getTransactionById(transactionId);
+        if (transaction.getStatus() == TransactionStatus.ACTIVE) {
+            circulationCounters.recordLeftActive(transaction.getDueDate());
+            dueDateWheel.untrack(transaction.getId());
+        }
         
         transaction.setStatus(TransactionStatus.LOST);
         transaction.getBookCopy().setStatus(BookStatus.LOST);
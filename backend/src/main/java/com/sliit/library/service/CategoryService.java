@@ -21,11 +21,14 @@ public class CategoryService {
     private final CategoryRepository repo;
     private final ActivityService activityService;
     private final CurrentUser currentUser;
+    private final ReferenceDataCache referenceDataCache;
 
-    public CategoryService(CategoryRepository repo, ActivityService activityService, CurrentUser currentUser) {
+    public CategoryService(CategoryRepository repo, ActivityService activityService, CurrentUser currentUser,
+            ReferenceDataCache referenceDataCache) {
         this.repo = repo;
         this.activityService = activityService;
         this.currentUser = currentUser;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Transactional
@@ -75,6 +78,7 @@ public class CategoryService {
             category.setName(req.name());
         category.setUpdatedAt(LocalDateTime.now());
 
+        referenceDataCache.evictAfterCommit(Category.class, id);
         activityService.log(currentUser.require(), ActivityType.CATEGORY_UPDATED, "Category " + category.getName() + " updated!");
 
         return toResponse(category);
@@ -83,6 +87,7 @@ public class CategoryService {
     public void delete(Long id) {
         var category = repo.findById(id).orElseThrow(() -> new ApiException("Category not found"));
         repo.delete(category);
+        referenceDataCache.evictAfterCommit(Category.class, id);
         activityService.log(currentUser.require(), ActivityType.CATEGORY_DELETED, "Category " + category.getName() + " deleted!");
     }
 
@@ -0,0 +1,267 @@
+package com.sliit.library.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.FineStatus;
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.repository.FineRepository;
+import com.sliit.library.util.AfterCommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory circulation and fine counters for the dashboards, updated as loans and fines
+ * change and rebuilt from the tables at startup and periodically (which also picks up
+ * writes made by other nodes).
+ * <p>
+ * A rebuild reads every table from one repeatable-read snapshot. Changes committed while
+ * it runs are recorded from just before that snapshot is taken and replayed onto the
+ * rebuilt counters before they replace the live ones, so none are lost. A change whose
+ * commit lands in the instant between the two may be counted twice until the next rebuild.
+ */
+@Slf4j
+@Service
+public class CirculationCounterService {
+
+    // Covers "this month" and "this week" even when the week started last month
+    private static final int RETAINED_DAYS = 40;
+
+    private final BookTransactionRepository transactionRepository;
+    private final FineRepository fineRepository;
+    private final TransactionTemplate snapshotTemplate;
+
+    private volatile Counters counters = new Counters();
+    // Deltas hold the read lock while applied, so the write lock waits for those in flight
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Non-null while a rebuild runs; set and cleared under the write lock
+    private volatile Queue<Consumer<Counters>> rebuildDeltas;
+
+    private static final class Counters {
+        final ConcurrentHashMap<LocalDate, AtomicLong> issuedPerDay = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<LocalDate, AtomicLong> returnedPerDay = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<LocalDate, AtomicLong> renewedPerDay = new ConcurrentHashMap<>();
+        // ACTIVE loans keyed by the day they are due
+        final ConcurrentHashMap<LocalDate, AtomicLong> activeDuePerDay = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<LocalDate, DoubleAdder> fineAmountPerDay = new ConcurrentHashMap<>();
+        final AtomicLong fineCount = new AtomicLong();
+        final DoubleAdder fineAmountTotal = new DoubleAdder();
+        final DoubleAdder fineCollectedTotal = new DoubleAdder();
+    }
+
+    public CirculationCounterService(BookTransactionRepository transactionRepository, FineRepository fineRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.fineRepository = fineRepository;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    /** Recompute every counter from the transactions and fines tables. */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        swapLock.writeLock().lock();
+        try {
+            rebuildDeltas = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            Counters fresh = snapshotTemplate.execute(status -> read());
+            swapLock.writeLock().lock();
+            try {
+                rebuildDeltas.forEach(delta -> delta.accept(fresh));
+                counters = fresh;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                rebuildDeltas = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        log.info("Circulation counters rebuilt in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private Counters read() {
+        LocalDateTime from = LocalDate.now().minusDays(RETAINED_DAYS).atStartOfDay();
+        Counters fresh = new Counters();
+
+        transactionRepository.countIssuedPerDaySince(from)
+                .forEach(row -> fresh.issuedPerDay.put(row.getDay(), new AtomicLong(row.getTotal())));
+        transactionRepository.countReturnedPerDaySince(from)
+                .forEach(row -> fresh.returnedPerDay.put(row.getDay(), new AtomicLong(row.getTotal())));
+        transactionRepository.countRenewedPerDaySince(from)
+                .forEach(row -> fresh.renewedPerDay.put(row.getDay(), new AtomicLong(row.getTotal())));
+        transactionRepository.countActiveDuePerDay()
+                .forEach(row -> fresh.activeDuePerDay.put(row.getDay(), new AtomicLong(row.getTotal())));
+        fineRepository.sumAmountPerDaySince(from).forEach(row -> {
+            DoubleAdder amount = new DoubleAdder();
+            amount.add(row.getTotal());
+            fresh.fineAmountPerDay.put(row.getDay(), amount);
+        });
+        fresh.fineCount.set(fineRepository.count());
+        fresh.fineAmountTotal.add(fineRepository.sumOfAllFines());
+        fresh.fineCollectedTotal.add(fineRepository.sumOfCollectedFines());
+        return fresh;
+    }
+
+    // Loan events
+
+    public void recordIssued(LocalDateTime issuedAt, LocalDateTime dueDate) {
+        applyAfterCommit(c -> {
+            increment(c.issuedPerDay, issuedAt.toLocalDate(), 1);
+            increment(c.activeDuePerDay, dueDate.toLocalDate(), 1);
+        });
+    }
+
+    public void recordReturned(LocalDateTime returnedAt, LocalDateTime dueDate) {
+        applyAfterCommit(c -> {
+            increment(c.returnedPerDay, returnedAt.toLocalDate(), 1);
+            increment(c.activeDuePerDay, dueDate.toLocalDate(), -1);
+        });
+    }
+
+    /** A renewal moves the loan from ACTIVE to RENEWED, so it no longer counts as due. */
+    public void recordRenewed(LocalDateTime renewedAt, LocalDateTime previousDueDate) {
+        applyAfterCommit(c -> {
+            increment(c.renewedPerDay, renewedAt.toLocalDate(), 1);
+            increment(c.activeDuePerDay, previousDueDate.toLocalDate(), -1);
+        });
+    }
+
+    /** An ACTIVE loan went overdue or was marked lost. */
+    public void recordLeftActive(LocalDateTime dueDate) {
+        applyAfterCommit(c -> increment(c.activeDuePerDay, dueDate.toLocalDate(), -1));
+    }
+
+    // Fine events
+
+    public void recordFineCreated(LocalDateTime createdAt, double amount) {
+        applyAfterCommit(c -> {
+            c.fineCount.incrementAndGet();
+            c.fineAmountTotal.add(amount);
+            c.fineAmountPerDay.computeIfAbsent(createdAt.toLocalDate(), k -> new DoubleAdder()).add(amount);
+        });
+    }
+
+    public void recordFineAmountChanged(LocalDateTime createdAt, double delta) {
+        if (delta == 0) {
+            return;
+        }
+        applyAfterCommit(c -> {
+            c.fineAmountTotal.add(delta);
+            c.fineAmountPerDay.computeIfAbsent(createdAt.toLocalDate(), k -> new DoubleAdder()).add(delta);
+        });
+    }
+
+    /**
+     * A fine's paid amount or status changed. Collected fines are the paid amounts of PAID
+     * and PARTIALLY_PAID fines, matching how the dashboard has always reported them.
+     */
+    public void recordFineCollection(FineStatus previousStatus, double previousPaid, FineStatus newStatus, double newPaid) {
+        double delta = collected(newStatus, newPaid) - collected(previousStatus, previousPaid);
+        if (delta == 0) {
+            return;
+        }
+        applyAfterCommit(c -> c.fineCollectedTotal.add(delta));
+    }
+
+    // Reads
+
+    public long issuedSince(LocalDate from) {
+        return sumSince(counters.issuedPerDay, from);
+    }
+
+    public long returnedSince(LocalDate from) {
+        return sumSince(counters.returnedPerDay, from);
+    }
+
+    public long renewedSince(LocalDate from) {
+        return sumSince(counters.renewedPerDay, from);
+    }
+
+    /** ACTIVE loans due on any day between from and to, both inclusive. */
+    public long activeDueBetween(LocalDate from, LocalDate to) {
+        long total = 0;
+        for (Map.Entry<LocalDate, AtomicLong> entry : counters.activeDuePerDay.entrySet()) {
+            if (!entry.getKey().isBefore(from) && !entry.getKey().isAfter(to)) {
+                total += entry.getValue().get();
+            }
+        }
+        return total;
+    }
+
+    public long fineCount() {
+        return counters.fineCount.get();
+    }
+
+    public double fineAmountTotal() {
+        return counters.fineAmountTotal.sum();
+    }
+
+    public double fineCollectedTotal() {
+        return counters.fineCollectedTotal.sum();
+    }
+
+    public double fineAmountSince(LocalDate from) {
+        double total = 0;
+        for (Map.Entry<LocalDate, DoubleAdder> entry : counters.fineAmountPerDay.entrySet()) {
+            if (!entry.getKey().isBefore(from)) {
+                total += entry.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    // Applies the change to the live counters once committed, and keeps it for a rebuild in progress
+    private void applyAfterCommit(Consumer<Counters> delta) {
+        AfterCommit.run(() -> {
+            swapLock.readLock().lock();
+            try {
+                delta.accept(counters);
+                Queue<Consumer<Counters>> pending = rebuildDeltas;
+                if (pending != null) {
+                    pending.add(delta);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static double collected(FineStatus status, double paid) {
+        return status == FineStatus.PAID || status == FineStatus.PARTIALLY_PAID ? paid : 0.0;
+    }
+
+    private static void increment(ConcurrentHashMap<LocalDate, AtomicLong> perDay, LocalDate day, long delta) {
+        perDay.computeIfAbsent(day, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private static long sumSince(ConcurrentHashMap<LocalDate, AtomicLong> perDay, LocalDate from) {
+        long total = 0;
+        for (Map.Entry<LocalDate, AtomicLong> entry : perDay.entrySet()) {
+            if (!entry.getKey().isBefore(from)) {
+                total += entry.getValue().get();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sliit.library.service;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import lombok.RequiredArgsConstructor;
+
+/** Quartz entry point of a {@link ScheduledJob}; never runs twice at once anywhere in the cluster. */
+@DisallowConcurrentExecution
+@RequiredArgsConstructor
+public class ClusteredJob extends QuartzJobBean {
+
+    private final SchedulerService schedulerService;
+    private final JobHistoryService jobHistory;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        ScheduledJob job = ScheduledJob.valueOf(context.getJobDetail().getKey().getName());
+        jobHistory.run(context, null, () -> job.getTask().accept(schedulerService));
+    }
+}
@@ -0,0 +1,73 @@
+package com.sliit.library.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.CronTrigger;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/** Submits one-off work to the clustered Quartz scheduler and reports the jobs' state. */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusteredJobService {
+
+    private final Scheduler scheduler;
+
+    /** Queue one partition job per range; idle nodes across the cluster pick them up. */
+    public void submitOverduePartitions(List<OverdueProcessingService.IdRange> ranges) {
+        long submittedAt = System.currentTimeMillis();
+        try {
+            for (OverdueProcessingService.IdRange range : ranges) {
+                scheduler.scheduleJob(TriggerBuilder.newTrigger()
+                        .forJob(JobKey.jobKey(OverduePartitionJob.NAME))
+                        .withIdentity(OverduePartitionJob.NAME + "-" + range.fromId() + "-" + submittedAt)
+                        .usingJobData(OverduePartitionJob.FROM_ID, range.fromId())
+                        .usingJobData(OverduePartitionJob.TO_ID, range.toId())
+                        .startNow()
+                        .withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+                        .build());
+            }
+        } catch (SchedulerException e) {
+            throw new IllegalStateException("Could not submit overdue partitions", e);
+        }
+    }
+
+    /** Schedule and state of each cluster-wide job. */
+    public List<Map<String, Object>> describeJobs() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (ScheduledJob job : ScheduledJob.values()) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("name", job.name());
+            description.put("catchUp", job.isCatchUp());
+            try {
+                TriggerKey key = TriggerKey.triggerKey(job.name());
+                Trigger trigger = scheduler.getTrigger(key);
+                if (trigger instanceof CronTrigger cron) {
+                    description.put("cron", cron.getCronExpression());
+                }
+                if (trigger != null) {
+                    description.put("state", scheduler.getTriggerState(key).name());
+                    description.put("previousFireTime", trigger.getPreviousFireTime());
+                    description.put("nextFireTime", trigger.getNextFireTime());
+                }
+            } catch (SchedulerException e) {
+                log.warn("Could not read trigger of job {}: {}", job.name(), e.getMessage());
+            }
+            jobs.add(description);
+        }
+        return jobs;
+    }
+}
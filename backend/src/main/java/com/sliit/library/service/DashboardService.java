@@ -1,13 +1,17 @@
 package com.sliit.library.service;
 
+import com.sliit.library.dto.AnalyticsDto.SeriesPoint;
 import com.sliit.library.model.*;
 import com.sliit.library.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,12 +25,14 @@ public class DashboardService {
     private final BookTransactionRepository bookTransactionRepository;
     private final BookRequestRepository bookRequestRepository;
     private final FineRepository fineRepository;
-    private final ActivityRepository activityRepository;
+    private final RecentActivityFeed recentActivities;
     private final BookCopyRepository bookCopyRepository;
     private final CategoryRepository categoryRepository;
     private final AuthorRepository authorRepository;
     private final PublisherRepository publisherRepository;
     private final RequestMetricsService requestMetricsService;
+    private final CirculationCounterService circulationCounters;
+    private final AnalyticsRollupService analyticsRollups;
 
     // Admin Dashboard Methods
     public Map<String, Object> getAdminDashboardStats() {
@@ -43,7 +49,7 @@ public class DashboardService {
         summary.put("totalLanguages", 4); // Hardcoded for now, can be made dynamic
         summary.put("totalTransactions", bookTransactionRepository.count());
         summary.put("activeLoans", bookTransactionRepository.countByStatus(TransactionStatus.ACTIVE));
-        summary.put("availableBooks", bookCopyRepository.findByStatus(BookStatus.AVAILABLE).size());
+        summary.put("availableBooks", bookCopyRepository.countByStatus(BookStatus.AVAILABLE));
         stats.put("summary", summary);
 
         // User Breakdown
@@ -74,43 +80,34 @@ public class DashboardService {
         transactionStatistics.put("completedTransactions", bookTransactionRepository.countByStatus(TransactionStatus.RETURNED));
         transactionStatistics.put("overdueTransactions", bookTransactionRepository.countByStatus(TransactionStatus.OVERDUE));
         transactionStatistics.put("pendingRequests", 0); // Simplified
-        transactionStatistics.put("transactionsThisMonth", 0); // Simplified
-        transactionStatistics.put("transactionsThisWeek", 0); // Simplified
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate firstOfWeek = LocalDate.now().with(java.time.DayOfWeek.MONDAY);
+        transactionStatistics.put("transactionsThisMonth", circulationCounters.issuedSince(firstOfMonth));
+        transactionStatistics.put("transactionsThisWeek", circulationCounters.issuedSince(firstOfWeek));
         transactionStatistics.put("averageLoanDuration", 14.0); // Simplified
         stats.put("transactionStatistics", transactionStatistics);
 
         // Financial Statistics
         Map<String, Object> financialStatistics = new HashMap<>();
 
-        // Calculate total fines (sum of all fine amounts)
-        Double totalFines = fineRepository.findAll().stream()
-                .mapToDouble(Fine::getAmount)
-                .sum();
+        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
+
+        // Fine totals come from the incrementally maintained counters
+        Double totalFines = circulationCounters.fineAmountTotal();
         financialStatistics.put("totalFines", totalFines);
 
         // Calculate outstanding fines (unpaid amounts)
         Double outstandingFines = fineRepository.sumOfPendingFines();
         financialStatistics.put("outstandingFines", outstandingFines);
 
-        // Calculate collected fines (sum of paid amounts)
-        Double collectedFines = fineRepository.findAll().stream()
-                .filter(fine -> fine.getStatus() == FineStatus.PAID || fine.getStatus() == FineStatus.PARTIALLY_PAID)
-                .mapToDouble(Fine::getPaidAmount)
-                .sum();
+        Double collectedFines = circulationCounters.fineCollectedTotal();
         financialStatistics.put("collectedFines", collectedFines);
 
-        // Calculate fines this month
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        Double finesThisMonth = fineRepository.findAll().stream()
-                .filter(fine -> fine.getCreatedAt().isAfter(startOfMonth))
-                .mapToDouble(Fine::getAmount)
-                .sum();
+        Double finesThisMonth = circulationCounters.fineAmountSince(startOfMonth.toLocalDate());
         financialStatistics.put("finesThisMonth", finesThisMonth);
 
-        // Calculate average fine amount
-        List<Fine> allFines = fineRepository.findAll();
-        Double averageFineAmount = allFines.isEmpty() ? 0.0 :
-                allFines.stream().mapToDouble(Fine::getAmount).average().orElse(0.0);
+        long fineCount = circulationCounters.fineCount();
+        Double averageFineAmount = fineCount == 0 ? 0.0 : totalFines / fineCount;
         financialStatistics.put("averageFineAmount", averageFineAmount);
 
         // Total revenue (for now, just collected fines + any other revenue sources)
@@ -127,63 +124,21 @@ public class DashboardService {
         LocalDateTime startOfWeek = now.minusDays(now.getDayOfWeek().getValue() - 1).toLocalDate().atStartOfDay();
         // startOfMonth already declared above in financial statistics section
 
-        // Books issued today
-        long booksIssuedToday = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getIssuedAt() != null && t.getIssuedAt().isAfter(startOfToday))
-                .count();
-        activityMetrics.put("booksIssuedToday", (int) booksIssuedToday);
-
-        // Books returned today
-        long booksReturnedToday = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getReturnedAt() != null && t.getReturnedAt().isAfter(startOfToday))
-                .count();
-        activityMetrics.put("booksReturnedToday", (int) booksReturnedToday);
-
-        // Books issued this week
-        long booksIssuedThisWeek = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getIssuedAt() != null && t.getIssuedAt().isAfter(startOfWeek))
-                .count();
-        activityMetrics.put("booksIssuedThisWeek", (int) booksIssuedThisWeek);
-
-        // Books returned this week
-        long booksReturnedThisWeek = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getReturnedAt() != null && t.getReturnedAt().isAfter(startOfWeek))
-                .count();
-        activityMetrics.put("booksReturnedThisWeek", (int) booksReturnedThisWeek);
-
-        // Books issued this month
-        long booksIssuedThisMonth = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getIssuedAt() != null && t.getIssuedAt().isAfter(startOfMonth))
-                .count();
-        activityMetrics.put("booksIssuedThisMonth", (int) booksIssuedThisMonth);
-
-        // Books returned this month
-        long booksReturnedThisMonth = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getReturnedAt() != null && t.getReturnedAt().isAfter(startOfMonth))
-                .count();
-        activityMetrics.put("booksReturnedThisMonth", (int) booksReturnedThisMonth);
+        // Circulation figures come from the incrementally maintained counters
+        LocalDate today = startOfToday.toLocalDate();
+        activityMetrics.put("booksIssuedToday", (int) circulationCounters.issuedSince(today));
+        activityMetrics.put("booksReturnedToday", (int) circulationCounters.returnedSince(today));
+        activityMetrics.put("booksIssuedThisWeek", (int) circulationCounters.issuedSince(startOfWeek.toLocalDate()));
+        activityMetrics.put("booksReturnedThisWeek", (int) circulationCounters.returnedSince(startOfWeek.toLocalDate()));
+        activityMetrics.put("booksIssuedThisMonth", (int) circulationCounters.issuedSince(startOfMonth.toLocalDate()));
+        activityMetrics.put("booksReturnedThisMonth", (int) circulationCounters.returnedSince(startOfMonth.toLocalDate()));
 
         activityMetrics.put("overdueItems", bookTransactionRepository.countByStatus(TransactionStatus.OVERDUE));
 
-        // Items due today
-        LocalDateTime endOfToday = startOfToday.plusDays(1).minusSeconds(1);
-        long itemsDueToday = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getDueDate() != null &&
-                           t.getDueDate().isAfter(startOfToday) &&
-                           t.getDueDate().isBefore(endOfToday) &&
-                           t.getStatus() == TransactionStatus.ACTIVE)
-                .count();
-        activityMetrics.put("itemsDueToday", (int) itemsDueToday);
-
-        // Items due this week
-        LocalDateTime endOfWeek = startOfWeek.plusDays(7).minusSeconds(1);
-        long itemsDueThisWeek = bookTransactionRepository.findAll().stream()
-                .filter(t -> t.getDueDate() != null &&
-                           t.getDueDate().isAfter(now) &&
-                           t.getDueDate().isBefore(endOfWeek) &&
-                           t.getStatus() == TransactionStatus.ACTIVE)
-                .count();
-        activityMetrics.put("itemsDueThisWeek", (int) itemsDueThisWeek);
+        // Items due today / during the rest of this week
+        LocalDate endOfWeek = startOfWeek.toLocalDate().plusDays(6);
+        activityMetrics.put("itemsDueToday", (int) circulationCounters.activeDueBetween(today, today));
+        activityMetrics.put("itemsDueThisWeek", (int) circulationCounters.activeDueBetween(today, endOfWeek));
 
         stats.put("activityMetrics", activityMetrics);
 
@@ -198,8 +153,8 @@ public class DashboardService {
 
         // Trends
         Map<String, Object> trends = new HashMap<>();
-        trends.put("monthlyLoans", List.of()); // Simplified
-        trends.put("dailyActivity", List.of()); // Simplified
+        trends.put("monthlyLoans", getMonthlyLoans(12));
+        trends.put("dailyActivity", getDailyActivity(7));
         stats.put("trends", trends);
 
         // Top Entities
@@ -228,20 +183,11 @@ public class DashboardService {
         // Recent activity summary (last 7 days)
         LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
 
-        long newUsers = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.USER_CREATED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
+        long newUsers = analyticsRollups.total(weekAgo.toLocalDate(), LocalDate.now(), List.of(RollupMetric.MEMBERS_REGISTERED))
+            .count(RollupMetric.MEMBERS_REGISTERED);
 
-        long booksIssued = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_ISSUED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
-
-        long booksReturned = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_RETURNED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
+        long booksIssued = circulationCounters.issuedSince(weekAgo.toLocalDate());
+        long booksReturned = circulationCounters.returnedSince(weekAgo.toLocalDate());
 
         overview.put("newUsersThisWeek", newUsers);
         overview.put("booksIssuedThisWeek", booksIssued);
@@ -254,14 +200,31 @@ public class DashboardService {
         Map<String, Object> financial = new HashMap<>();
 
         // Fine statistics
-        double totalCollected = 0.0; // Would need payment history
+        double totalCollected = circulationCounters.fineCollectedTotal();
         double outstandingFines = fineRepository.sumOfPendingFines();
-        long totalFines = fineRepository.count();
+        long totalFines = circulationCounters.fineCount();
 
         financial.put("totalCollected", totalCollected);
         financial.put("outstandingFines", outstandingFines);
         financial.put("totalFines", totalFines);
 
+        // Month-to-date flows and the last 30 days of collections from the analytics rollups
+        LocalDate today = LocalDate.now();
+        List<RollupMetric> metrics = List.of(
+            RollupMetric.FINES_CREATED, RollupMetric.FINES_COLLECTED, RollupMetric.PAYMENTS_COMPLETED);
+        SeriesPoint monthToDate = analyticsRollups.total(today.withDayOfMonth(1), today, metrics);
+        List<Map<String, Object>> dailyCollections = new ArrayList<>();
+        for (SeriesPoint day : analyticsRollups.dailySeries(today.minusDays(29), today, metrics)) {
+            dailyCollections.add(Map.of(
+                "date", day.getBucketStart().toLocalDate().toString(),
+                "collected", day.amount(RollupMetric.FINES_COLLECTED),
+                "payments", day.amount(RollupMetric.PAYMENTS_COMPLETED)));
+        }
+        financial.put("finesIssuedThisMonth", monthToDate.amount(RollupMetric.FINES_CREATED));
+        financial.put("collectedThisMonth", monthToDate.amount(RollupMetric.FINES_COLLECTED));
+        financial.put("paymentsThisMonth", monthToDate.amount(RollupMetric.PAYMENTS_COMPLETED));
+        financial.put("dailyCollections", dailyCollections);
+
         return financial;
     }
 
@@ -302,18 +265,9 @@ public class DashboardService {
         stats.put("pendingRequests", pendingRequests);
 
         // Today's activity
-        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime tomorrow = today.plusDays(1);
-
-        long booksIssuedToday = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_ISSUED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(today) && a.getTimestamp().isBefore(tomorrow))
-            .count();
-
-        long booksReturnedToday = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_RETURNED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(today) && a.getTimestamp().isBefore(tomorrow))
-            .count();
+        LocalDate today = LocalDate.now();
+        long booksIssuedToday = circulationCounters.issuedSince(today);
+        long booksReturnedToday = circulationCounters.returnedSince(today);
 
         stats.put("booksIssuedToday", booksIssuedToday);
         stats.put("booksReturnedToday", booksReturnedToday);
@@ -326,7 +280,7 @@ public class DashboardService {
 
         // Current circulation
         long activeLoans = bookTransactionRepository.countByStatus(TransactionStatus.ACTIVE);
-        long availableBooks = bookCopyRepository.findByStatus(BookStatus.AVAILABLE).size();
+        long availableBooks = bookCopyRepository.countByStatus(BookStatus.AVAILABLE);
         long totalCopies = bookCopyRepository.count();
 
         circulation.put("activeLoans", activeLoans);
@@ -371,19 +325,9 @@ public class DashboardService {
         return requests;
     }
 
-    public Map<String, Object> getRecentActivity(int limit) {
+    public Map<String, Object> getRecentActivity(int limit, ActivityType type, ActivitySeverity severity) {
         Map<String, Object> activity = new HashMap<>();
-
-        List<Activity> recentActivities = activityRepository.findAll()
-            .stream()
-            .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-            .limit(limit)
-            .collect(Collectors.toList());
-
-        activity.put("recentActivities", recentActivities.stream()
-            .map(this::mapActivityToSummary)
-            .collect(Collectors.toList()));
-
+        activity.put("recentActivities", recentActivities.recent(Math.max(1, limit), type, severity));
         return activity;
     }
 
@@ -409,21 +353,43 @@ public class DashboardService {
         return item;
     }
 
-    private Map<String, Object> mapActivityToSummary(Activity activity) {
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("id", activity.getId());
-        summary.put("type", activity.getType());
-        summary.put("description", activity.getMessage());
-        summary.put("timestamp", activity.getTimestamp());
-        summary.put("user", activity.getUser() != null ? activity.getUser().getName() : "System");
-        return summary;
+    // Helper methods for comprehensive stats
+    private List<Map<String, Object>> getMonthlyLoans(int months) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.withDayOfMonth(1).minusMonths(months - 1);
+        Map<String, long[]> perMonth = new LinkedHashMap<>();
+        for (SeriesPoint day : analyticsRollups.dailySeries(from, today,
+                List.of(RollupMetric.BOOKS_ISSUED, RollupMetric.BOOKS_RETURNED))) {
+            String month = YearMonth.from(day.getBucketStart()).toString();
+            long[] totals = perMonth.computeIfAbsent(month, k -> new long[2]);
+            totals[0] += day.count(RollupMetric.BOOKS_ISSUED);
+            totals[1] += day.count(RollupMetric.BOOKS_RETURNED);
+        }
+        List<Map<String, Object>> loans = new ArrayList<>();
+        perMonth.forEach((month, totals) -> loans.add(Map.of("month", month, "issued", totals[0], "returned", totals[1])));
+        return loans;
+    }
+
+    private List<Map<String, Object>> getDailyActivity(int days) {
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> activity = new ArrayList<>();
+        for (SeriesPoint day : analyticsRollups.dailySeries(today.minusDays(days - 1), today, List.of(
+                RollupMetric.BOOKS_ISSUED, RollupMetric.BOOKS_RETURNED, RollupMetric.BOOKS_RENEWED,
+                RollupMetric.LOANS_OVERDUE))) {
+            activity.add(Map.of(
+                "date", day.getBucketStart().toLocalDate().toString(),
+                "issued", day.count(RollupMetric.BOOKS_ISSUED),
+                "returned", day.count(RollupMetric.BOOKS_RETURNED),
+                "renewed", day.count(RollupMetric.BOOKS_RENEWED),
+                "overdue", day.count(RollupMetric.LOANS_OVERDUE)));
+        }
+        return activity;
     }
 
-    // Helper methods for comprehensive stats
     private Map<String, Long> getBooksByStatus() {
         Map<String, Long> booksByStatus = new HashMap<>();
         for (BookStatus status : BookStatus.values()) {
-            booksByStatus.put(status.name().toLowerCase(), (long) bookCopyRepository.findByStatus(status).size());
+            booksByStatus.put(status.name().toLowerCase(), bookCopyRepository.countByStatus(status));
         }
         return booksByStatus;
     }
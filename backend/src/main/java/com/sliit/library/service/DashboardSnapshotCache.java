@@ -0,0 +1,157 @@
+package com.sliit.library.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared, TTL-bound snapshots of the dashboard aggregate maps. Concurrent readers of the
+ * same snapshot wait on one computation, stale snapshots are served while a refresh runs
+ * in the background, and {@link #refreshAll()} keeps recently read snapshots warm so that
+ * readers normally never compute one themselves.
+ */
+@Slf4j
+@Service
+public class DashboardSnapshotCache {
+
+    public static final String GENERATED_AT = "snapshotGeneratedAt";
+    public static final String AGE_MS = "snapshotAgeMs";
+
+    @Value("${app.dashboard.snapshot.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.dashboard.snapshot.idle-ms:600000}")
+    private long idleMs;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Snapshot(Map<String, Object> data, LocalDateTime generatedAt, long computedAtMillis) {}
+
+    private static final class Entry {
+        final Supplier<Map<String, Object>> loader;
+        final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+        volatile Snapshot snapshot;
+        volatile long lastReadAt;
+
+        Entry(Supplier<Map<String, Object>> loader) {
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * Return the snapshot stored under key, computing it with loader if there is none yet.
+     * The returned map is a copy carrying the snapshot's generation time and age.
+     */
+    public Map<String, Object> get(String key, Supplier<Map<String, Object>> loader) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry(loader));
+        long now = System.currentTimeMillis();
+        entry.lastReadAt = now;
+
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot == null) {
+            snapshot = await(refresh(key, entry, false));
+        } else if (now - snapshot.computedAtMillis() > ttlMs) {
+            refresh(key, entry, true);
+        }
+        return withAge(snapshot);
+    }
+
+    /** Recompute every snapshot read within the idle window and drop the others. */
+    public void refreshAll() {
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            if (now - entry.lastReadAt > idleMs) {
+                entries.remove(key, entry);
+                return;
+            }
+            try {
+                await(refresh(key, entry, false));
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh dashboard snapshot {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // Starts a computation unless one is already running for this entry, whose result is then shared
+    private CompletableFuture<Snapshot> refresh(String key, Entry entry, boolean async) {
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = entry.inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+
+        Runnable compute = () -> {
+            try {
+                // Age is measured from when the computation started reading the data
+                LocalDateTime generatedAt = LocalDateTime.now();
+                long started = System.currentTimeMillis();
+                Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(entry.loader.get()), generatedAt, started);
+                entry.snapshot = snapshot;
+                mine.complete(snapshot);
+                log.debug("Dashboard snapshot {} computed in {} ms", key, System.currentTimeMillis() - started);
+            } catch (Throwable t) {
+                mine.completeExceptionally(t);
+                if (async) {
+                    log.warn("Background refresh of dashboard snapshot {} failed: {}", key, t.getMessage());
+                }
+            } finally {
+                entry.inFlight.set(null);
+            }
+        };
+        if (async) {
+            try {
+                refresher.execute(compute);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: keep serving the current snapshot
+                entry.inFlight.set(null);
+            }
+        } else {
+            compute.run();
+        }
+        return mine;
+    }
+
+    private static Snapshot await(CompletableFuture<Snapshot> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static Map<String, Object> withAge(Snapshot snapshot) {
+        Map<String, Object> response = new HashMap<>(snapshot.data());
+        response.put(GENERATED_AT, snapshot.generatedAt());
+        response.put(AGE_MS, System.currentTimeMillis() - snapshot.computedAtMillis());
+        return response;
+    }
+}
@@ -0,0 +1,157 @@
+package com.sliit.library.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.util.AfterCommit;
+import com.sliit.library.util.TimingWheel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upcoming due-date events of ACTIVE loans (the due reminder and the overdue transition)
+ * held in a hierarchical timing wheel, so they fire when they fall due instead of being
+ * found by periodic table scans. The wheel is only a schedule: whoever handles a fired
+ * event re-checks the loan, so events for loans that changed meanwhile are harmless.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DueDateWheel {
+
+    private static final int LOAD_CHUNK_SIZE = 5000;
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 60;
+
+    private final BookTransactionRepository transactionRepository;
+
+    @Value("${app.due-wheel.reminder-lead-hours:24}")
+    private long reminderLeadHours;
+
+    // Guarded by this; loading is non-null while load() builds a replacement wheel
+    private TimingWheel<DueEvent> wheel = newWheel();
+    private TimingWheel<DueEvent> loading;
+
+    public enum Kind { REMINDER, OVERDUE }
+
+    public record DueEvent(long transactionId, Kind kind) {}
+
+    /** Events that fell due, split by kind. */
+    public record DueEvents(List<Long> reminders, List<Long> overdue) {
+        public boolean isEmpty() {
+            return reminders.isEmpty() && overdue.isEmpty();
+        }
+    }
+
+    /** Rebuild the wheel from the ACTIVE loans, reading them in id-ordered chunks. */
+    public void load() {
+        long started = System.currentTimeMillis();
+        TimingWheel<DueEvent> fresh = newWheel();
+        synchronized (this) {
+            loading = fresh;
+        }
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<BookTransactionRepository.DueRow> rows =
+                        transactionRepository.findActiveDueDatesAfter(afterId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+                synchronized (this) {
+                    for (BookTransactionRepository.DueRow row : rows) {
+                        schedule(fresh, row.getId(), row.getDueDate(), row.getDueReminderSentAt() == null,
+                                System.currentTimeMillis());
+                    }
+                }
+                if (rows.size() < LOAD_CHUNK_SIZE) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            synchronized (this) {
+                wheel = fresh;
+            }
+        } finally {
+            synchronized (this) {
+                loading = null;
+            }
+        }
+        log.info("Due-date wheel loaded: {} events in {} ms", size(), System.currentTimeMillis() - started);
+    }
+
+    /** Schedule a newly issued loan's events once the surrounding transaction commits. */
+    public void track(Long transactionId, LocalDateTime dueDate) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                schedule(wheel, transactionId, dueDate, true, now);
+                if (loading != null) {
+                    schedule(loading, transactionId, dueDate, true, now);
+                }
+            }
+        });
+    }
+
+    /** Drop a loan's events once the surrounding transaction commits. */
+    public void untrack(Long transactionId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                cancel(wheel, transactionId);
+                if (loading != null) {
+                    cancel(loading, transactionId);
+                }
+            }
+        });
+    }
+
+    /** Advance the wheel to now; costs the number of events that fell due. */
+    public synchronized DueEvents poll() {
+        List<Long> reminders = new ArrayList<>();
+        List<Long> overdue = new ArrayList<>();
+        for (DueEvent event : wheel.advance(System.currentTimeMillis())) {
+            (event.kind() == Kind.REMINDER ? reminders : overdue).add(event.transactionId());
+        }
+        return new DueEvents(reminders, overdue);
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    public long getReminderLeadHours() {
+        return reminderLeadHours;
+    }
+
+    private void schedule(TimingWheel<DueEvent> target, long transactionId, LocalDateTime dueDate,
+                          boolean reminderPending, long now) {
+        long due = toMillis(dueDate);
+        long remindAt = toMillis(dueDate.minusHours(reminderLeadHours));
+        // An unsent reminder is still useful until the loan falls due; one whose moment has
+        // already passed (loaded after downtime, or a loan shorter than the lead) fires at once
+        if (reminderPending && due > now) {
+            target.schedule(new DueEvent(transactionId, Kind.REMINDER), remindAt);
+        } else {
+            target.cancel(new DueEvent(transactionId, Kind.REMINDER));
+        }
+        target.schedule(new DueEvent(transactionId, Kind.OVERDUE), due);
+    }
+
+    private static void cancel(TimingWheel<DueEvent> target, long transactionId) {
+        target.cancel(new DueEvent(transactionId, Kind.REMINDER));
+        target.cancel(new DueEvent(transactionId, Kind.OVERDUE));
+    }
+
+    private static TimingWheel<DueEvent> newWheel() {
+        return new TimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -5,12 +5,16 @@ import com.sliit.library.exception.BusinessException;
 import com.sliit.library.exception.ResourceNotFoundException;
 import com.sliit.library.model.*;
 import com.sliit.library.repository.FineRepository;
+import com.sliit.library.service.LibraryPolicyService.PolicySnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,30 +25,23 @@ public class FineService {
     private final LibraryPolicyService policyService;
     private final NotificationService notificationService;
     private final ActivityService activityService;
+    private final CirculationCounterService circulationCounters;
 
     @Transactional
     public Fine createOverdueFine(BookTransaction transaction, long overdueDays) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
         
         // Calculate fine amount (excluding grace period)
-        long fineableDays = Math.max(0, overdueDays - policy.getGracePeriodDays());
-        double fineAmount = Math.min(fineableDays * policy.getFinePerDayOverdue(), policy.getMaxFineAmount());
+        double fineAmount = overdueFineAmount(policy, overdueDays);
         
         if (fineAmount <= 0) {
             return null; // No fine if within grace period
         }
 
-        Fine fine = new Fine();
-        fine.setUser(transaction.getUser());
-        fine.setTransaction(transaction);
-        fine.setType(FineType.OVERDUE);
-        fine.setAmount(fineAmount);
-        fine.setDescription(String.format("Overdue fine for book '%s' - %d days overdue", 
-            transaction.getBookCopy().getBook().getTitle(), overdueDays));
-        fine.setCreatedBy(transaction.getIssuedBy()); // System created
-        fine.setStatus(FineStatus.PENDING);
+        Fine fine = newOverdueFine(transaction, overdueDays, fineAmount);
 
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCreated(savedFine.getCreatedAt(), savedFine.getAmount());
 
         // Update transaction fine amount
         transaction.setFineAmount(fineAmount);
@@ -63,23 +60,16 @@ public class FineService {
     @Transactional
     public Fine updateOverdueFine(BookTransaction transaction, long overdueDays) {
         // Try to find existing overdue fine for this transaction
-        Optional<Fine> existingFine = fineRepository.findByUserAndStatus(transaction.getUser(), FineStatus.PENDING)
-            .stream()
-            .filter(f -> f.getTransaction() != null && f.getTransaction().getId().equals(transaction.getId()))
-            .filter(f -> f.getType() == FineType.OVERDUE)
-            .findFirst();
+        Optional<Fine> existingFine = fineRepository.findFirstByTransactionIdAndTypeAndStatus(
+            transaction.getId(), FineType.OVERDUE, FineStatus.PENDING);
 
         if (existingFine.isPresent()) {
             // Update existing fine
             Fine fine = existingFine.get();
-            LibraryPolicy policy = policyService.getActivePolicy();
+            PolicySnapshot policy = policyService.current();
             
-            long fineableDays = Math.max(0, overdueDays - policy.getGracePeriodDays());
-            double newFineAmount = Math.min(fineableDays * policy.getFinePerDayOverdue(), policy.getMaxFineAmount());
-            
-            fine.setAmount(newFineAmount);
-            fine.setDescription(String.format("Overdue fine for book '%s' - %d days overdue (Updated)", 
-                transaction.getBookCopy().getBook().getTitle(), overdueDays));
+            double newFineAmount = overdueFineAmount(policy, overdueDays);
+            updateOverdueFineAmount(fine, transaction, overdueDays, newFineAmount);
 
             Fine savedFine = fineRepository.save(fine);
             transaction.setFineAmount(newFineAmount);
@@ -91,14 +81,81 @@ public class FineService {
         }
     }
 
+    /** Fines touched by {@link #applyOverdueFines}: the ones created and how many were updated. */
+    public record OverdueFines(List<Fine> created, int updated) {}
+
+    /**
+     * Create or update the overdue fines of a batch of transactions, looking up their pending
+     * overdue fines with one query. Activities and notices for the created fines are left to
+     * the caller so they can be written in batches too.
+     */
+    @Transactional
+    public OverdueFines applyOverdueFines(List<BookTransaction> transactions, Map<Long, Long> overdueDaysByTransaction) {
+        if (transactions.isEmpty()) {
+            return new OverdueFines(List.of(), 0);
+        }
+        PolicySnapshot policy = policyService.current();
+        Map<Long, Fine> pending = new HashMap<>();
+        for (Fine fine : fineRepository.findByTransactionIdInAndTypeAndStatus(
+                overdueDaysByTransaction.keySet(), FineType.OVERDUE, FineStatus.PENDING)) {
+            pending.putIfAbsent(fine.getTransaction().getId(), fine);
+        }
+
+        List<Fine> created = new ArrayList<>();
+        int updated = 0;
+        for (BookTransaction transaction : transactions) {
+            long overdueDays = overdueDaysByTransaction.get(transaction.getId());
+            double fineAmount = overdueFineAmount(policy, overdueDays);
+            Fine existing = pending.get(transaction.getId());
+            if (existing != null) {
+                updateOverdueFineAmount(existing, transaction, overdueDays, fineAmount);
+                transaction.setFineAmount(fineAmount);
+                updated++;
+            } else if (fineAmount > 0) {
+                created.add(newOverdueFine(transaction, overdueDays, fineAmount));
+                transaction.setFineAmount(fineAmount);
+            }
+        }
+
+        fineRepository.saveAll(created);
+        created.forEach(fine -> circulationCounters.recordFineCreated(fine.getCreatedAt(), fine.getAmount()));
+        return new OverdueFines(created, updated);
+    }
+
+    private static double overdueFineAmount(PolicySnapshot policy, long overdueDays) {
+        long fineableDays = Math.max(0, overdueDays - policy.gracePeriodDays());
+        return Math.min(fineableDays * policy.finePerDayOverdue(), policy.maxFineAmount());
+    }
+
+    private static Fine newOverdueFine(BookTransaction transaction, long overdueDays, double fineAmount) {
+        Fine fine = new Fine();
+        fine.setUser(transaction.getUser());
+        fine.setTransaction(transaction);
+        fine.setType(FineType.OVERDUE);
+        fine.setAmount(fineAmount);
+        fine.setDescription(String.format("Overdue fine for book '%s' - %d days overdue", 
+            transaction.getBookCopy().getBook().getTitle(), overdueDays));
+        fine.setCreatedBy(transaction.getIssuedBy()); // System created
+        fine.setStatus(FineStatus.PENDING);
+        return fine;
+    }
+
+    private void updateOverdueFineAmount(Fine fine, BookTransaction transaction, long overdueDays, double newFineAmount) {
+        double previousAmount = fine.getAmount();
+        fine.setAmount(newFineAmount);
+        fine.setDescription(String.format("Overdue fine for book '%s' - %d days overdue (Updated)", 
+            transaction.getBookCopy().getBook().getTitle(), overdueDays));
+        circulationCounters.recordFineAmountChanged(fine.getCreatedAt(), newFineAmount - previousAmount);
+    }
+
     @Transactional
     public Fine createDamagedBookFine(BookTransaction transaction, BookCondition condition) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
         
         // Calculate fine based on book value (assuming we have book price)
         // For now, use a percentage of a standard book price
         double standardBookPrice = 50.0; // This should ideally come from book entity
-        double fineAmount = standardBookPrice * (policy.getDamagedBookFinePercentage() / 100.0);
+        double fineAmount = standardBookPrice * (policy.damagedBookFinePercentage() / 100.0);
 
         Fine fine = new Fine();
         fine.setUser(transaction.getUser());
@@ -111,6 +168,7 @@ public class FineService {
         fine.setStatus(FineStatus.PENDING);
 
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCreated(savedFine.getCreatedAt(), savedFine.getAmount());
 
         // Log activity
         activityService.logActivity(transaction.getUser(), ActivityType.BOOK_DAMAGED, 
@@ -125,11 +183,11 @@ public class FineService {
 
     @Transactional
     public Fine createLostBookFine(BookTransaction transaction) {
-        LibraryPolicy policy = policyService.getActivePolicy();
+        PolicySnapshot policy = policyService.current();
         
         // Calculate fine based on book value
         double standardBookPrice = 50.0; // This should ideally come from book entity
-        double fineAmount = standardBookPrice * (policy.getLostBookFinePercentage() / 100.0);
+        double fineAmount = standardBookPrice * (policy.lostBookFinePercentage() / 100.0);
 
         Fine fine = new Fine();
         fine.setUser(transaction.getUser());
@@ -142,6 +200,7 @@ public class FineService {
         fine.setStatus(FineStatus.PENDING);
 
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCreated(savedFine.getCreatedAt(), savedFine.getAmount());
 
         // Log activity
         activityService.logActivity(transaction.getUser(), ActivityType.FINE_CREATED, 
@@ -165,6 +224,7 @@ public class FineService {
         fine.setStatus(FineStatus.PENDING);
 
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCreated(savedFine.getCreatedAt(), savedFine.getAmount());
 
         // Log activity
         activityService.logActivity(user, ActivityType.FINE_CREATED, 
@@ -186,6 +246,8 @@ public class FineService {
             throw new BusinessException("Fine is already paid");
         }
 
+        FineStatus previousStatus = fine.getStatus();
+        double previousPaidAmount = fine.getPaidAmount();
         double newPaidAmount = fine.getPaidAmount() + amount;
         fine.setPaidAmount(newPaidAmount);
 
@@ -198,6 +260,7 @@ public class FineService {
 
         fine.setPaymentReference(paymentReference);
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCollection(previousStatus, previousPaidAmount, savedFine.getStatus(), newPaidAmount);
 
         // Update transaction if applicable
         if (fine.getTransaction() != null) {
@@ -220,10 +283,12 @@ public class FineService {
             throw new BusinessException("Cannot waive a paid fine");
         }
 
+        FineStatus previousStatus = fine.getStatus();
         fine.setStatus(FineStatus.WAIVED);
         fine.setDescription(fine.getDescription() + " - WAIVED: " + reason);
         fine.setReceivedBy(waivedBy);
         Fine savedFine = fineRepository.save(fine);
+        circulationCounters.recordFineCollection(previousStatus, fine.getPaidAmount(), FineStatus.WAIVED, fine.getPaidAmount());
 
         // Update transaction if applicable
         if (fine.getTransaction() != null) {
@@ -0,0 +1,95 @@
+package com.sliit.library.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sliit.library.model.JobExecution;
+import com.sliit.library.model.JobExecutionStatus;
+import com.sliit.library.repository.JobExecutionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs cluster-scheduled jobs and keeps one history row per run. A failing job is logged
+ * and recorded rather than rethrown, so Quartz simply waits for its next fire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobHistoryService {
+
+    private static final int MAX_HISTORY = 500;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JobExecutionRepository jobExecutionRepository;
+
+    @Value("${app.jobs.history-retention-days:30}")
+    private int retentionDays;
+
+    public void run(JobExecutionContext context, String partitionLabel, Runnable task) {
+        String jobName = context.getJobDetail().getKey().getName();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        JobExecutionStatus status = JobExecutionStatus.SUCCEEDED;
+        String error = null;
+        try {
+            task.run();
+        } catch (Exception e) {
+            status = JobExecutionStatus.FAILED;
+            error = e.toString();
+            log.error("Scheduled job {}{} failed", jobName, partitionLabel != null ? " [" + partitionLabel + "]" : "", e);
+        }
+
+        try {
+            jobExecutionRepository.save(JobExecution.builder()
+                    .jobName(jobName)
+                    .partitionLabel(partitionLabel)
+                    .instanceId(instanceId(context))
+                    .scheduledAt(toLocal(context.getScheduledFireTime()))
+                    .startedAt(startedAt)
+                    .finishedAt(LocalDateTime.now())
+                    .durationMs(System.currentTimeMillis() - started)
+                    .status(status)
+                    .recovering(context.isRecovering())
+                    .errorMessage(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Could not record execution of job {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    /** Most recent runs, of one job or of all jobs when jobName is null. */
+    public List<JobExecution> recent(String jobName, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_HISTORY)));
+        return jobName == null
+                ? jobExecutionRepository.findAllByOrderByStartedAtDescIdDesc(page)
+                : jobExecutionRepository.findByJobNameOrderByStartedAtDescIdDesc(jobName, page);
+    }
+
+    @Transactional
+    public int prune() {
+        return jobExecutionRepository.deleteStartedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private static String instanceId(JobExecutionContext context) {
+        try {
+            return context.getScheduler().getSchedulerInstanceId();
+        } catch (SchedulerException e) {
+            return "unknown";
+        }
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
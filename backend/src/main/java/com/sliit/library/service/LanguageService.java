@@ -20,11 +20,14 @@ public class LanguageService {
     private final LanguageRepository repo;
     private final ActivityService activityService;
     private final CurrentUser currentUser;
+    private final ReferenceDataCache referenceDataCache;
 
-    public LanguageService(LanguageRepository repo, ActivityService activityService, CurrentUser currentUser) {
+    public LanguageService(LanguageRepository repo, ActivityService activityService, CurrentUser currentUser,
+            ReferenceDataCache referenceDataCache) {
         this.repo = repo;
         this.activityService = activityService;
         this.currentUser = currentUser;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Transactional
@@ -85,6 +88,7 @@ public class LanguageService {
             language.setCode(req.code());
         }
 
+        referenceDataCache.evictAfterCommit(Language.class, id);
         activityService.log(currentUser.require(), ActivityType.LANGUAGE_UPDATED, "Language " + language.getName() + " updated!");
 
         return toResponse(language);
@@ -93,6 +97,7 @@ public class LanguageService {
     public void delete(Long id) {
         var language = repo.findById(id).orElseThrow(() -> new ApiException("Language not found"));
         repo.delete(language);
+        referenceDataCache.evictAfterCommit(Language.class, id);
         activityService.log(currentUser.require(), ActivityType.LANGUAGE_DELETED, "Language " + language.getName() + " deleted!");
     }
 
@@ -6,20 +6,55 @@ import com.sliit.library.model.LibraryPolicy;
 import com.sliit.library.model.PolicyStatus;
 import com.sliit.library.model.User;
 import com.sliit.library.repository.LibraryPolicyRepository;
+import com.sliit.library.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Library policies. The active one is also held as an immutable {@link PolicySnapshot} that
+ * hot paths read without a query: it is replaced after activatePolicy or updatePolicy commit
+ * on this node, and {@link #refreshIfChanged()} picks up changes made on other nodes.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class LibraryPolicyService {
 
     private final LibraryPolicyRepository policyRepository;
 
+    private final AtomicLong versions = new AtomicLong();
+    private volatile PolicySnapshot snapshot;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /** Values of the active policy; version increases each time the snapshot is replaced. */
+    public record PolicySnapshot(long version, Long policyId, String policyName, LocalDateTime updatedAt,
+                                 Integer maxBooksPerUser, Integer borrowingPeriodDays, Integer renewalLimit,
+                                 Integer gracePeriodDays, Double finePerDayOverdue, Double maxFineAmount,
+                                 Double damagedBookFinePercentage, Double lostBookFinePercentage,
+                                 Integer maxRequestsPerUser, Integer requestExpiryDays, Boolean allowRenewal,
+                                 Boolean allowRequests, Boolean emailNotifications, Boolean smsNotifications) {
+
+        static PolicySnapshot of(long version, LibraryPolicy policy) {
+            return new PolicySnapshot(version, policy.getId(), policy.getPolicyName(), policy.getUpdatedAt(),
+                    policy.getMaxBooksPerUser(), policy.getBorrowingPeriodDays(), policy.getRenewalLimit(),
+                    policy.getGracePeriodDays(), policy.getFinePerDayOverdue(), policy.getMaxFineAmount(),
+                    policy.getDamagedBookFinePercentage(), policy.getLostBookFinePercentage(),
+                    policy.getMaxRequestsPerUser(), policy.getRequestExpiryDays(), policy.getAllowRenewal(),
+                    policy.getAllowRequests(), policy.getEmailNotifications(), policy.getSmsNotifications());
+        }
+    }
+
     @Value("${library.default.borrowing.period.days:14}")
     private int defaultBorrowingPeriodDays;
 
@@ -35,6 +70,51 @@ public class LibraryPolicyService {
     @Value("${library.default.max.fine.amount:50.0}")
     private double defaultMaxFineAmount;
 
+    /** The active policy; loaded on first use, then served from memory. */
+    public PolicySnapshot current() {
+        PolicySnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            return snapshot != null ? snapshot : reload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /** Reload the snapshot if the active policy in the database is not the one it was taken from. */
+    public void refreshIfChanged() {
+        PolicySnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<LibraryPolicyRepository.PolicyStamp> stamps = policyRepository.findActiveStamp(PageRequest.of(0, 1));
+        if (stamps.isEmpty()
+                || !stamps.get(0).getId().equals(current.policyId())
+                || !Objects.equals(stamps.get(0).getUpdatedAt(), current.updatedAt())) {
+            PolicySnapshot fresh = reload();
+            log.info("Library policy snapshot reloaded: {} (version {})", fresh.policyName(), fresh.version());
+        }
+    }
+
+    private PolicySnapshot reload() {
+        reloadLock.lock();
+        try {
+            PolicySnapshot fresh = PolicySnapshot.of(versions.incrementAndGet(), getActivePolicy());
+            snapshot = fresh;
+            return fresh;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Swap in the policy's values once the surrounding transaction has committed them
+    private void publishAfterCommit(LibraryPolicy policy) {
+        AfterCommit.run(() -> snapshot = PolicySnapshot.of(versions.incrementAndGet(), policy));
+    }
+
     public LibraryPolicy getActivePolicy() {
         return policyRepository.findActivePolicy()
                 .orElseGet(this::createDefaultPolicy);
@@ -105,7 +185,11 @@ public class LibraryPolicyService {
         existingPolicy.setEmailNotifications(updatedPolicy.getEmailNotifications());
         existingPolicy.setSmsNotifications(updatedPolicy.getSmsNotifications());
 
-        return policyRepository.save(existingPolicy);
+        LibraryPolicy saved = policyRepository.saveAndFlush(existingPolicy);
+        if (saved.getStatus() == PolicyStatus.ACTIVE) {
+            publishAfterCommit(saved);
+        }
+        return saved;
     }
 
     @Transactional
@@ -121,7 +205,7 @@ public class LibraryPolicyService {
         LibraryPolicy policy = policyRepository.findById(policyId)
                 .orElseThrow(() -> new RuntimeException("Policy not found"));
         policy.setStatus(PolicyStatus.ACTIVE);
-        policyRepository.save(policy);
+        publishAfterCommit(policyRepository.saveAndFlush(policy));
     }
 
     public List<LibraryPolicy> getAllPolicies() {
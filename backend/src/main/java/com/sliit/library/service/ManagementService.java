@@ -1,14 +1,16 @@
 package com.sliit.library.service;
 
-import com.sliit.library.model.ActivityType;
+import com.sliit.library.dto.AnalyticsDto.SeriesPoint;
 import com.sliit.library.model.BookStatus;
 import com.sliit.library.model.RequestStatus;
+import com.sliit.library.model.RollupMetric;
 import com.sliit.library.model.TransactionStatus;
 import com.sliit.library.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,7 +28,7 @@ public class ManagementService {
     private final BookRequestRepository bookRequestRepository;
     private final FineRepository fineRepository;
     private final BookCopyRepository bookCopyRepository;
-    private final ActivityRepository activityRepository;
+    private final AnalyticsRollupService analyticsRollups;
 
 
     public Map<String, Object> getDashboardStats() {
@@ -65,7 +67,7 @@ public class ManagementService {
         stats.put("totalPublishers", publisherRepository.count());
 
         // Real book availability data
-        long availableCopies = bookCopyRepository.findByStatus(BookStatus.AVAILABLE).size();
+        long availableCopies = bookCopyRepository.countByStatus(BookStatus.AVAILABLE);
         stats.put("availableBooks", availableCopies);
         stats.put("totalMembers", userRepository.count()); // All users are members
 
@@ -87,36 +89,17 @@ public class ManagementService {
     public Map<String, Object> getActivityStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        // Real activity data from the last 7 days
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-
-        // Count different activity types
-        long booksIssued = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_ISSUED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
-
-        long booksReturned = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_RETURNED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
-
-        long newMembers = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.USER_CREATED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
-
-        long newRequests = activityRepository.findByTypeOrderByTimestampDesc(ActivityType.BOOK_REQUESTED)
-            .stream()
-            .filter(a -> a.getTimestamp().isAfter(weekAgo))
-            .count();
-
-        // Calculate fines collected (this would need payment tracking)
-        stats.put("booksIssued", booksIssued);
-        stats.put("booksReturned", booksReturned);
-        stats.put("newMembers", newMembers);
-        stats.put("newRequests", newRequests);
-        stats.put("finesCollected", 0.0); // Would need payment history
+        // Activity from the last 7 days, summed from the daily rollups
+        LocalDate today = LocalDate.now();
+        SeriesPoint week = analyticsRollups.total(today.minusDays(6), today, List.of(
+            RollupMetric.BOOKS_ISSUED, RollupMetric.BOOKS_RETURNED, RollupMetric.MEMBERS_REGISTERED,
+            RollupMetric.REQUESTS_PLACED, RollupMetric.FINES_COLLECTED));
+
+        stats.put("booksIssued", week.count(RollupMetric.BOOKS_ISSUED));
+        stats.put("booksReturned", week.count(RollupMetric.BOOKS_RETURNED));
+        stats.put("newMembers", week.count(RollupMetric.MEMBERS_REGISTERED));
+        stats.put("newRequests", week.count(RollupMetric.REQUESTS_PLACED));
+        stats.put("finesCollected", week.amount(RollupMetric.FINES_COLLECTED));
 
         return stats;
     }
@@ -210,43 +193,30 @@ public class ManagementService {
 
     public Map<String, Object> getChartData() {
         Map<String, Object> chartData = new HashMap<>();
-        
-        // Mock transaction chart data
-        List<Map<String, Object>> transactionData = Arrays.asList(
-            Map.of("date", "2025-09-15", "checkouts", 5, "returns", 3),
-            Map.of("date", "2025-09-16", "checkouts", 8, "returns", 6),
-            Map.of("date", "2025-09-17", "checkouts", 3, "returns", 7),
-            Map.of("date", "2025-09-18", "checkouts", 6, "returns", 4),
-            Map.of("date", "2025-09-19", "checkouts", 9, "returns", 8),
-            Map.of("date", "2025-09-20", "checkouts", 4, "returns", 5),
-            Map.of("date", "2025-09-21", "checkouts", 7, "returns", 6)
-        );
+
+        // Last 7 days of every series come from one query against the daily rollups
+        LocalDate today = LocalDate.now();
+        List<SeriesPoint> days = analyticsRollups.dailySeries(today.minusDays(6), today, List.of(
+            RollupMetric.BOOKS_ISSUED, RollupMetric.BOOKS_RETURNED,
+            RollupMetric.MEMBERS_REGISTERED, RollupMetric.FINES_COLLECTED));
+
+        List<Map<String, Object>> transactionData = new ArrayList<>();
+        List<Map<String, Object>> userRegistrationData = new ArrayList<>();
+        List<Map<String, Object>> fineData = new ArrayList<>();
+        for (SeriesPoint day : days) {
+            String date = day.getBucketStart().toLocalDate().toString();
+            transactionData.add(Map.of("date", date,
+                "checkouts", day.count(RollupMetric.BOOKS_ISSUED),
+                "returns", day.count(RollupMetric.BOOKS_RETURNED)));
+            userRegistrationData.add(Map.of("date", date,
+                "registrations", day.count(RollupMetric.MEMBERS_REGISTERED)));
+            fineData.add(Map.of("date", date,
+                "amount", day.amount(RollupMetric.FINES_COLLECTED)));
+        }
         chartData.put("transactionData", transactionData);
-        
-        // Mock user registration chart data
-        List<Map<String, Object>> userRegistrationData = Arrays.asList(
-            Map.of("date", "2025-09-15", "registrations", 2),
-            Map.of("date", "2025-09-16", "registrations", 1),
-            Map.of("date", "2025-09-17", "registrations", 3),
-            Map.of("date", "2025-09-18", "registrations", 0),
-            Map.of("date", "2025-09-19", "registrations", 2),
-            Map.of("date", "2025-09-20", "registrations", 1),
-            Map.of("date", "2025-09-21", "registrations", 1)
-        );
         chartData.put("userRegistrationData", userRegistrationData);
-        
-        // Mock fine collection chart data
-        List<Map<String, Object>> fineData = Arrays.asList(
-            Map.of("date", "2025-09-15", "amount", 25.50),
-            Map.of("date", "2025-09-16", "amount", 15.75),
-            Map.of("date", "2025-09-17", "amount", 30.00),
-            Map.of("date", "2025-09-18", "amount", 12.25),
-            Map.of("date", "2025-09-19", "amount", 18.50),
-            Map.of("date", "2025-09-20", "amount", 22.75),
-            Map.of("date", "2025-09-21", "amount", 16.25)
-        );
         chartData.put("fineData", fineData);
-        
+
         return chartData;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,409 @@
+package com.sliit.library.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.Notification;
+import com.sliit.library.model.NotificationChannel;
+import com.sliit.library.model.NotificationStatus;
+import com.sliit.library.repository.NotificationRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers the notification outbox. Business transactions only insert PENDING rows and wake
+ * the dispatcher after commit; a coordinator thread then claims due rows per channel (locked
+ * and leased, so each row goes to one dispatcher in the cluster) and hands each channel's
+ * batch to a worker, so a slow mail server never holds up in-app delivery. Failed deliveries
+ * are retried with exponential backoff until the notification runs out of retries.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    private final NotificationRepository notificationRepository;
+    private final LibraryPolicyService policyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Autowired(required = false)
+    private WebSocketNotificationService webSocketService;
+
+    @Value("${app.notifications.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.dispatcher.threads:4}")
+    private int threads;
+
+    @Value("${app.notifications.dispatcher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.notifications.dispatcher.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    // How long a claimed batch is reserved before another dispatcher may take it over
+    @Value("${app.notifications.dispatcher.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.notifications.retry.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${app.notifications.retry.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.notifications.mail-from:noreply@library.com}")
+    private String mailFrom;
+
+    private final Map<NotificationChannel, ChannelMetrics> metrics = new EnumMap<>(NotificationChannel.class);
+    private final Set<NotificationChannel> busyChannels = ConcurrentHashMap.newKeySet();
+    private final Object signal = new Object();
+    private boolean wakeRequested;
+    private volatile boolean running;
+    private ExecutorService workers;
+    private Thread coordinator;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository, LibraryPolicyService policyService,
+                                  TransactionTemplate transactionTemplate) {
+        this.notificationRepository = notificationRepository;
+        this.policyService = policyService;
+        this.transactionTemplate = transactionTemplate;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            metrics.put(channel, new ChannelMetrics());
+        }
+    }
+
+    /** Delivery counters of one channel plus its outbox backlog. */
+    public record ChannelStats(NotificationChannel channel, long sent, long failed, long skipped, long batches,
+                               long sentLastMinute, long averageLagMs, long maxLagMs, long lastLagMs,
+                               long backlog, long oldestBacklogAgeMs) {}
+
+    // Skipped notifications are grouped by the reason recorded on them
+    private record Outcome(List<Notification> sent, Map<String, List<Notification>> skipped,
+                           Map<Notification, String> failed) {
+        Outcome() {
+            this(new ArrayList<>(), new HashMap<>(), new IdentityHashMap<>());
+        }
+
+        void skip(List<Notification> notifications, String reason) {
+            skipped.computeIfAbsent(reason, r -> new ArrayList<>()).addAll(notifications);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Notification dispatcher disabled");
+            return;
+        }
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        coordinator = new Thread(this::coordinate, "notification-dispatcher");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp();
+        if (workers != null) {
+            workers.shutdown();
+            // Batches still running when this expires are released by their lease
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Signal that new outbox entries were committed. */
+    public void wakeUp() {
+        synchronized (signal) {
+            wakeRequested = true;
+            signal.notifyAll();
+        }
+    }
+
+    public List<ChannelStats> getStats() {
+        Map<NotificationChannel, NotificationRepository.ChannelBacklog> backlog = new EnumMap<>(NotificationChannel.class);
+        for (NotificationRepository.ChannelBacklog row : notificationRepository.countBacklogPerChannel()) {
+            backlog.put(row.getChannel(), row);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long nowSecond = System.currentTimeMillis() / 1000;
+        List<ChannelStats> stats = new ArrayList<>();
+        metrics.forEach((channel, m) -> {
+            NotificationRepository.ChannelBacklog pending = backlog.get(channel);
+            long sent = m.sent.sum();
+            stats.add(new ChannelStats(channel, sent, m.failed.sum(), m.skipped.sum(), m.batches.sum(),
+                    m.sentLastMinute(nowSecond), sent == 0 ? 0 : m.lagTotalMs.sum() / sent, m.maxLagMs.get(),
+                    m.lastLagMs, pending != null ? pending.getTotal() : 0,
+                    pending != null ? Duration.between(pending.getOldestCreatedAt(), now).toMillis() : 0));
+        });
+        return stats;
+    }
+
+    private void coordinate() {
+        while (running) {
+            boolean submitted = false;
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                if (running && busyChannels.add(channel)) {
+                    submitted |= claimAndSubmit(channel);
+                }
+            }
+            if (!submitted) {
+                awaitWakeUp();
+            }
+        }
+    }
+
+    // Claims the channel's next batch and hands it to a worker; the channel stays busy until it is done
+    private boolean claimAndSubmit(NotificationChannel channel) {
+        List<Notification> batch;
+        try {
+            batch = claim(channel);
+        } catch (Exception e) {
+            busyChannels.remove(channel);
+            log.warn("Could not claim {} notifications: {}", channel, e.getMessage());
+            return false;
+        }
+        if (batch.isEmpty()) {
+            busyChannels.remove(channel);
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    deliverBatch(channel, batch);
+                } catch (Exception e) {
+                    log.error("Delivering {} {} notifications failed", batch.size(), channel, e);
+                } finally {
+                    busyChannels.remove(channel);
+                    wakeUp();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the lease expires and another dispatcher picks the batch up
+            busyChannels.remove(channel);
+            return false;
+        }
+    }
+
+    private List<Notification> claim(NotificationChannel channel) {
+        List<Notification> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = notificationRepository.lockDue(channel, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.<Notification>of();
+            }
+            notificationRepository.lease(ids, now.plusSeconds(leaseSeconds));
+            return notificationRepository.findWithUserByIdIn(ids);
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private void awaitWakeUp() {
+        synchronized (signal) {
+            if (!wakeRequested && running) {
+                try {
+                    signal.wait(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+            wakeRequested = false;
+        }
+    }
+
+    private void deliverBatch(NotificationChannel channel, List<Notification> batch) {
+        Outcome outcome = new Outcome();
+        switch (channel) {
+            case EMAIL -> deliverEmail(batch, outcome);
+            case SMS -> deliverSms(batch, outcome);
+            case IN_APP -> deliverInApp(batch, outcome);
+            default -> batch.forEach(n -> outcome.failed().put(n, "Unsupported notification channel: " + channel));
+        }
+        record(channel, outcome);
+    }
+
+    // One SMTP session for the whole batch; only the messages the server rejected are retried
+    private void deliverEmail(List<Notification> batch, Outcome outcome) {
+        if (!policyService.current().emailNotifications()) {
+            outcome.skip(batch, "Email notifications are disabled by policy");
+            return;
+        }
+        if (mailSender == null) {
+            batch.forEach(n -> outcome.failed().put(n, "Email service not configured"));
+            return;
+        }
+
+        Map<SimpleMailMessage, Notification> messages = new IdentityHashMap<>();
+        for (Notification notification : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(notification.getUser().getEmail());
+            message.setSubject(notification.getSubject());
+            message.setText(notification.getMessage());
+            message.setFrom(mailFrom);
+            messages.put(message, notification);
+        }
+        try {
+            mailSender.send(messages.keySet().toArray(SimpleMailMessage[]::new));
+            outcome.sent().addAll(messages.values());
+        } catch (MailSendException e) {
+            Map<Object, Exception> rejected = e.getFailedMessages();
+            messages.forEach((message, notification) -> {
+                Exception cause = rejected.get(message);
+                if (cause != null) {
+                    outcome.failed().put(notification, cause.getMessage());
+                } else if (rejected.isEmpty()) {
+                    outcome.failed().put(notification, e.getMessage());
+                } else {
+                    outcome.sent().add(notification);
+                }
+            });
+        } catch (MailException e) {
+            batch.forEach(n -> outcome.failed().put(n, e.getMessage()));
+        }
+    }
+
+    private void deliverSms(List<Notification> batch, Outcome outcome) {
+        if (!policyService.current().smsNotifications()) {
+            outcome.skip(batch, "SMS notifications are disabled by policy");
+            return;
+        }
+        // There is no SMS gateway yet; record that instead of reporting the messages as sent
+        outcome.skip(batch, "SMS gateway not configured");
+    }
+
+    private void deliverInApp(List<Notification> batch, Outcome outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Notification notification : batch) {
+            // The pushed payload already carries its delivered state
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setSentAt(now);
+            notification.setNextAttemptAt(null);
+            try {
+                if (webSocketService != null) {
+                    webSocketService.sendNotificationToUser(notification.getUser().getId(), notification);
+                }
+                outcome.sent().add(notification);
+            } catch (Exception e) {
+                outcome.failed().put(notification, e.getMessage());
+            }
+        }
+    }
+
+    private void record(NotificationChannel channel, Outcome outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!outcome.sent().isEmpty()) {
+                notificationRepository.markSent(ids(outcome.sent()), now);
+            }
+            outcome.skipped().forEach((reason, skipped) -> notificationRepository.markSkipped(ids(skipped), reason));
+            outcome.failed().forEach((notification, error) -> {
+                int retryCount = notification.getRetryCount() + 1;
+                LocalDateTime nextAttempt = retryCount < notification.getMaxRetries()
+                        ? now.plus(Duration.ofMillis(backoffMs(retryCount)))
+                        : null;
+                notificationRepository.markFailed(notification.getId(), error, retryCount, nextAttempt);
+                if (nextAttempt == null) {
+                    log.warn("Giving up on {} notification {} after {} attempts: {}",
+                            channel, notification.getId(), retryCount, error);
+                }
+            });
+        });
+
+        ChannelMetrics m = metrics.get(channel);
+        m.batches.increment();
+        m.failed.add(outcome.failed().size());
+        outcome.skipped().values().forEach(skipped -> m.skipped.add(skipped.size()));
+        for (Notification notification : outcome.sent()) {
+            m.recordLag(Duration.between(notification.getCreatedAt(), now).toMillis());
+        }
+        m.recordSent(outcome.sent().size(), System.currentTimeMillis() / 1000);
+    }
+
+    // Doubles with every attempt, with up to 20% jitter so that failures do not retry in lockstep
+    private long backoffMs(int attempt) {
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+    }
+
+    private static List<Long> ids(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getId).toList();
+    }
+
+    private static final class ChannelMetrics {
+        final LongAdder sent = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder batches = new LongAdder();
+        final LongAdder lagTotalMs = new LongAdder();
+        final AtomicLong maxLagMs = new AtomicLong();
+        volatile long lastLagMs;
+
+        // Deliveries per second over the last minute, indexed by epoch second modulo 60
+        private final long[] perSecond = new long[60];
+        private final long[] secondOf = new long[60];
+
+        void recordLag(long lagMs) {
+            lagTotalMs.add(lagMs);
+            maxLagMs.accumulateAndGet(lagMs, Math::max);
+            lastLagMs = lagMs;
+        }
+
+        synchronized void recordSent(int count, long second) {
+            sent.add(count);
+            int slot = (int) (second % 60);
+            if (secondOf[slot] != second) {
+                secondOf[slot] = second;
+                perSecond[slot] = 0;
+            }
+            perSecond[slot] += count;
+        }
+
+        synchronized long sentLastMinute(long second) {
+            long total = 0;
+            for (int i = 0; i < 60; i++) {
+                if (second - secondOf[i] < 60) {
+                    total += perSecond[i];
+                }
+            }
+            return total;
+        }
+    }
+}
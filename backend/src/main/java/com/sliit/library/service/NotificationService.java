@@ -1,15 +1,13 @@
 package com.sliit.library.service;
 
 import com.sliit.library.dto.NotificationDto;
-import com.sliit.library.exception.BusinessException;
 import com.sliit.library.exception.ForbiddenException;
 import com.sliit.library.exception.ResourceNotFoundException;
 import com.sliit.library.model.*;
 import com.sliit.library.repository.NotificationRepository;
+import com.sliit.library.util.AfterCommit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,22 +23,24 @@ import java.util.stream.Collectors;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final LibraryPolicyService policyService;
-    
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    private final NotificationDispatcher dispatcher;
 
     @Autowired(required = false)
     private WebSocketNotificationService webSocketService;
 
-    public NotificationService(NotificationRepository notificationRepository, LibraryPolicyService policyService) {
+    public NotificationService(NotificationRepository notificationRepository, NotificationDispatcher dispatcher) {
         this.notificationRepository = notificationRepository;
-        this.policyService = policyService;
+        this.dispatcher = dispatcher;
     }
 
     @Transactional
     public Notification createNotification(User user, NotificationType type, String subject, 
                                          String message, NotificationChannel channel) {
+        return notificationRepository.save(newNotification(user, type, subject, message, channel));
+    }
+
+    private Notification newNotification(User user, NotificationType type, String subject,
+                                         String message, NotificationChannel channel) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setType(type);
@@ -48,87 +48,31 @@ public class NotificationService {
         notification.setMessage(message);
         notification.setChannel(channel);
         notification.setStatus(NotificationStatus.PENDING);
-        
-        return notificationRepository.save(notification);
+        return notification;
     }
 
+    /** Queue a batch of new notifications in the outbox with one saveAll; they go out after commit. */
     @Transactional
-    public void sendNotification(Notification notification) {
-        try {
-            switch (notification.getChannel()) {
-                case EMAIL:
-                    sendEmailNotification(notification);
-                    break;
-                case SMS:
-                    sendSMSNotification(notification);
-                    break;
-                case IN_APP:
-                    // For in-app notifications, mark as sent and send via WebSocket
-                    notification.setStatus(NotificationStatus.SENT);
-                    // Send real-time notification via WebSocket
-                    if (webSocketService != null) {
-                        webSocketService.sendNotificationToUser(notification.getUser().getId(), notification);
-                    }
-                    break;
-                default:
-                    throw new BusinessException("Unsupported notification channel: " + notification.getChannel());
-            }
-            
-            notification.setSentAt(LocalDateTime.now());
-            notificationRepository.save(notification);
-            
-        } catch (Exception e) {
-            log.error("Failed to send notification: " + e.getMessage(), e);
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            notification.setRetryCount(notification.getRetryCount() + 1);
-            notificationRepository.save(notification);
-        }
-    }
-
-    private void sendEmailNotification(Notification notification) {
-        LibraryPolicy policy = policyService.getActivePolicy();
-        if (!policy.getEmailNotifications()) {
-            log.info("Email notifications are disabled");
+    public void sendAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
             return;
         }
-
-        if (mailSender == null) {
-            log.warn("JavaMailSender not available, skipping email notification");
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage("Email service not configured");
-            return;
-        }
-
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(notification.getUser().getEmail());
-            message.setSubject(notification.getSubject());
-            message.setText(notification.getMessage());
-            message.setFrom("noreply@library.com");
-
-            mailSender.send(message);
-            notification.setStatus(NotificationStatus.SENT);
-            
-        } catch (Exception e) {
-            log.error("Failed to send email notification", e);
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-            // Don't throw the exception - let the calling method handle it
-        }
+        LocalDateTime now = LocalDateTime.now();
+        notifications.forEach(notification -> notification.setNextAttemptAt(now));
+        notificationRepository.saveAll(notifications);
+        AfterCommit.run(dispatcher::wakeUp);
     }
 
-    private void sendSMSNotification(Notification notification) {
-        LibraryPolicy policy = policyService.getActivePolicy();
-        if (!policy.getSmsNotifications()) {
-            log.info("SMS notifications are disabled");
-            return;
-        }
-        
-        // SMS implementation would go here
-        // For now, just mark as sent
-        notification.setStatus(NotificationStatus.SENT);
-        log.info("SMS notification sent to user: " + notification.getUser().getUsername());
+    /**
+     * Queue the notification in the outbox. Delivery (WebSocket push, mail) happens on the
+     * dispatcher's threads once the caller's transaction has committed.
+     */
+    @Transactional
+    public void sendNotification(Notification notification) {
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setNextAttemptAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+        AfterCommit.run(dispatcher::wakeUp);
     }
 
     public void sendBookRequestConfirmation(BookRequest request) {
@@ -234,6 +178,11 @@ public class NotificationService {
     }
 
     public void sendOverdueNotification(BookTransaction transaction) {
+        sendNotification(notificationRepository.save(overdueNotification(transaction)));
+    }
+
+    /** Unsaved overdue notice, for callers that send notifications in batches. */
+    public Notification overdueNotification(BookTransaction transaction) {
         String subject = "Overdue Book Notice";
         String message = String.format(
             "Dear %s,\n\nThe book '%s' is overdue.\n\n" +
@@ -249,12 +198,16 @@ public class NotificationService {
             transaction.getFineAmount()
         );
         
-        Notification notification = createNotification(transaction.getUser(), 
+        return newNotification(transaction.getUser(), 
             NotificationType.BOOK_OVERDUE, subject, message, NotificationChannel.IN_APP);
-        sendNotification(notification);
     }
 
     public void sendFineNotification(Fine fine) {
+        sendNotification(notificationRepository.save(fineNotification(fine)));
+    }
+
+    /** Unsaved fine notice, for callers that send notifications in batches. */
+    public Notification fineNotification(Fine fine) {
         String subject = "Fine Notice";
         String message = String.format(
             "Dear %s,\n\nA fine has been applied to your account.\n\n" +
@@ -271,9 +224,8 @@ public class NotificationService {
             fine.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))
         );
         
-        Notification notification = createNotification(fine.getUser(), 
+        return newNotification(fine.getUser(), 
             NotificationType.FINE_NOTICE, subject, message, NotificationChannel.IN_APP);
-        sendNotification(notification);
     }
 
     public void sendPaymentConfirmation(Payment payment) {
@@ -298,6 +250,11 @@ public class NotificationService {
     }
 
     public void sendBookDueReminder(BookTransaction transaction) {
+        sendNotification(notificationRepository.save(dueReminderNotification(transaction)));
+    }
+
+    /** Unsaved due reminder, for callers that send notifications in batches. */
+    public Notification dueReminderNotification(BookTransaction transaction) {
         String subject = "Book Due Reminder";
         String message = String.format(
             "Dear %s,\n\nThis is a reminder that your book '%s' is due soon.\n\n" +
@@ -311,9 +268,8 @@ public class NotificationService {
             ChronoUnit.DAYS.between(LocalDateTime.now(), transaction.getDueDate())
         );
         
-        Notification notification = createNotification(transaction.getUser(), 
+        return newNotification(transaction.getUser(), 
             NotificationType.BOOK_DUE_REMINDER, subject, message, NotificationChannel.IN_APP);
-        sendNotification(notification);
     }
 
     public void sendFineReminder(Fine fine) {
@@ -342,12 +298,14 @@ public class NotificationService {
         sendNotification(notification);
     }
 
+    /** Hand failed notifications that have retries left but no retry scheduled back to the dispatcher. */
     @Transactional
-    public void retryFailedNotifications() {
-        List<Notification> failedNotifications = notificationRepository.findFailedNotificationsForRetry();
-        for (Notification notification : failedNotifications) {
-            sendNotification(notification);
+    public int retryFailedNotifications() {
+        int requeued = notificationRepository.requeueFailed(LocalDateTime.now());
+        if (requeued > 0) {
+            AfterCommit.run(dispatcher::wakeUp);
         }
+        return requeued;
     }
 
     @Transactional
@@ -0,0 +1,30 @@
+package com.sliit.library.service;
+
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One id range of a partitioned overdue run. Partitions may run concurrently, so any idle
+ * node in the cluster picks up the next one.
+ */
+@RequiredArgsConstructor
+public class OverduePartitionJob extends QuartzJobBean {
+
+    public static final String NAME = "OVERDUE_PARTITION";
+    static final String FROM_ID = "fromId";
+    static final String TO_ID = "toId";
+
+    private final OverdueProcessingService overdueProcessing;
+    private final JobHistoryService jobHistory;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        JobDataMap data = context.getMergedJobDataMap();
+        long fromId = data.getLong(FROM_ID);
+        long toId = data.getLong(TO_ID);
+        jobHistory.run(context, fromId + "-" + toId, () -> overdueProcessing.run(fromId, toId));
+    }
+}
@@ -0,0 +1,205 @@
+package com.sliit.library.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.ActivityType;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.Fine;
+import com.sliit.library.model.Notification;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.service.ActivityWriter.ActivityRecord;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves ACTIVE loans past their due date to OVERDUE in id-ordered chunks, each in its own
+ * short transaction: one bulk status update, one lookup of existing overdue fines, and the
+ * chunk's fines, activities and notices written together. A large run can be split into
+ * id ranges ({@link #partition(int)}) that are processed on different nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverdueProcessingService {
+
+    private final BookTransactionRepository transactionRepository;
+    private final FineService fineService;
+    private final NotificationService notificationService;
+    private final ActivityService activityService;
+    private final CirculationCounterService circulationCounters;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.overdue.chunk-size:500}")
+    private int chunkSize;
+
+    private volatile Progress progress = Progress.idle();
+    // Partitions and wheel ticks of this node run one at a time
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    /** Counters of the current run, or of the last one once it has finished. */
+    public record Progress(boolean running, LocalDateTime startedAt, LocalDateTime finishedAt,
+                           int chunks, int failedChunks, long processed, long finesCreated,
+                           long finesUpdated, long notificationsSent, long durationMs) {
+
+        static Progress idle() {
+            return new Progress(false, null, null, 0, 0, 0, 0, 0, 0, 0);
+        }
+    }
+
+    /** Transaction ids fromId..toId, both inclusive. */
+    public record IdRange(long fromId, long toId) {}
+
+    private record ChunkResult(int processed, int finesCreated, int finesUpdated, int notificationsSent) {}
+
+    public Progress getProgress() {
+        return progress;
+    }
+
+    public Progress run() {
+        return run(0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Split the loans that are overdue now into at most maxPartitions id ranges of equal
+     * width, no more than one per chunk of loans. Empty when nothing is overdue.
+     */
+    public List<IdRange> partition(int maxPartitions) {
+        BookTransactionRepository.IdSpan span = transactionRepository.findOverdueIdSpan(LocalDateTime.now());
+        if (span.getTotal() == 0) {
+            return List.of();
+        }
+        long partitions = Math.max(1, Math.min(maxPartitions, Math.ceilDiv(span.getTotal(), chunkSize)));
+        long width = Math.ceilDiv(span.getMaxId() - span.getMinId() + 1, partitions);
+        List<IdRange> ranges = new ArrayList<>();
+        for (long from = span.getMinId(); from <= span.getMaxId(); from += width) {
+            ranges.add(new IdRange(from, Math.min(from + width - 1, span.getMaxId())));
+        }
+        return ranges;
+    }
+
+    /** Process the overdue loans with ids fromId..toId; partitions of one node run one at a time. */
+    public Progress run(long fromId, long toId) {
+        runLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long started = System.currentTimeMillis();
+            int chunks = 0;
+            int failedChunks = 0;
+            long processed = 0;
+            long finesCreated = 0;
+            long finesUpdated = 0;
+            long notificationsSent = 0;
+            progress = new Progress(true, now, null, 0, 0, 0, 0, 0, 0, 0);
+
+            long afterId = fromId - 1;
+            while (true) {
+                List<Long> ids = transactionRepository.findOverdueIdsAfter(now, afterId, toId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                chunks++;
+                try {
+                    ChunkResult result = transactionTemplate.execute(status -> processChunk(ids, now));
+                    if (result != null) {
+                        processed += result.processed();
+                        finesCreated += result.finesCreated();
+                        finesUpdated += result.finesUpdated();
+                        notificationsSent += result.notificationsSent();
+                    }
+                } catch (Exception e) {
+                    // The chunk rolled back and stays ACTIVE, so the next run picks it up again
+                    failedChunks++;
+                    log.error("Overdue chunk ending at transaction {} failed", afterId, e);
+                }
+                progress = new Progress(true, now, null, chunks, failedChunks, processed, finesCreated,
+                        finesUpdated, notificationsSent, System.currentTimeMillis() - started);
+            }
+
+            progress = new Progress(false, now, LocalDateTime.now(), chunks, failedChunks, processed, finesCreated,
+                    finesUpdated, notificationsSent, System.currentTimeMillis() - started);
+            log.info("Overdue processing marked {} loans overdue in {} chunks ({} failed), {} fines created, {} updated, {} ms",
+                    processed, chunks, failedChunks, finesCreated, finesUpdated, progress.durationMs());
+            return progress;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Process specific loans whose due date has just passed (fired by the due-date wheel).
+     * Events can be stale (the loan was returned, or already swept); such loans are skipped.
+     */
+    public int process(List<Long> transactionIds) {
+        runLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int processed = 0;
+            for (int from = 0; from < transactionIds.size(); from += chunkSize) {
+                List<Long> ids = transactionIds.subList(from, Math.min(from + chunkSize, transactionIds.size()));
+                try {
+                    ChunkResult result = transactionTemplate.execute(status -> processChunk(ids, now));
+                    processed += result != null ? result.processed() : 0;
+                } catch (Exception e) {
+                    // Left ACTIVE; the periodic sweep picks these loans up
+                    log.error("Overdue processing of {} due loans failed", ids.size(), e);
+                }
+            }
+            return processed;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private ChunkResult processChunk(List<Long> candidateIds, LocalDateTime now) {
+        // Another node, partition or wheel tick may be processing the same loans
+        List<Long> ids = transactionRepository.lockOverdueIds(candidateIds, now);
+        if (ids.isEmpty() || transactionRepository.markOverdue(ids, now) == 0) {
+            return new ChunkResult(0, 0, 0, 0);
+        }
+        List<BookTransaction> transactions = transactionRepository.findWithDetailsByIdInAndStatus(ids, TransactionStatus.OVERDUE);
+
+        Map<Long, Long> overdueDays = new HashMap<>();
+        for (BookTransaction transaction : transactions) {
+            long days = ChronoUnit.DAYS.between(transaction.getDueDate(), now);
+            transaction.setOverdueDays((int) days);
+            overdueDays.put(transaction.getId(), days);
+            circulationCounters.recordLeftActive(transaction.getDueDate());
+        }
+
+        FineService.OverdueFines fines = fineService.applyOverdueFines(transactions, overdueDays);
+
+        List<ActivityRecord> activities = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (Fine fine : fines.created()) {
+            BookTransaction transaction = fine.getTransaction();
+            activities.add(activityService.newActivity(transaction.getUser(), ActivityType.FINE_CREATED,
+                    "Overdue fine created: $" + fine.getAmount(),
+                    null, transaction.getBookCopy().getBook().getId(), transaction.getId(), fine.getId()));
+            notifications.add(notificationService.fineNotification(fine));
+        }
+        for (BookTransaction transaction : transactions) {
+            notifications.add(notificationService.overdueNotification(transaction));
+            activities.add(activityService.newActivity(transaction.getUser(), ActivityType.BOOK_OVERDUE,
+                    "Book overdue: " + transaction.getBookCopy().getBook().getTitle(),
+                    null, transaction.getBookCopy().getBook().getId(), transaction.getId(), null));
+        }
+        activityService.logAll(activities);
+        notificationService.sendAll(notifications);
+
+        return new ChunkResult(transactions.size(), fines.created().size(), fines.updated(), notifications.size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.sliit.library.service;
+
+import com.sliit.library.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing for login and registration on its own small pool. BCrypt is meant to
+ * be slow, so a burst of logins would otherwise occupy every core and request thread; here at
+ * most {@code parallelism} hashes run at once, a bounded queue absorbs short bursts and
+ * anything beyond it is refused straight away with a {@link ServiceUnavailableException}.
+ */
+@Slf4j
+@Service
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder upgraded = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    /** Outcome of a login check; upgradedHash is set when the stored hash should be replaced. */
+    public record Verification(boolean matched, String upgradedHash) {}
+
+    public record Stats(int parallelism, int queueCapacity, int queued, int active, long completed, long rejected,
+                        long upgraded, double avgQueueWaitMs, double maxQueueWaitMs, double avgHashMs, double maxHashMs) {}
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Value("${app.auth.hashing.parallelism:0}") int parallelism,
+                            @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                            @Value("${app.auth.hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        // Default to half the cores so hashing never takes the whole machine
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** Check a password and, when it matches an outdated hash, compute its replacement in the same task. */
+    public Verification verify(String rawPassword, String encodedPassword) {
+        return run(() -> {
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            if (passwordEncoder.upgradeEncoding(encodedPassword)) {
+                upgraded.increment();
+                return new Verification(true, passwordEncoder.encode(rawPassword));
+            }
+            return new Verification(true, null);
+        });
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Stats getStats() {
+        long done = Math.max(1, completed.sum());
+        return new Stats(executor.getMaximumPoolSize(), queueCapacity, executor.getQueue().size(), executor.getActiveCount(),
+                completed.sum(), rejected.sum(), upgraded.sum(),
+                toMillis(queueWaitNanos.sum()) / done, toMillis(maxQueueWaitNanos.get()),
+                toMillis(hashNanos.sum()) / done, toMillis(maxHashNanos.get()));
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                record(queueWaitNanos, maxQueueWaitNanos, started - submitted);
+                try {
+                    return hashing.call();
+                } finally {
+                    record(hashNanos, maxHashNanos, System.nanoTime() - started);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many sign-ins in progress, please try again shortly", retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static void record(LongAdder total, AtomicLong max, long nanos) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -24,12 +24,17 @@ public class PublisherService {
     private final ActivityService activityService;
     private final CurrentUser currentUser;
     private final ImageUploadService imageUploadService;
+    private final BookSearchIndex bookSearchIndex;
+    private final ReferenceDataCache referenceDataCache;
 
-    public PublisherService(PublisherRepository repo, ActivityService activityService, CurrentUser currentUser, ImageUploadService imageUploadService) {
+    public PublisherService(PublisherRepository repo, ActivityService activityService, CurrentUser currentUser, ImageUploadService imageUploadService,
+            BookSearchIndex bookSearchIndex, ReferenceDataCache referenceDataCache) {
         this.repo = repo;
         this.activityService = activityService;
         this.currentUser = currentUser;
         this.imageUploadService = imageUploadService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Transactional
@@ -78,8 +83,10 @@ public class PublisherService {
     public PublisherResponse update(Long id, PublisherUpdateRequest req) {
         var publisher = repo.findById(id).orElseThrow(() -> new ApiException("Publisher not found"));
 
-        if (req.name() != null)
+        if (req.name() != null) {
             publisher.setName(req.name());
+            bookSearchIndex.renamePublisher(id, req.name());
+        }
         if (req.address() != null)
             publisher.setAddress(req.address());
         if (req.contactNumber() != null)
@@ -99,6 +106,7 @@ public class PublisherService {
             publisher.setDescription(req.description());
         publisher.setUpdatedAt(LocalDateTime.now());
 
+        referenceDataCache.evictAfterCommit(Publisher.class, id);
         activityService.log(currentUser.require(), ActivityType.PUBLISHER_UPDATED, "Publisher " + publisher.getName() + " updated!");
 
         return toResponse(publisher);
@@ -113,6 +121,7 @@ public class PublisherService {
         }
 
         repo.delete(publisher);
+        referenceDataCache.evictAfterCommit(Publisher.class, id);
         activityService.log(currentUser.require(), ActivityType.PUBLISHER_DELETED, "Publisher " + publisher.getName() + " deleted!");
     }
 
@@ -0,0 +1,78 @@
+package com.sliit.library.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.sliit.library.dto.ActivityDto.ActivitySummary;
+import com.sliit.library.model.Activity;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+import com.sliit.library.repository.ActivityRepository;
+import com.sliit.library.util.RingBuffer;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The last few hundred activities, kept in memory for the live dashboard panels so they
+ * never query the activities table. Filled by the {@link ActivityWriter} as batches are
+ * written, warmed from the newest rows before the writer starts, and pushed to staff
+ * subscribed to {@link #TOPIC}.
+ */
+@Slf4j
+@Service
+public class RecentActivityFeed {
+
+    public static final String TOPIC = "/topic/activities";
+
+    private final ActivityRepository activityRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RingBuffer<ActivitySummary> buffer;
+
+    public RecentActivityFeed(ActivityRepository activityRepository, SimpMessagingTemplate messagingTemplate,
+                              @Value("${app.activity.recent.capacity:500}") int capacity) {
+        this.activityRepository = activityRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.buffer = new RingBuffer<>(capacity);
+    }
+
+    @PostConstruct
+    public void warm() {
+        List<Activity> latest = activityRepository.findLatestWithUser(PageRequest.of(0, buffer.capacity()));
+        for (Activity activity : latest.reversed()) {
+            buffer.add(new ActivitySummary(activity.getId(), activity.getUser().getId(), activity.getUser().getName(),
+                    activity.getType(), activity.getSeverity(), activity.getMessage(), activity.getTimestamp()));
+        }
+        log.info("Recent activity feed warmed with {} activities", latest.size());
+    }
+
+    /** Add newly written activities, oldest first, and push them to subscribers as one message. */
+    public void publish(List<ActivitySummary> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        activities.forEach(buffer::add);
+        try {
+            messagingTemplate.convertAndSend(TOPIC, activities);
+        } catch (Exception e) {
+            log.warn("Could not push {} activities to {}: {}", activities.size(), TOPIC, e.getMessage());
+        }
+    }
+
+    /**
+     * Newest activities first, optionally of one type and/or severity. Covers only what the
+     * buffer holds, so fewer than limit may come back when the filter is selective.
+     */
+    public List<ActivitySummary> recent(int limit, ActivityType type, ActivitySeverity severity) {
+        return buffer.newest(limit, activity -> (type == null || activity.type() == type)
+                && (severity == null || activity.severity() == severity));
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+}
@@ -0,0 +1,92 @@
+package com.sliit.library.service;
+
+import com.sliit.library.exception.BusinessException;
+import com.sliit.library.model.Author;
+import com.sliit.library.model.Category;
+import com.sliit.library.model.Language;
+import com.sliit.library.model.Publisher;
+import com.sliit.library.util.AfterCommit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Second-level cache of the catalog's reference data (authors, publishers, categories and
+ * languages), so rendering books resolves their names without a select per row. Regions and
+ * their size limits live in ehcache.xml. Writes through the owning services evict the entry
+ * once they commit; {@link #refreshIfChanged()} evicts a whole region when its table changed
+ * on another node, detected by row count and latest updatedAt.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    private static final List<Class<?>> ENTITIES = List.of(Author.class, Publisher.class, Category.class, Language.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+
+    private final Map<Class<?>, TableStamp> stamps = new ConcurrentHashMap<>();
+
+    public record RegionStats(String region, long hits, long misses, long puts, double hitRatio) {}
+
+    private record TableStamp(Long rows, LocalDateTime lastUpdated) {}
+
+    /** Drop the cached copy of one reference entity once the surrounding transaction commits. */
+    public void evictAfterCommit(Class<?> type, Object id) {
+        AfterCommit.run(() -> sessionFactory().getCache().evictEntityData(type, id));
+    }
+
+    @Transactional(readOnly = true)
+    public void refreshIfChanged() {
+        for (Class<?> type : ENTITIES) {
+            TableStamp fresh = stamp(type);
+            TableStamp previous = stamps.put(type, fresh);
+            if (previous != null && !previous.equals(fresh)) {
+                sessionFactory().getCache().evictEntityData(type);
+                log.debug("Reference cache region for {} evicted, table changed", type.getSimpleName());
+            }
+        }
+    }
+
+    /** Hit/miss counters per region since startup (needs app.reference-cache.stats-enabled). */
+    public List<RegionStats> getStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new BusinessException("Reference cache statistics are disabled; set app.reference-cache.stats-enabled=true");
+        }
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                    long lookups = stats.getHitCount() + stats.getMissCount();
+                    return new RegionStats(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                            lookups == 0 ? 0.0 : (double) stats.getHitCount() / lookups);
+                })
+                .toList();
+    }
+
+    private TableStamp stamp(Class<?> type) {
+        Object[] row = entityManager
+                .createQuery("SELECT COUNT(e), MAX(e.updatedAt) FROM " + type.getSimpleName() + " e", Object[].class)
+                .getSingleResult();
+        return new TableStamp((Long) row[0], (LocalDateTime) row[1]);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -1,58 +1,232 @@
 package com.sliit.library.service;
 
-import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import com.sliit.library.util.LatencyHistogram;
+import com.sliit.library.util.RollingLatencyHistogram;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Request counts and latencies for the API. Each route template, method and status class gets
+ * its own rolling latency histogram, so a slow endpoint shows up on its own; the daily totals
+ * feed the admin dashboard. Recording looks the series up without building a key and, once
+ * the series and the current minute exist, allocates nothing.
+ */
 @Service
-@RequiredArgsConstructor
 public class RequestMetricsService {
 
-    // Simple in-memory storage for request metrics (resets daily)
-    private final ConcurrentHashMap<LocalDate, AtomicLong> dailyRequests = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<LocalDate, AtomicLong> dailyErrors = new ConcurrentHashMap<>();
+    private static final String[] METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS", "OTHER"};
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final Map<String, Integer> WINDOWS = windows();
 
-    public void recordRequest() {
-        LocalDate today = LocalDate.now();
-        dailyRequests.computeIfAbsent(today, k -> new AtomicLong(0)).incrementAndGet();
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private volatile DayTotals today = DayTotals.startingAt(System.currentTimeMillis());
+
+    public record WindowStats(long count, double requestsPerSecond, double p50Ms, double p90Ms, double p99Ms, double maxMs) {}
+
+    public record EndpointStats(String route, String method, String status, long totalCount, double totalSeconds,
+                                Map<String, WindowStats> windows) {}
+
+    private static final class Route {
+        private final String template;
+        private final AtomicReferenceArray<RollingLatencyHistogram> series =
+                new AtomicReferenceArray<>(METHODS.length * STATUS_CLASSES.length);
+
+        private Route(String template) {
+            this.template = template;
+        }
     }
 
-    public void recordError() {
-        LocalDate today = LocalDate.now();
-        dailyErrors.computeIfAbsent(today, k -> new AtomicLong(0)).incrementAndGet();
-        // Note: Don't call recordRequest() here as it's already called in preHandle
+    // Totals of one local day; replaced as a whole at midnight
+    private record DayTotals(LocalDate day, long endsAtMs, LongAdder requests, LongAdder errors) {
+
+        static DayTotals startingAt(long nowMs) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(nowMs), zone);
+            long endsAt = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new DayTotals(day, endsAt, new LongAdder(), new LongAdder());
+        }
+    }
+
+    /** Record one completed request; route is the matched path template, e.g. /api/books/{id}. */
+    public void record(String route, String method, int status, long elapsedNanos) {
+        long nowMs = System.currentTimeMillis();
+        DayTotals day = currentDay(nowMs);
+        day.requests().increment();
+        if (status >= 400) {
+            day.errors().increment();
+        }
+
+        Route entry = routes.get(route);
+        if (entry == null) {
+            entry = routes.computeIfAbsent(route, Route::new);
+        }
+        int index = methodIndex(method) * STATUS_CLASSES.length + statusIndex(status);
+        RollingLatencyHistogram histogram = entry.series.get(index);
+        if (histogram == null) {
+            entry.series.compareAndSet(index, null, new RollingLatencyHistogram());
+            histogram = entry.series.get(index);
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), nowMs);
     }
 
     public long getRequestsToday() {
-        LocalDate today = LocalDate.now();
-        return dailyRequests.getOrDefault(today, new AtomicLong(0)).get();
+        return currentDay(System.currentTimeMillis()).requests().sum();
     }
 
     public long getErrorsToday() {
-        LocalDate today = LocalDate.now();
-        return dailyErrors.getOrDefault(today, new AtomicLong(0)).get();
+        return currentDay(System.currentTimeMillis()).errors().sum();
     }
 
     public double getErrorRateToday() {
-        long requests = getRequestsToday();
-        long errors = getErrorsToday();
-
+        DayTotals day = currentDay(System.currentTimeMillis());
+        long requests = day.requests().sum();
         if (requests == 0) {
             return 0.0;
         }
+        return (double) day.errors().sum() / requests; // Return as decimal (0.0-1.0)
+    }
+
+    /** Every series seen since startup with its 1m, 5m and 1h windows, slowest p99 over 5m first. */
+    public List<EndpointStats> getEndpointStats() {
+        long nowMs = System.currentTimeMillis();
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Route route : routes.values()) {
+            for (int i = 0; i < route.series.length(); i++) {
+                RollingLatencyHistogram histogram = route.series.get(i);
+                if (histogram == null) {
+                    continue;
+                }
+                Map<String, WindowStats> windows = new LinkedHashMap<>();
+                WINDOWS.forEach((name, minutes) -> windows.put(name, windowStats(histogram, minutes, nowMs)));
+                stats.add(new EndpointStats(route.template, METHODS[i / STATUS_CLASSES.length],
+                        STATUS_CLASSES[i % STATUS_CLASSES.length], histogram.count(), histogram.sum() / 1_000_000.0, windows));
+            }
+        }
+        stats.sort(Comparator.comparingDouble((EndpointStats s) -> s.windows().get("5m").p99Ms()).reversed()
+                .thenComparing(EndpointStats::route));
+        return stats;
+    }
+
+    /** The same series in the Prometheus text exposition format (version 0.0.4). */
+    public String toPrometheus() {
+        List<EndpointStats> stats = getEndpointStats();
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP library_http_requests_total Requests completed since startup.\n");
+        out.append("# TYPE library_http_requests_total counter\n");
+        for (EndpointStats s : stats) {
+            sample(out, "library_http_requests_total", labels(s, null, null), s.totalCount());
+        }
+        out.append("# HELP library_http_request_seconds_total Time spent handling requests since startup.\n");
+        out.append("# TYPE library_http_request_seconds_total counter\n");
+        for (EndpointStats s : stats) {
+            sample(out, "library_http_request_seconds_total", labels(s, null, null), s.totalSeconds());
+        }
+        out.append("# HELP library_http_request_duration_seconds Request latency quantiles over a rolling window (quantile 1 is the max).\n");
+        out.append("# TYPE library_http_request_duration_seconds gauge\n");
+        for (EndpointStats s : stats) {
+            s.windows().forEach((window, w) -> {
+                sample(out, "library_http_request_duration_seconds", labels(s, window, "0.5"), w.p50Ms() / 1000);
+                sample(out, "library_http_request_duration_seconds", labels(s, window, "0.9"), w.p90Ms() / 1000);
+                sample(out, "library_http_request_duration_seconds", labels(s, window, "0.99"), w.p99Ms() / 1000);
+                sample(out, "library_http_request_duration_seconds", labels(s, window, "1"), w.maxMs() / 1000);
+            });
+        }
+        out.append("# HELP library_http_requests_per_second Throughput over a rolling window.\n");
+        out.append("# TYPE library_http_requests_per_second gauge\n");
+        for (EndpointStats s : stats) {
+            s.windows().forEach((window, w) ->
+                    sample(out, "library_http_requests_per_second", labels(s, window, null), w.requestsPerSecond()));
+        }
+        return out.toString();
+    }
+
+    private DayTotals currentDay(long nowMs) {
+        DayTotals day = today;
+        if (nowMs >= day.endsAtMs()) {
+            synchronized (this) {
+                day = today;
+                if (nowMs >= day.endsAtMs()) {
+                    day = DayTotals.startingAt(nowMs);
+                    today = day;
+                }
+            }
+        }
+        return day;
+    }
+
+    private static WindowStats windowStats(RollingLatencyHistogram histogram, int minutes, long nowMs) {
+        LatencyHistogram.Snapshot window = histogram.window(minutes, nowMs);
+        double seconds = RollingLatencyHistogram.windowMs(minutes, nowMs) / 1000.0;
+        return new WindowStats(window.count(), seconds > 0 ? window.count() / seconds : 0,
+                toMillis(window.quantile(0.5)), toMillis(window.quantile(0.9)), toMillis(window.quantile(0.99)),
+                toMillis(window.max()));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static int methodIndex(String method) {
+        return switch (method) {
+            case "GET" -> 0;
+            case "POST" -> 1;
+            case "PUT" -> 2;
+            case "PATCH" -> 3;
+            case "DELETE" -> 4;
+            case "HEAD" -> 5;
+            case "OPTIONS" -> 6;
+            default -> 7;
+        };
+    }
+
+    private static int statusIndex(int status) {
+        return Math.min(Math.max(status / 100, 1), 5) - 1;
+    }
+
+    private static String labels(EndpointStats s, String window, String quantile) {
+        StringBuilder labels = new StringBuilder("{route=\"").append(escape(s.route()))
+                .append("\",method=\"").append(s.method())
+                .append("\",status=\"").append(s.status()).append('"');
+        if (window != null) {
+            labels.append(",window=\"").append(window).append('"');
+        }
+        if (quantile != null) {
+            labels.append(",quantile=\"").append(quantile).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(String.format(Locale.ROOT, "%.6f", value)).append('\n');
+    }
 
-        return (double) errors / requests; // Return as decimal (0.0-1.0)
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
     }
 
-    // Clean up old data daily at 2 AM
-    @Scheduled(cron = "0 0 2 * * ?")
-    public void cleanupOldData() {
-        LocalDate weekAgo = LocalDate.now().minusDays(7);
-        dailyRequests.keySet().removeIf(date -> date.isBefore(weekAgo));
-        dailyErrors.keySet().removeIf(date -> date.isBefore(weekAgo));
+    private static Map<String, Integer> windows() {
+        Map<String, Integer> windows = new LinkedHashMap<>();
+        windows.put("1m", 1);
+        windows.put("5m", 5);
+        windows.put("1h", 60);
+        return windows;
     }
-}
\ No newline at end of file
+}
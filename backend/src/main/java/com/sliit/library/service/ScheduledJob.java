@@ -0,0 +1,33 @@
+package com.sliit.library.service;
+
+import java.util.function.Consumer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Jobs run through the clustered Quartz job store, so each fire runs on exactly one node.
+ * Schedules are Quartz cron expressions and may be property placeholders. A catch-up job
+ * that was due while no node was running fires once on recovery; the others skip to their
+ * next fire time.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ScheduledJob {
+    OVERDUE_SWEEP("${app.due-wheel.sweep-cron:0 15 0/6 * * ?}", true, SchedulerService::processOverdueBooks),
+    EXPIRE_REQUESTS("0 0 0 * * ?", true, SchedulerService::expireOldRequests),
+    FINE_REMINDERS("0 0 10 * * ?", true, SchedulerService::sendFineReminders),
+    PAYMENT_CLEANUP("0 0 0/6 * * ?", false, SchedulerService::cleanupExpiredPayments),
+    NOTIFICATION_RETRY("0 0/30 * * * ?", false, SchedulerService::retryFailedNotifications),
+    NOTIFICATION_CLEANUP("0 0 2 ? * SUN", true, SchedulerService::cleanupOldNotifications),
+    ROLLUP_AGGREGATION("${app.rollups.aggregate-cron:0 0/5 * * * ?}", false, SchedulerService::aggregateAnalyticsRollups),
+    ROLLUP_REAGGREGATION("0 30 3 * * ?", true, SchedulerService::reaggregateAnalyticsRollups),
+    RATING_REPAIR("0 0 3 * * ?", true, SchedulerService::repairRatingStatistics),
+    DAILY_REPORTS("0 0 1 * * ?", true, SchedulerService::generateDailyReports),
+    JOB_HISTORY_CLEANUP("0 45 2 * * ?", true, SchedulerService::pruneJobHistory),
+    ACTIVITY_ARCHIVE("${app.activity.archive.cron:0 15 4 * * ?}", true, SchedulerService::archiveActivities);
+
+    private final String cron;
+    private final boolean catchUp;
+    private final Consumer<SchedulerService> task;
+}
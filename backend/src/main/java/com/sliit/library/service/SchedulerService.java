@@ -2,9 +2,18 @@ package com.sliit.library.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Background jobs. The @Scheduled ones work on this node's in-memory state and run on every
+ * node; the rest are cluster-wide {@link ScheduledJob}s that Quartz runs on one node per fire,
+ * letting failures propagate so that their execution history records them.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -15,101 +24,184 @@ public class SchedulerService {
     private final FineService fineService;
     private final PaymentService paymentService;
     private final NotificationService notificationService;
+    private final BookRatingStatsService ratingStatsService;
+    private final CirculationCounterService circulationCounters;
+    private final DueDateWheel dueDateWheel;
+    private final OverdueProcessingService overdueProcessing;
+    private final AnalyticsRollupService analyticsRollups;
+    private final DashboardSnapshotCache dashboardSnapshots;
+    private final ClusteredJobService clusteredJobs;
+    private final JobHistoryService jobHistory;
+    private final ActivityArchive activityArchive;
+    private final LibraryPolicyService policyService;
+    private final ReferenceDataCache referenceDataCache;
+    private final TokenDenylist tokenDenylist;
 
-    // Process overdue books every hour
-    @Scheduled(fixedRate = 3600000) // 1 hour
-    public void processOverdueBooks() {
-        log.info("Processing overdue books...");
+    @Value("${app.rollups.reaggregate-days:35}")
+    private int reaggregateDays;
+
+    @Value("${app.overdue.max-partitions:4}")
+    private int overduePartitions;
+
+    // Fire due reminders and overdue transitions from the due-date wheel every second
+    @Scheduled(fixedDelayString = "${app.due-wheel.tick-ms:1000}")
+    public void fireDueDateEvents() {
         try {
-            transactionService.processOverdueBooks();
-            log.info("Overdue books processed successfully");
+            DueDateWheel.DueEvents due = dueDateWheel.poll();
+            if (due.isEmpty()) {
+                return;
+            }
+            int reminders = transactionService.sendDueReminders(due.reminders());
+            int overdue = overdueProcessing.process(due.overdue());
+            log.info("Due-date wheel fired: {} reminders sent, {} loans marked overdue", reminders, overdue);
         } catch (Exception e) {
-            log.error("Error processing overdue books", e);
+            log.error("Error firing due-date events", e);
         }
     }
 
-    // Send due reminders every day at 9 AM
-    @Scheduled(cron = "0 0 9 * * *")
-    public void sendDueReminders() {
-        log.info("Sending due date reminders...");
+    // Reload the due-date wheel every 6 hours to pick up loans issued or changed on other nodes
+    @Scheduled(cron = "${app.due-wheel.reload-cron:0 20 */6 * * *}")
+    public void reloadDueDateWheel() {
         try {
-            transactionService.sendDueReminders();
-            log.info("Due date reminders sent successfully");
+            dueDateWheel.load();
         } catch (Exception e) {
-            log.error("Error sending due date reminders", e);
+            log.error("Error reloading the due-date wheel", e);
         }
     }
 
-    // Expire old book requests every day at midnight
-    @Scheduled(cron = "0 0 0 * * *")
-    public void expireOldRequests() {
-        log.info("Expiring old book requests...");
+    // Rebuild the dashboard circulation counters from the tables at startup and every 15 minutes
+    @Scheduled(fixedDelayString = "${app.counters.rebuild-interval-ms:900000}")
+    public void rebuildCirculationCounters() {
         try {
-            requestService.expireOldRequests();
-            log.info("Old book requests expired successfully");
+            circulationCounters.rebuild();
         } catch (Exception e) {
-            log.error("Error expiring old book requests", e);
+            log.error("Error rebuilding circulation counters", e);
         }
     }
 
-    // Send fine reminders every day at 10 AM
-    @Scheduled(cron = "0 0 10 * * *")
-    public void sendFineReminders() {
-        log.info("Sending fine payment reminders...");
+    // Recompute the dashboard snapshots that are being read, every 30 seconds
+    @Scheduled(fixedDelayString = "${app.dashboard.snapshot.refresh-interval-ms:30000}")
+    public void refreshDashboardSnapshots() {
         try {
-            fineService.processOverdueFineReminders();
-            log.info("Fine payment reminders sent successfully");
+            dashboardSnapshots.refreshAll();
         } catch (Exception e) {
-            log.error("Error sending fine payment reminders", e);
+            log.error("Error refreshing dashboard snapshots", e);
         }
     }
 
-    // Clean up expired payments every 6 hours
-    @Scheduled(fixedRate = 21600000) // 6 hours
-    public void cleanupExpiredPayments() {
-        log.info("Cleaning up expired payments...");
+    // Pick up library policy changes made on other nodes
+    @Scheduled(fixedDelayString = "${app.policy.refresh-interval-ms:10000}")
+    public void refreshLibraryPolicy() {
         try {
-            paymentService.cleanupExpiredPayments();
-            log.info("Expired payments cleaned up successfully");
+            policyService.refreshIfChanged();
         } catch (Exception e) {
-            log.error("Error cleaning up expired payments", e);
+            log.error("Error refreshing library policy snapshot", e);
         }
     }
 
-    // Retry failed notifications every 30 minutes
-    @Scheduled(fixedRate = 1800000) // 30 minutes
-    public void retryFailedNotifications() {
-        log.info("Retrying failed notifications...");
+    // Drop cached authors, publishers, categories and languages changed on other nodes
+    @Scheduled(fixedDelayString = "${app.reference-cache.refresh-interval-ms:10000}")
+    public void refreshReferenceDataCache() {
         try {
-            notificationService.retryFailedNotifications();
-            log.info("Failed notifications retry completed");
+            referenceDataCache.refreshIfChanged();
         } catch (Exception e) {
-            log.error("Error retrying failed notifications", e);
+            log.error("Error refreshing reference data cache", e);
         }
     }
 
-    // Clean up old notifications weekly (every Sunday at 2 AM)
-    @Scheduled(cron = "0 0 2 * * SUN")
-    public void cleanupOldNotifications() {
-        log.info("Cleaning up old notifications...");
+    // Refuse tokens of users disabled, changed or deleted on other nodes
+    @Scheduled(fixedDelayString = "${app.auth.denylist.refresh-interval-ms:5000}")
+    public void refreshTokenDenylist() {
         try {
-            notificationService.cleanupOldNotifications();
-            log.info("Old notifications cleaned up successfully");
+            tokenDenylist.refresh();
         } catch (Exception e) {
-            log.error("Error cleaning up old notifications", e);
+            log.error("Error refreshing token denylist", e);
+        }
+    }
+
+    // Sweep for overdue loans the due-date wheels missed; large sweeps are split across nodes
+    public void processOverdueBooks() {
+        log.info("Processing overdue books...");
+        List<OverdueProcessingService.IdRange> ranges = overdueProcessing.partition(overduePartitions);
+        if (ranges.size() > 1) {
+            clusteredJobs.submitOverduePartitions(ranges);
+            log.info("Overdue processing split into {} partitions", ranges.size());
+        } else if (!ranges.isEmpty()) {
+            transactionService.processOverdueBooks();
+            log.info("Overdue books processed successfully");
         }
     }
 
-    // Generate system reports daily at 1 AM
-    @Scheduled(cron = "0 0 1 * * *")
+    // Expire old book requests
+    public void expireOldRequests() {
+        log.info("Expiring old book requests...");
+        requestService.expireOldRequests();
+        log.info("Old book requests expired successfully");
+    }
+
+    // Send fine payment reminders
+    public void sendFineReminders() {
+        log.info("Sending fine payment reminders...");
+        fineService.processOverdueFineReminders();
+        log.info("Fine payment reminders sent successfully");
+    }
+
+    // Clean up expired payments
+    public void cleanupExpiredPayments() {
+        log.info("Cleaning up expired payments...");
+        paymentService.cleanupExpiredPayments();
+        log.info("Expired payments cleaned up successfully");
+    }
+
+    // Requeue failed notifications that have retries left but no retry scheduled
+    public void retryFailedNotifications() {
+        int requeued = notificationService.retryFailedNotifications();
+        log.info("Requeued {} failed notifications for delivery", requeued);
+    }
+
+    // Clean up old notifications
+    public void cleanupOldNotifications() {
+        log.info("Cleaning up old notifications...");
+        notificationService.cleanupOldNotifications();
+        log.info("Old notifications cleaned up successfully");
+    }
+
+    // Fold new circulation, fine and payment events into the analytics rollups
+    public void aggregateAnalyticsRollups() {
+        analyticsRollups.aggregate();
+    }
+
+    // Re-aggregate recent analytics rollups to pick up late edits
+    public void reaggregateAnalyticsRollups() {
+        log.info("Re-aggregating recent analytics rollups...");
+        analyticsRollups.reaggregateSince(LocalDate.now().minusDays(reaggregateDays));
+        log.info("Analytics rollups re-aggregated successfully");
+    }
+
+    // Repair drift in the denormalized rating statistics
+    public void repairRatingStatistics() {
+        log.info("Repairing book rating statistics...");
+        ratingStatsService.repairAll();
+        log.info("Book rating statistics repaired successfully");
+    }
+
+    // Drop job execution records past their retention
+    public void pruneJobHistory() {
+        int removed = jobHistory.prune();
+        log.info("Removed {} old job execution records", removed);
+    }
+
+    // Move activities past the hot window into compressed archive segments
+    public void archiveActivities() {
+        ActivityArchive.ArchiveResult result = activityArchive.archive();
+        log.info("Archived {} activities into {} segments", result.rowsArchived(), result.segmentsWritten());
+    }
+
+    // Generate system reports
     public void generateDailyReports() {
         log.info("Generating daily system reports...");
-        try {
-            // This would generate various system reports
-            // For now, just log the activity
-            log.info("Daily system reports generated successfully");
-        } catch (Exception e) {
-            log.error("Error generating daily system reports", e);
-        }
+        // This would generate various system reports
+        // For now, just log the activity
+        log.info("Daily system reports generated successfully");
     }
 }
@@ -0,0 +1,712 @@
+package com.sliit.library.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+import com.sliit.library.model.BookCondition;
+import com.sliit.library.model.BookStatus;
+import com.sliit.library.model.FineStatus;
+import com.sliit.library.model.FineType;
+import com.sliit.library.model.NotificationChannel;
+import com.sliit.library.model.NotificationStatus;
+import com.sliit.library.model.NotificationType;
+import com.sliit.library.model.PaymentMethod;
+import com.sliit.library.model.PaymentStatus;
+import com.sliit.library.model.PaymentType;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.model.UserRole;
+import com.sliit.library.model.UserStatus;
+import com.sliit.library.service.LibraryPolicyService.PolicySnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk-loads a synthetic library for load and capacity tests: members, authors, publishers,
+ * books and copies, and a history of loans with the fines, payments, reviews, notifications
+ * and activities they would have left behind. Rows go in as JDBC batches with explicit keys,
+ * one transaction per batch, so millions of rows load in minutes rather than hours.
+ *
+ * <p>Every value comes from a random stream seeded with {@link Spec#seed()} and every date is
+ * relative to {@link Spec#asOf()}, so the same spec on an empty database gives the same rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    // Generated members sign in with the same password as the seeded ones
+    public static final String MEMBER_PASSWORD = "pass123";
+
+    // Share of loans and members: a larger exponent concentrates loans on fewer books/members
+    private static final double BOOK_SKEW = 2.5;
+    private static final double MEMBER_SKEW = 1.5;
+
+    // Outcome of a loan whose due date has passed; the rest are returned on time
+    private static final double LATE_RATE = 0.19;
+    private static final double LOST_RATE = 0.01;
+    private static final int MAX_LATE_DAYS = 45;
+    private static final int LOST_AFTER_DAYS = 30;
+    // Share of loans still inside their loan period that are not back yet
+    private static final double STILL_OUT_RATE = 0.8;
+    private static final double RENEWAL_RATE = 0.1;
+    private static final double NOTIFICATION_READ_RATE = 0.6;
+    private static final double FAILED_PAYMENT_RATE = 0.05;
+
+    // Loans are issued between 09:00 and 19:00
+    private static final int OPENING_MINUTE = 9 * 60;
+    private static final int OPEN_MINUTES = 10 * 60;
+
+    // Replacement price lost-book fines are a percentage of, as in FineService
+    private static final double STANDARD_BOOK_PRICE = 50.0;
+
+    private static final byte COPY_FREE = 0;
+    private static final byte COPY_ON_LOAN = 1;
+    private static final byte COPY_LOST = 2;
+    private static final byte COPY_UNAVAILABLE = 3;
+
+    private static final String[] FIRST_NAMES = {
+        "Amal", "Nimali", "Kasun", "Dilini", "Ruwan", "Sachini", "Tharindu", "Ishara", "Chamara", "Nadeesha",
+        "James", "Maria", "Wei", "Aisha", "Lucas", "Priya", "Omar", "Elena", "Kenji", "Fatima"
+    };
+    private static final String[] LAST_NAMES = {
+        "Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe", "Dissanayake", "Herath",
+        "Smith", "Garcia", "Chen", "Khan", "Muller", "Rossi", "Tanaka", "Ivanova", "Okafor", "Nguyen", "Brown", "Haddad"
+    };
+    private static final String[] ADJECTIVES = {
+        "Silent", "Golden", "Hidden", "Broken", "Distant", "Burning", "Frozen", "Forgotten", "Endless", "Quiet",
+        "Crimson", "Hollow", "Secret", "Restless", "Ancient", "Shattered", "Wandering", "Bright", "Last", "Wild"
+    };
+    private static final String[] NOUNS = {
+        "River", "Shadow", "Garden", "Empire", "Winter", "Harbor", "Forest", "Mirror", "Journey", "Kingdom",
+        "Ocean", "Ember", "Stone", "Glass", "Thunder", "Lantern", "Voyage", "Machine", "Island", "Desert",
+        "Signal", "Memory", "Orbit", "Atlas", "Theory", "History", "City", "Storm", "Letter", "Bridge"
+    };
+    private static final String[] PUBLISHER_SUFFIXES = {"Press", "Books", "Publishing", "House", "Editions"};
+    private static final String[] REVIEWS = {
+        "Could not put it down.", "Well written but slow in the middle.", "A classic for a reason.",
+        "Not what I expected.", "Great introduction to the subject.", "Too long for what it says.",
+        "The ending was worth it.", "Would borrow again."
+    };
+    // Cumulative shares of 1 to 5 star ratings
+    private static final double[] RATING_SHARES = {0.07, 0.15, 0.30, 0.60, 1.0};
+    private static final PaymentMethod[] PAYMENT_METHODS = {
+        PaymentMethod.CASH, PaymentMethod.CREDIT_CARD, PaymentMethod.DEBIT_CARD, PaymentMethod.DIGITAL_WALLET,
+        PaymentMethod.PAYHERE
+    };
+    private static final BookCondition[] COPY_CONDITIONS = {
+        BookCondition.NEW, BookCondition.GOOD, BookCondition.GOOD, BookCondition.GOOD, BookCondition.FAIR,
+        BookCondition.POOR
+    };
+
+    /**
+     * What to generate. Loans are issued over the {@code historyDays} before {@code asOf};
+     * those not back by then are ACTIVE or OVERDUE. Each book gets between 1 and
+     * {@code 2 * copiesPerBook - 1} copies.
+     */
+    public record Spec(long seed, LocalDate asOf, int users, int authors, int publishers, int books,
+                       int copiesPerBook, int loans, int historyDays, double reviewRate, int batchSize) {
+
+        public Spec {
+            if (users < 1 || authors < 1 || publishers < 1 || books < 1 || copiesPerBook < 1 || loans < 0
+                    || historyDays < 2 || reviewRate < 0 || reviewRate > 1 || batchSize < 1) {
+                throw new IllegalArgumentException(
+                        "Synthetic data needs positive counts, at least two days of history and a review rate in [0, 1]");
+            }
+        }
+    }
+
+    /** Rows inserted per table, and how long the inserts took (derived state excluded). */
+    public record Result(Map<String, Long> rows, long elapsedMs) {
+
+        public long totalRows() {
+            return rows.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long rowsPerSecond() {
+            return totalRows() * 1000 / Math.max(1, elapsedMs);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final LibraryPolicyService policyService;
+    private final BookRatingStatsService ratingStatsService;
+    private final CirculationCounterService circulationCounters;
+    private final DueDateWheel dueDateWheel;
+    private final BookSearchIndex bookSearchIndex;
+    private final AnalyticsRollupService rollupService;
+
+    /**
+     * Insert the dataset, then rebuild the state the services keep next to the tables
+     * (rating statistics, counters, due-date wheel, search index and rollups).
+     */
+    public Result generate(Spec spec) {
+        log.info("Generating synthetic data: {}", spec);
+        Result result = new Run(spec).execute();
+        log.info("Synthetic data inserted: {} rows in {} ms ({} rows/s) {}",
+                result.totalRows(), result.elapsedMs(), result.rowsPerSecond(), result.rows());
+
+        long started = System.currentTimeMillis();
+        ratingStatsService.repairAll();
+        circulationCounters.rebuild();
+        dueDateWheel.load();
+        bookSearchIndex.rebuild();
+        rollupService.reaggregateSince(spec.asOf().minusDays(spec.historyDays()));
+        log.info("Derived state rebuilt in {} ms", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private record FineDraft(FineType type, double amount, String description, LocalDateTime createdAt,
+                             FineStatus status, double paid, LocalDateTime settledAt) {}
+
+    /** One table's insert statement and the rows waiting for the next batch. */
+    private static final class Table {
+
+        final String name;
+        final String sql;
+        final int[] types;
+        final List<Object[]> rows = new ArrayList<>();
+        long written;
+
+        Table(String name, String columns, int... types) {
+            this.name = name;
+            this.types = types;
+            this.sql = "INSERT INTO " + name + " (" + columns + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(types.length, "?")) + ")";
+        }
+    }
+
+    /** The state of one generation: random stream, first key of each table and pending batches. */
+    private final class Run {
+
+        private static final int BIGINT = Types.BIGINT;
+        private static final int INTEGER = Types.INTEGER;
+        private static final int DOUBLE = Types.DOUBLE;
+        private static final int BOOLEAN = Types.BOOLEAN;
+        private static final int VARCHAR = Types.VARCHAR;
+        private static final int TIMESTAMP = Types.TIMESTAMP;
+
+        private final Spec spec;
+        private final SplittableRandom random;
+        private final PolicySnapshot policy;
+        private final LocalDateTime asOf;
+        private final LocalDateTime start;
+
+        // In foreign-key order: a flush writes parents before the rows that reference them
+        private final List<Table> tables = new ArrayList<>();
+        private final Table users = table("users",
+                "id, username, email, name, password_hash, role, status, created_at, updated_at",
+                BIGINT, VARCHAR, VARCHAR, VARCHAR, VARCHAR, VARCHAR, VARCHAR, TIMESTAMP, TIMESTAMP);
+        private final Table authors = table("authors", "id, name, biography, created_at, updated_at",
+                BIGINT, VARCHAR, VARCHAR, TIMESTAMP, TIMESTAMP);
+        private final Table publishers = table("publishers", "id, name, email, website, created_at, updated_at",
+                BIGINT, VARCHAR, VARCHAR, VARCHAR, TIMESTAMP, TIMESTAMP);
+        private final Table books = table("books",
+                "id, title, isbn, publication_year, author_id, publisher_id, category_id, language_id, created_at, updated_at",
+                BIGINT, VARCHAR, VARCHAR, INTEGER, BIGINT, BIGINT, BIGINT, BIGINT, TIMESTAMP, TIMESTAMP);
+        private final Table copies = table("book_copies",
+                "id, book_id, status, barcode, book_condition, location, is_reference_only, created_at, updated_at",
+                BIGINT, BIGINT, VARCHAR, VARCHAR, INTEGER, VARCHAR, BOOLEAN, TIMESTAMP, TIMESTAMP);
+        private final Table loans = table("book_transactions",
+                "id, user_id, book_copy_id, status, issued_at, due_date, returned_at, last_renewal_date, "
+                        + "due_reminder_sent_at, renewal_count, max_renewals, issued_by, returned_to, overdue_days, "
+                        + "fine_amount, fine_paid, return_condition",
+                BIGINT, BIGINT, BIGINT, VARCHAR, TIMESTAMP, TIMESTAMP, TIMESTAMP, TIMESTAMP, TIMESTAMP, INTEGER,
+                INTEGER, BIGINT, BIGINT, INTEGER, DOUBLE, BOOLEAN, VARCHAR);
+        private final Table fines = table("fines",
+                "id, user_id, transaction_id, type, amount, paid_amount, status, description, created_at, paid_at, "
+                        + "due_date, created_by, received_by, payment_reference",
+                BIGINT, BIGINT, BIGINT, VARCHAR, DOUBLE, DOUBLE, VARCHAR, VARCHAR, TIMESTAMP, TIMESTAMP, TIMESTAMP,
+                BIGINT, BIGINT, VARCHAR);
+        private final Table payments = table("payments",
+                "id, user_id, fine_id, amount, type, status, method, transaction_reference, description, "
+                        + "error_message, created_at, paid_at",
+                BIGINT, BIGINT, BIGINT, DOUBLE, VARCHAR, VARCHAR, VARCHAR, VARCHAR, VARCHAR, VARCHAR, TIMESTAMP,
+                TIMESTAMP);
+        private final Table reviews = table("book_reviews", "user_id, book_id, rating, review, created_at, updated_at",
+                BIGINT, BIGINT, INTEGER, VARCHAR, TIMESTAMP, TIMESTAMP);
+        private final Table notifications = table("notifications",
+                "user_id, type, subject, message, status, channel, created_at, sent_at, read_at, retry_count, max_retries",
+                BIGINT, VARCHAR, VARCHAR, VARCHAR, VARCHAR, VARCHAR, TIMESTAMP, TIMESTAMP, TIMESTAMP, INTEGER, INTEGER);
+        private final Table activities = table("activities",
+                "user_id, type, message, related_book_id, related_transaction_id, related_fine_id, severity, timestamp",
+                BIGINT, VARCHAR, VARCHAR, BIGINT, BIGINT, BIGINT, VARCHAR, TIMESTAMP);
+
+        private long firstUser;
+        private long firstAuthor;
+        private long firstPublisher;
+        private long firstBook;
+        private long firstCopy;
+        private long nextLoan;
+        private long nextFine;
+        private long nextPayment;
+        private List<Long> staff;
+
+        // Per member: the day (from start) they joined, and loans they have out
+        private int[] joinedDay;
+        private byte[] openLoans;
+        // Per book: index of its first copy; per copy: COPY_* state
+        private int[] copyStart;
+        private byte[] copyState;
+        // user * books + book for every review written, as a member reviews a book once
+        private final Set<Long> reviewed = new HashSet<>();
+
+        Run(Spec spec) {
+            this.spec = spec;
+            this.random = new SplittableRandom(spec.seed());
+            this.policy = policyService.current();
+            this.asOf = spec.asOf().atStartOfDay();
+            this.start = asOf.minusDays(spec.historyDays());
+        }
+
+        Result execute() {
+            long started = System.currentTimeMillis();
+            staff = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE role IN ('ADMIN', 'LIBRARIAN') ORDER BY id", Long.class);
+            List<Long> categories = jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+            List<Long> languages = jdbcTemplate.queryForList("SELECT id FROM languages ORDER BY id", Long.class);
+            if (staff.isEmpty() || categories.isEmpty() || languages.isEmpty()) {
+                throw new IllegalStateException("Synthetic data needs the seeded staff, categories and languages");
+            }
+            firstUser = nextId("users");
+            firstAuthor = nextId("authors");
+            firstPublisher = nextId("publishers");
+            firstBook = nextId("books");
+            firstCopy = nextId("book_copies");
+            nextLoan = nextId("book_transactions");
+            nextFine = nextId("fines");
+            nextPayment = nextId("payments");
+
+            generateMembers();
+            generateCatalogue(categories, languages);
+            for (int i = 0; i < spec.loans(); i++) {
+                generateLoan();
+            }
+            flush();
+            long updated = markCopiesOut();
+            restartIdentities();
+
+            Map<String, Long> rows = new LinkedHashMap<>();
+            tables.forEach(table -> rows.put(table.name, table.written));
+            rows.put("book_copies updated", updated);
+            return new Result(rows, System.currentTimeMillis() - started);
+        }
+
+        private void generateMembers() {
+            String passwordHash = passwordEncoder.encode(MEMBER_PASSWORD);
+            joinedDay = new int[spec.users()];
+            openLoans = new byte[spec.users()];
+            for (int i = 0; i < spec.users(); i++) {
+                long id = firstUser + i;
+                // Members join over the window, each with some time left to borrow
+                joinedDay[i] = random.nextInt(Math.max(1, spec.historyDays() * 9 / 10));
+                LocalDateTime joined = day(joinedDay[i]).plusMinutes(OPENING_MINUTE + random.nextInt(OPEN_MINUTES));
+                String name = pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+                add(users, id, "member" + id, "member" + id + "@example.org", name, passwordHash, UserRole.MEMBER,
+                        memberStatus(), joined, joined);
+                add(activities, id, ActivityType.USER_CREATED, "User registered: member" + id, null, null, null,
+                        ActivitySeverity.INFO, joined);
+            }
+        }
+
+        private UserStatus memberStatus() {
+            double draw = random.nextDouble();
+            if (draw < 0.94) {
+                return UserStatus.ACTIVE;
+            }
+            if (draw < 0.97) {
+                return UserStatus.SUSPENDED;
+            }
+            return draw < 0.99 ? UserStatus.INACTIVE : UserStatus.PENDING;
+        }
+
+        private void generateCatalogue(List<Long> categories, List<Long> languages) {
+            for (int i = 0; i < spec.authors(); i++) {
+                add(authors, firstAuthor + i, pick(FIRST_NAMES) + " " + pick(LAST_NAMES), null, start, start);
+            }
+            for (int i = 0; i < spec.publishers(); i++) {
+                long id = firstPublisher + i;
+                add(publishers, id, pick(NOUNS) + " " + pick(PUBLISHER_SUFFIXES) + " " + (i + 1),
+                        "contact@publisher" + id + ".example.org", "https://publisher" + id + ".example.org", start, start);
+            }
+
+            copyStart = new int[spec.books() + 1];
+            copyState = new byte[spec.books() * spec.copiesPerBook()];
+            int copyCount = 0;
+            for (int i = 0; i < spec.books(); i++) {
+                long bookId = firstBook + i;
+                LocalDateTime created = start.minusDays(random.nextInt(365));
+                add(books, bookId, title(i), String.format("979%010d", bookId),
+                        asOf.getYear() - (int) (120 * Math.pow(random.nextDouble(), 3)),
+                        firstAuthor + skewed(spec.authors(), MEMBER_SKEW),
+                        firstPublisher + skewed(spec.publishers(), MEMBER_SKEW),
+                        categories.get(random.nextInt(categories.size())),
+                        languages.get(skewed(languages.size(), 3)), created, created);
+
+                copyStart[i] = copyCount;
+                int count = 1 + random.nextInt(2 * spec.copiesPerBook() - 1);
+                for (int c = 0; c < count; c++) {
+                    double draw = random.nextDouble();
+                    boolean damaged = draw < 0.01;
+                    boolean referenceOnly = !damaged && draw < 0.03;
+                    BookCondition condition = damaged ? BookCondition.DAMAGED : pick(COPY_CONDITIONS);
+                    add(copies, firstCopy + copyCount, bookId, damaged ? BookStatus.DAMAGED : BookStatus.AVAILABLE,
+                            "B" + bookId + "-" + (c + 1), condition.ordinal(),
+                            "Shelf " + (char) ('A' + i % 26) + "-" + (i % 100 + 1), referenceOnly, created, created);
+                    if (copyCount == copyState.length) {
+                        copyState = Arrays.copyOf(copyState, copyCount * 2);
+                    }
+                    copyState[copyCount++] = damaged || referenceOnly ? COPY_UNAVAILABLE : COPY_FREE;
+                }
+            }
+            copyStart[spec.books()] = copyCount;
+        }
+
+        private void generateLoan() {
+            long loanId = nextLoan++;
+            int member = skewed(spec.users(), MEMBER_SKEW);
+            long userId = firstUser + member;
+            int book = skewed(spec.books(), BOOK_SKEW);
+            long bookId = firstBook + book;
+            int copy = copyStart[book] + random.nextInt(copyStart[book + 1] - copyStart[book]);
+            long staffId = staff.get(random.nextInt(staff.size()));
+            String title = title(book);
+
+            int issuedDay = joinedDay[member] + random.nextInt(spec.historyDays() - joinedDay[member]);
+            LocalDateTime issuedAt = day(issuedDay).plusMinutes(OPENING_MINUTE + random.nextInt(OPEN_MINUTES));
+            int renewals = random.nextDouble() < RENEWAL_RATE ? 1 : 0;
+            LocalDateTime dueDate = issuedAt.plusDays((long) policy.borrowingPeriodDays() * (1 + renewals));
+            LocalDateTime renewedAt = renewals > 0 ? between(issuedAt, issuedAt.plusDays(policy.borrowingPeriodDays())) : null;
+
+            TransactionStatus status = TransactionStatus.RETURNED;
+            LocalDateTime returnedAt = null;
+            double draw = random.nextDouble();
+            if (dueDate.isAfter(asOf)) {
+                // Still inside the loan period: most are out, some came back early
+                int reserved = draw < STILL_OUT_RATE ? reserve(member, book, copy) : -1;
+                if (reserved >= 0) {
+                    copy = reserved;
+                    status = TransactionStatus.ACTIVE;
+                } else {
+                    returnedAt = between(issuedAt, asOf);
+                }
+            } else if (draw < LOST_RATE && dueDate.plusDays(LOST_AFTER_DAYS).isBefore(asOf) && copyState[copy] == COPY_FREE) {
+                copyState[copy] = COPY_LOST;
+                status = TransactionStatus.LOST;
+            } else if (draw < LOST_RATE + LATE_RATE) {
+                int lateDays = 1 + (int) (MAX_LATE_DAYS * Math.pow(random.nextDouble(), 2));
+                returnedAt = dueDate.plusDays(lateDays).plusMinutes(random.nextInt(OPEN_MINUTES));
+                if (!returnedAt.isBefore(asOf)) {
+                    // Would come back after asOf, so it is out and overdue now
+                    int reserved = reserve(member, book, copy);
+                    if (reserved >= 0) {
+                        copy = reserved;
+                        status = TransactionStatus.OVERDUE;
+                        returnedAt = null;
+                    } else {
+                        returnedAt = between(dueDate, asOf);
+                    }
+                }
+            } else {
+                returnedAt = between(issuedAt, dueDate);
+            }
+            long copyId = firstCopy + copy;
+
+            long overdueDays = 0;
+            if (status == TransactionStatus.RETURNED && returnedAt.isAfter(dueDate)) {
+                overdueDays = ChronoUnit.DAYS.between(dueDate, returnedAt);
+            } else if (status == TransactionStatus.OVERDUE || status == TransactionStatus.LOST) {
+                overdueDays = ChronoUnit.DAYS.between(dueDate, asOf);
+            }
+
+            LocalDateTime reminderAt = dueDate.minusHours(dueDateWheel.getReminderLeadHours());
+            boolean reminded = reminderAt.isBefore(asOf) && (returnedAt == null || returnedAt.isAfter(reminderAt));
+
+            FineDraft fine = null;
+            if (status == TransactionStatus.LOST) {
+                fine = fineDraft(FineType.LOST, STANDARD_BOOK_PRICE * policy.lostBookFinePercentage() / 100.0,
+                        String.format("Lost book fine for '%s'", title), dueDate.plusDays(LOST_AFTER_DAYS), false);
+            } else if (overdueDays > policy.gracePeriodDays()) {
+                double amount = Math.min((overdueDays - policy.gracePeriodDays()) * policy.finePerDayOverdue(),
+                        policy.maxFineAmount());
+                fine = fineDraft(FineType.OVERDUE, amount,
+                        String.format("Overdue fine for book '%s' - %d days overdue", title, overdueDays),
+                        dueDate.plusDays(policy.gracePeriodDays() + 1L), status == TransactionStatus.OVERDUE);
+            }
+
+            add(loans, loanId, userId, copyId, status, issuedAt, dueDate, returnedAt, renewedAt,
+                    reminded ? reminderAt : null, renewals, policy.renewalLimit(), staffId,
+                    returnedAt != null ? staffId : null, (int) overdueDays, fine != null ? fine.amount() : 0.0,
+                    fine != null && fine.status() == FineStatus.PAID,
+                    returnedAt != null ? (random.nextDouble() < 0.9 ? BookCondition.GOOD : BookCondition.FAIR) : null);
+            if (fine != null) {
+                addFine(fine, loanId, userId, bookId, staffId);
+            }
+
+            notify(userId, NotificationType.RENEWAL_CONFIRMATION, "Book Checked Out Successfully",
+                    String.format("You have successfully checked out the book '%s'.", title), issuedAt);
+            add(activities, userId, ActivityType.BOOK_ISSUED, "Checked out book: " + title, bookId, loanId, null,
+                    ActivitySeverity.INFO, issuedAt);
+            if (reminded) {
+                notify(userId, NotificationType.BOOK_DUE_REMINDER, "Book Due Reminder",
+                        String.format("This is a reminder that your book '%s' is due soon.", title), reminderAt);
+            }
+            if (overdueDays > 0) {
+                notify(userId, NotificationType.BOOK_OVERDUE, "Overdue Book Notice",
+                        String.format("Your book '%s' is overdue.", title), dueDate.plusDays(1));
+            }
+            if (status == TransactionStatus.LOST) {
+                add(activities, userId, ActivityType.BOOK_LOST, "Book lost: " + title, bookId, loanId, null,
+                        ActivitySeverity.WARNING, dueDate.plusDays(LOST_AFTER_DAYS));
+            }
+            if (returnedAt != null) {
+                notify(userId, NotificationType.RENEWAL_CONFIRMATION, "Book Returned Successfully",
+                        String.format("You have successfully returned the book '%s'.", title), returnedAt);
+                add(activities, userId, ActivityType.BOOK_RETURNED, "Returned book: " + title, bookId, loanId, null,
+                        ActivitySeverity.INFO, returnedAt);
+                if (random.nextDouble() < spec.reviewRate() && reviewed.add((long) member * spec.books() + book)) {
+                    LocalDateTime reviewedAt = between(returnedAt, min(returnedAt.plusDays(7), asOf));
+                    add(reviews, userId, bookId, rating(), random.nextBoolean() ? pick(REVIEWS) : null, reviewedAt,
+                            reviewedAt);
+                }
+            }
+        }
+
+        /**
+         * How a fine turned out by asOf. Fines on loans still out are PENDING; the others are
+         * mostly settled within two weeks of being raised.
+         */
+        private FineDraft fineDraft(FineType type, double amount, String description, LocalDateTime createdAt,
+                                    boolean stillOut) {
+            double draw = random.nextDouble();
+            FineStatus status = stillOut || draw >= 0.85 ? FineStatus.PENDING
+                    : draw < 0.70 ? FineStatus.PAID : draw < 0.78 ? FineStatus.WAIVED : FineStatus.PARTIALLY_PAID;
+            double paid = status == FineStatus.PAID ? amount
+                    : status == FineStatus.PARTIALLY_PAID ? Math.round(amount * (20 + random.nextInt(60))) / 100.0 : 0;
+            LocalDateTime settledAt = status == FineStatus.PENDING ? null
+                    : between(createdAt, min(createdAt.plusDays(14), asOf));
+            return new FineDraft(type, amount, description, createdAt, status, paid, settledAt);
+        }
+
+        /** The fine row, then its payments, notifications and activities. */
+        private void addFine(FineDraft fine, long loanId, long userId, long bookId, long staffId) {
+            long fineId = nextFine++;
+            String reference = fine.paid() > 0 ? "SYN-" + fineId : null;
+            add(fines, fineId, userId, loanId, fine.type(), fine.amount(), fine.paid(), fine.status(), fine.description(),
+                    fine.createdAt(), fine.status() == FineStatus.PAID ? fine.settledAt() : null,
+                    fine.createdAt().plusDays(30), staffId, fine.paid() > 0 ? staffId : null, reference);
+            notify(userId, NotificationType.FINE_NOTICE, "Fine Notice",
+                    String.format("A fine of $%.2f has been issued to your account.", fine.amount()), fine.createdAt());
+            add(activities, userId, ActivityType.FINE_CREATED, String.format("Fine created: $%.2f", fine.amount()),
+                    bookId, loanId, fineId, ActivitySeverity.INFO, fine.createdAt());
+            if (fine.status() == FineStatus.WAIVED) {
+                add(activities, userId, ActivityType.FINE_WAIVED, String.format("Fine waived: $%.2f", fine.amount()),
+                        bookId, loanId, fineId, ActivitySeverity.INFO, fine.settledAt());
+            }
+            if (fine.paid() > 0) {
+                addPayments(fine, fineId, userId, reference);
+            }
+        }
+
+        private void add(Table table, Object... values) {
+            table.rows.add(values);
+            if (table.rows.size() >= spec.batchSize()) {
+                flush();
+            }
+        }
+
+        /** The completed payment, after a declined attempt now and then for non-cash methods. */
+        private void addPayments(FineDraft fine, long fineId, long userId, String reference) {
+            PaymentType type = fine.type() == FineType.LOST ? PaymentType.LOST_BOOK_CHARGE : PaymentType.OVERDUE_CHARGE;
+            PaymentMethod method = pick(PAYMENT_METHODS);
+            String description = "Payment for " + fine.description();
+            if (method != PaymentMethod.CASH && random.nextDouble() < FAILED_PAYMENT_RATE) {
+                LocalDateTime failedAt = fine.settledAt().minusMinutes(10);
+                add(payments, nextPayment++, userId, fineId, fine.paid(), type, PaymentStatus.FAILED, method, null,
+                        description, "Payment declined", failedAt, null);
+                add(activities, userId, ActivityType.PAYMENT_FAILED, String.format("Payment failed: $%.2f", fine.paid()),
+                        null, null, fineId, ActivitySeverity.WARNING, failedAt);
+            }
+            add(payments, nextPayment++, userId, fineId, fine.paid(), type, PaymentStatus.COMPLETED, method, reference,
+                    description, null, fine.settledAt().minusMinutes(2), fine.settledAt());
+            notify(userId, NotificationType.PAYMENT_CONFIRMATION, "Payment Confirmation",
+                    String.format("Your payment of $%.2f has been received.", fine.paid()), fine.settledAt());
+            add(activities, userId, ActivityType.FINE_PAID, String.format("Fine payment: $%.2f", fine.paid()),
+                    null, null, fineId, ActivitySeverity.INFO, fine.settledAt());
+        }
+
+        private void notify(long userId, NotificationType type, String subject, String message, LocalDateTime sentAt) {
+            LocalDateTime readAt = random.nextDouble() < NOTIFICATION_READ_RATE
+                    ? sentAt.plusMinutes(random.nextInt(3 * 24 * 60)) : null;
+            if (readAt != null && !readAt.isBefore(asOf)) {
+                readAt = null;
+            }
+            add(notifications, userId, type, subject, message,
+                    readAt != null ? NotificationStatus.READ : NotificationStatus.SENT, NotificationChannel.IN_APP,
+                    sentAt, sentAt, readAt, 0, 3);
+        }
+
+        /**
+         * Take a free copy of the book for a loan that is still out, starting from the one
+         * drawn; -1 when every copy is out or the member is at the policy's loan limit.
+         */
+        private int reserve(int member, int book, int copy) {
+            if (openLoans[member] >= policy.maxBooksPerUser()) {
+                return -1;
+            }
+            int first = copyStart[book];
+            int count = copyStart[book + 1] - first;
+            for (int i = 0; i < count; i++) {
+                int candidate = first + (copy - first + i) % count;
+                if (copyState[candidate] == COPY_FREE) {
+                    copyState[candidate] = COPY_ON_LOAN;
+                    openLoans[member]++;
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+
+        /** Copies were inserted AVAILABLE; mark the ones on loan or lost as of asOf. */
+        private long markCopiesOut() {
+            List<Object[]> changes = new ArrayList<>();
+            for (int c = 0; c < copyStart[spec.books()]; c++) {
+                if (copyState[c] == COPY_ON_LOAN || copyState[c] == COPY_LOST) {
+                    BookStatus status = copyState[c] == COPY_ON_LOAN ? BookStatus.CHECKED_OUT : BookStatus.LOST;
+                    changes.add(new Object[] {status.name(), firstCopy + c});
+                }
+            }
+            for (int from = 0; from < changes.size(); from += spec.batchSize()) {
+                List<Object[]> batch = changes.subList(from, Math.min(changes.size(), from + spec.batchSize()));
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate("UPDATE book_copies SET status = ? WHERE id = ?", batch));
+            }
+            return changes.size();
+        }
+
+        /**
+         * Keys were inserted explicitly. MySQL moves AUTO_INCREMENT past them on its own, H2
+         * identity columns have to be told.
+         */
+        private void restartIdentities() {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"H2".equals(product)) {
+                return;
+            }
+            for (String table : List.of("users", "authors", "publishers", "books", "book_copies", "book_transactions",
+                    "fines", "payments")) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+            }
+        }
+
+        private void flush() {
+            transactionTemplate.executeWithoutResult(status -> tables.forEach(this::insert));
+        }
+
+        private void insert(Table table) {
+            if (table.rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(table.sql, table.rows, table.rows.size(),
+                    (statement, row) -> bind(statement, row, table.types));
+            table.written += table.rows.size();
+            table.rows.clear();
+        }
+
+        private Table table(String name, String columns, int... types) {
+            Table table = new Table(name, columns, types);
+            tables.add(table);
+            return table;
+        }
+
+        private long nextId(String table) {
+            return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+        }
+
+        /** Titles are a function of the book alone, so messages can repeat them without storing them. */
+        private String title(int book) {
+            SplittableRandom words = new SplittableRandom(spec.seed() ^ (book + 1L) * 0x9E3779B97F4A7C15L);
+            String adjective = ADJECTIVES[words.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[words.nextInt(NOUNS.length)];
+            String other = NOUNS[words.nextInt(NOUNS.length)];
+            return switch (words.nextInt(4)) {
+                case 0 -> "The " + adjective + " " + noun;
+                case 1 -> noun + " of the " + adjective + " " + other;
+                case 2 -> "A " + noun + " in " + other;
+                default -> adjective + " " + noun + " " + (1 + words.nextInt(9));
+            };
+        }
+
+        private int rating() {
+            double draw = random.nextDouble();
+            int stars = 0;
+            while (draw >= RATING_SHARES[stars]) {
+                stars++;
+            }
+            return stars + 1;
+        }
+
+        /** An index in [0, n) where low indexes are drawn more often the larger the exponent. */
+        private int skewed(int n, double exponent) {
+            return Math.min(n - 1, (int) (n * Math.pow(random.nextDouble(), exponent)));
+        }
+
+        /** A minute-precision instant in [from, to), or from when the range is shorter. */
+        private LocalDateTime between(LocalDateTime from, LocalDateTime to) {
+            long minutes = ChronoUnit.MINUTES.between(from, to);
+            return minutes > 0 ? from.plusMinutes(random.nextLong(minutes)) : from;
+        }
+
+        private LocalDateTime day(int offset) {
+            return start.plusDays(offset);
+        }
+
+        private <T> T pick(T[] values) {
+            return values[random.nextInt(values.length)];
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static void bind(PreparedStatement statement, Object[] row, int[] types) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            if (value == null) {
+                statement.setNull(i + 1, types[i]);
+            } else if (value instanceof LocalDateTime time) {
+                statement.setTimestamp(i + 1, Timestamp.valueOf(time));
+            } else if (value instanceof Enum<?> constant) {
+                statement.setString(i + 1, constant.name());
+            } else {
+                statement.setObject(i + 1, value, types[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sliit.library.service;
+
+import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.config.JwtTokenUtil.TokenUser;
+import com.sliit.library.model.DeletedUser;
+import com.sliit.library.model.User;
+import com.sliit.library.model.UserRole;
+import com.sliit.library.model.UserStatus;
+import com.sliit.library.repository.DeletedUserRepository;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens are trusted on their claims alone, so this keeps the users whose tokens may now say
+ * more than they should: disabled or deleted accounts, and users whose role or username
+ * changed. A token is refused when its claims no longer match the entry. Entries are recorded
+ * when UserService changes a user on this node and by {@link #refresh()} polling recently
+ * updated users and deletion tombstones for other nodes' changes; they lapse once every token
+ * they could match has expired.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenDenylist {
+
+    // Overlap between polls so updates committed while the previous poll ran are not missed
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final UserRepository userRepository;
+    private final DeletedUserRepository deletedUserRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile LocalDateTime polledFrom = LocalDateTime.now().minusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY);
+
+    private record Entry(String username, UserRole role, UserStatus status, boolean deleted, LocalDateTime expiresAt) {}
+
+    public static boolean isDisabled(UserStatus status) {
+        return status == UserStatus.SUSPENDED || status == UserStatus.INACTIVE;
+    }
+
+    // Pick up changes made before startup whose tokens may still be in use
+    @PostConstruct
+    void warm() {
+        refresh();
+    }
+
+    public boolean isRevoked(TokenUser user) {
+        if (isDisabled(user.status())) {
+            return true;
+        }
+        Entry entry = entries.get(user.id());
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt().isBefore(LocalDateTime.now())) {
+            entries.remove(user.id(), entry);
+            return false;
+        }
+        return entry.deleted() || isDisabled(entry.status()) || entry.role() != user.role()
+                || !Objects.equals(entry.username(), user.username());
+    }
+
+    /** Record the user's current role, status and username once the surrounding transaction commits. */
+    public void recordAfterCommit(User user) {
+        Entry entry = new Entry(user.getUsername(), user.getRole(), user.getStatus(), false, expiry());
+        AfterCommit.run(() -> entries.put(user.getId(), entry));
+    }
+
+    /**
+     * Write a tombstone for the deleted user in the surrounding transaction, for other nodes to
+     * poll, and refuse its tokens here once that transaction commits.
+     */
+    public void recordDeleted(Long userId) {
+        deletedUserRepository.save(new DeletedUser(userId, LocalDateTime.now()));
+        Entry entry = deletedEntry();
+        AfterCommit.run(() -> entries.put(userId, entry));
+    }
+
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        for (UserRepository.UserStamp user : userRepository.findChangedSince(polledFrom)) {
+            entries.put(user.getId(), new Entry(user.getUsername(), user.getRole(), user.getStatus(), false, expiry()));
+        }
+        for (Long userId : deletedUserRepository.findIdsDeletedSince(polledFrom)) {
+            entries.put(userId, deletedEntry());
+        }
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(started));
+        deletedUserRepository.purgeDeletedBefore(started.minusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY));
+        polledFrom = started.minusSeconds(POLL_OVERLAP_SECONDS);
+    }
+
+    private static Entry deletedEntry() {
+        return new Entry(null, null, null, true, expiry());
+    }
+
+    private static LocalDateTime expiry() {
+        return LocalDateTime.now().plusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY);
+    }
+}
@@ -0,0 +1,239 @@
+package com.sliit.library.service;
+
+import com.sliit.library.exception.BusinessException;
+import com.sliit.library.util.RingBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Timing traces of sampled API requests. A sampled request collects nested spans for the
+ * service and repository calls it makes, each with the SQL statements issued while it was the
+ * innermost span; unsampled requests cost one thread-local read per call. Finished traces go
+ * to a ring of the most recent ones, and the slowest are kept apart until slower ones arrive.
+ */
+@Service
+public class TraceService {
+
+    public enum SpanKind { REQUEST, SERVICE, REPOSITORY }
+
+    public record SpanView(String name, SpanKind kind, double startMs, double durationMs, int sqlStatements,
+                           List<SpanView> children) {}
+
+    public record TraceSummary(long id, LocalDateTime startedAt, String name, int status, double durationMs,
+                               int sqlStatements, int spans, int droppedSpans) {}
+
+    public record TraceRecord(TraceSummary summary, SpanView root) {}
+
+    /** A call in progress; children and statement counts are only touched by the request's thread. */
+    public static final class Span {
+        private final String name;
+        private final SpanKind kind;
+        private final long startedAt = System.nanoTime();
+        private long endedAt;
+        private boolean ended;
+        private int sqlStatements;
+        private List<Span> children;
+
+        private Span(String name, SpanKind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+
+    private static final class Trace {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Span root;
+        private final Deque<Span> open = new ArrayDeque<>();
+        private int spans = 1;
+        private int dropped;
+
+        private Trace(Span root) {
+            this.root = root;
+            open.push(root);
+        }
+    }
+
+    private final ThreadLocal<Trace> active = new ThreadLocal<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final RingBuffer<TraceRecord> recent;
+    private final PriorityQueue<TraceRecord> slowest =
+            new PriorityQueue<>(Comparator.comparingDouble(trace -> trace.summary().durationMs()));
+    private final int slowestKept;
+    private final int maxSpans;
+    private volatile double sampleRate;
+
+    public TraceService(@Value("${app.tracing.sample-rate:0.01}") double sampleRate,
+                        @Value("${app.tracing.recent-capacity:200}") int recentCapacity,
+                        @Value("${app.tracing.slowest-kept:20}") int slowestKept,
+                        @Value("${app.tracing.max-spans:500}") int maxSpans) {
+        this.recent = new RingBuffer<>(recentCapacity);
+        this.slowestKept = slowestKept;
+        this.maxSpans = maxSpans;
+        setSampleRate(sampleRate);
+    }
+
+    /** Start tracing the current request if it is sampled. */
+    public void begin(String name) {
+        double rate = sampleRate;
+        if (rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate)) {
+            active.set(new Trace(new Span(name, SpanKind.REQUEST)));
+        } else {
+            active.remove();
+        }
+    }
+
+    public boolean isTracing() {
+        return active.get() != null;
+    }
+
+    /** Open a child of the innermost span; null when the request is not traced or the trace is full. */
+    public Span enter(String name, SpanKind kind) {
+        Trace trace = active.get();
+        if (trace == null) {
+            return null;
+        }
+        if (trace.spans >= maxSpans) {
+            trace.dropped++;
+            return null;
+        }
+        Span span = new Span(name, kind);
+        Span parent = trace.open.peek();
+        if (parent.children == null) {
+            parent.children = new ArrayList<>();
+        }
+        parent.children.add(span);
+        trace.open.push(span);
+        trace.spans++;
+        return span;
+    }
+
+    public void exit(Span span) {
+        Trace trace = active.get();
+        if (span == null || trace == null) {
+            return;
+        }
+        close(span);
+        // Spans close in order; anything above this one was left open by an exception path
+        while (!trace.open.isEmpty() && trace.open.pop() != span) {
+            // discard
+        }
+    }
+
+    /** Count a SQL statement against the innermost open span. */
+    public void countStatement() {
+        Trace trace = active.get();
+        if (trace != null && !trace.open.isEmpty()) {
+            trace.open.peek().sqlStatements++;
+        }
+    }
+
+    /** Close the request's trace and keep it; does nothing for unsampled requests. */
+    public void finish(String name, int status) {
+        Trace trace = active.get();
+        if (trace == null) {
+            return;
+        }
+        active.remove();
+        Span root = trace.root;
+        close(root);
+        SpanView view = view(root, root.startedAt, name);
+        TraceRecord record = new TraceRecord(new TraceSummary(ids.incrementAndGet(), trace.startedAt, name, status,
+                view.durationMs(), totalStatements(view), trace.spans, trace.dropped), view);
+        recent.add(record);
+        synchronized (slowest) {
+            slowest.add(record);
+            if (slowest.size() > slowestKept) {
+                slowest.poll();
+            }
+        }
+    }
+
+    public List<TraceSummary> getRecent(int limit) {
+        return recent.newest(limit, trace -> true).stream().map(TraceRecord::summary).toList();
+    }
+
+    public List<TraceSummary> getSlowest() {
+        synchronized (slowest) {
+            return slowest.stream()
+                    .map(TraceRecord::summary)
+                    .sorted(Comparator.comparingDouble(TraceSummary::durationMs).reversed())
+                    .toList();
+        }
+    }
+
+    public Optional<TraceRecord> find(long id) {
+        List<TraceRecord> slow;
+        synchronized (slowest) {
+            slow = List.copyOf(slowest);
+        }
+        return Stream.concat(recent.newest(recent.capacity(), trace -> trace.summary().id() == id).stream(), slow.stream())
+                .filter(trace -> trace.summary().id() == id)
+                .findFirst();
+    }
+
+    /** The span tree as indented text: duration, own SQL statements and name per line. */
+    public String render(TraceRecord trace) {
+        StringBuilder out = new StringBuilder();
+        TraceSummary summary = trace.summary();
+        out.append(String.format("#%d %s -> %d at %s, %.1f ms, %d SQL, %d spans%s%n", summary.id(), summary.name(),
+                summary.status(), summary.startedAt(), summary.durationMs(), summary.sqlStatements(), summary.spans(),
+                summary.droppedSpans() > 0 ? " (" + summary.droppedSpans() + " not recorded)" : ""));
+        render(out, trace.root(), 0);
+        return out.toString();
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new BusinessException("Sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    private static void render(StringBuilder out, SpanView span, int depth) {
+        out.append(String.format("%10.2f ms  %s%s", span.durationMs(), "  ".repeat(depth), span.name()));
+        if (span.sqlStatements() > 0) {
+            out.append("  [").append(span.sqlStatements()).append(" SQL]");
+        }
+        out.append('\n');
+        for (SpanView child : span.children()) {
+            render(out, child, depth + 1);
+        }
+    }
+
+    private static void close(Span span) {
+        span.endedAt = System.nanoTime();
+        span.ended = true;
+    }
+
+    private static SpanView view(Span span, long origin, String rootName) {
+        List<SpanView> children = span.children == null ? List.of()
+                : span.children.stream().map(child -> view(child, origin, null)).toList();
+        long endedAt = span.ended ? span.endedAt : System.nanoTime();
+        return new SpanView(rootName != null ? rootName : span.name, span.kind, (span.startedAt - origin) / 1_000_000.0,
+                (endedAt - span.startedAt) / 1_000_000.0, span.sqlStatements, children);
+    }
+
+    private static int totalStatements(SpanView span) {
+        int total = span.sqlStatements();
+        for (SpanView child : span.children()) {
+            total += totalStatements(child);
+        }
+        return total;
+    }
+}
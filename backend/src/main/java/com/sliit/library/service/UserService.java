@@ -28,9 +28,10 @@ public class UserService {
   private final ImageUploadService imageUploadService;
   private final BookTransactionRepository bookTransactionRepo;
   private final BookReviewRepository bookReviewRepo;
+  private final TokenDenylist tokenDenylist;
 
   public UserService(UserRepository repo, PasswordEncoder encoder, ActivityService activityService, CurrentUser currentUser, ImageUploadService imageUploadService,
-                     BookTransactionRepository bookTransactionRepo, BookReviewRepository bookReviewRepo) {
+                     BookTransactionRepository bookTransactionRepo, BookReviewRepository bookReviewRepo, TokenDenylist tokenDenylist) {
     this.repo = repo;
     this.encoder = encoder;
     this.activityService = activityService;
@@ -38,6 +39,7 @@ public class UserService {
     this.imageUploadService = imageUploadService;
     this.bookTransactionRepo = bookTransactionRepo;
     this.bookReviewRepo = bookReviewRepo;
+    this.tokenDenylist = tokenDenylist;
   }
 
   @Transactional
@@ -163,6 +165,8 @@ public class UserService {
       user.setName(req.name());
     if (req.picture() != null)
       user.setPicture(req.picture());
+    // Tokens already issued still carry the old role, status and username
+    tokenDenylist.recordAfterCommit(user);
 
     activityService.log(currentUser.require(), ActivityType.USER_UPDATED, "User " + user.getName() + " updated!");
 
@@ -189,6 +193,7 @@ public class UserService {
 
     // Actually delete the user from database
     repo.delete(user);
+    tokenDenylist.recordDeleted(user.getId());
     activityService.log(currentUser.require(), ActivityType.USER_DELETED, "User " + user.getName() + " permanently deleted!");
   }
 
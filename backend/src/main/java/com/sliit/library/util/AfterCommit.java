@@ -0,0 +1,25 @@
+package com.sliit.library.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers in-memory side effects (indexes, counters) until the surrounding transaction commits. */
+public final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  /** Run the action after commit, or immediately when no transaction is active. */
+  public static void run(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
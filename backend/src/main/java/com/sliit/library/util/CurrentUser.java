@@ -1,5 +1,6 @@
 package com.sliit.library.util;
 
+import com.sliit.library.config.JwtTokenUtil.TokenUser;
 import com.sliit.library.exception.ApiException;
 import com.sliit.library.model.User;
 import com.sliit.library.repository.UserRepository;
@@ -11,35 +12,61 @@ import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
 
+/**
+ * The authenticated user. The entity is looked up on first use and kept for the rest of the
+ * HTTP request, so the controller and every service it calls share one lookup; outside a
+ * request (jobs, STOMP) each call looks the user up again.
+ */
 @Component
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CurrentUser {
 
+  private static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName() + ".user";
+
   private final UserRepository userRepository;
   private final SecurityContextHolderStrategy ctx =
       SecurityContextHolder.getContextHolderStrategy();
 
+  // The user resolved for one principal; a request re-authenticated as someone else misses
+  private record Resolved(String username, User user) {}
+
   /** Get the username of the authenticated principal (throws if not logged in). */
   public String requireUsername() {
-    Authentication auth = ctx.getContext().getAuthentication();
-    if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
-      throw new ApiException("Not authenticated");
-    }
+    Authentication auth = requireAuthentication();
     Object principal = auth.getPrincipal();
     if (principal instanceof UserDetails ud) return ud.getUsername();
     // JWT / custom principals typically make getName() return the subject/username
     return auth.getName();
   }
 
+  /** Get the id of the authenticated user, from the token's claims when it carries them. */
+  public Long requireId() {
+    if (requireAuthentication().getPrincipal() instanceof TokenUser tokenUser) {
+      return tokenUser.id();
+    }
+    return require().getId();
+  }
+
   /** Get the full User entity (throws if not logged in or user missing). */
   public User require() {
     String username = requireUsername();
-    return userRepository.findByUsername(username)
-        .orElseThrow(() -> new ApiException("User not found: " + username));
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null
+        && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Resolved resolved
+        && resolved.username().equals(username)) {
+      return resolved.user();
+    }
+    User user = lookup(username);
+    if (request != null) {
+      request.setAttribute(REQUEST_ATTRIBUTE, new Resolved(username, user), RequestAttributes.SCOPE_REQUEST);
+    }
+    return user;
   }
 
   /** Optional variant: empty if not authenticated or not found. */
@@ -50,4 +77,22 @@ public class CurrentUser {
       return Optional.empty();
     }
   }
+
+  private Authentication requireAuthentication() {
+    Authentication auth = ctx.getContext().getAuthentication();
+    if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+      throw new ApiException("Not authenticated");
+    }
+    return auth;
+  }
+
+  private User lookup(String username) {
+    // Tokens carry the user id, so look up by primary key where possible
+    if (ctx.getContext().getAuthentication().getPrincipal() instanceof TokenUser tokenUser) {
+      return userRepository.findById(tokenUser.id())
+          .orElseThrow(() -> new ApiException("User not found: " + username));
+    }
+    return userRepository.findByUsername(username)
+        .orElseThrow(() -> new ApiException("User not found: " + username));
+  }
 }
@@ -0,0 +1,116 @@
+package com.sliit.library.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds. Values below 16 get a bucket
+ * each; above that every power of two is split into 16 linear sub-buckets, so a bucket is
+ * never wider than 1/16 of its lower bound (quantiles are within ~6%). Values beyond about
+ * 67 s share the last bucket, though {@link #max()} stays exact. Recording is a few atomic
+ * adds and allocates nothing.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int MAX_EXPONENT = 25;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long micros) {
+    long value = Math.max(0, micros);
+    counts.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long current;
+    while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+      // lost a race with another writer; retry against the new max
+    }
+  }
+
+  public long count() {
+    return count.get();
+  }
+
+  public long sum() {
+    return sum.get();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  /** Add this histogram's counts to a merge in progress. */
+  public void addTo(Snapshot snapshot) {
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot.counts[i] += counts.get(i);
+    }
+    snapshot.count += count.get();
+    snapshot.sum += sum.get();
+    snapshot.max = Math.max(snapshot.max, max.get());
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKETS - 1;
+    }
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+    return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  // Largest value that falls into the bucket
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+    int sub = bucket % SUB_COUNT;
+    return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+  }
+
+  /** Plain, single-threaded merge of one or more histograms, read for quantiles. */
+  public static final class Snapshot {
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public long count() {
+      return count;
+    }
+
+    public long sum() {
+      return sum;
+    }
+
+    public long max() {
+      return max;
+    }
+
+    /** Upper bound of the bucket holding the q-th quantile (0..1), capped at the exact max. */
+    public long quantile(double q) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(q * count));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(upperBoundOf(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.sliit.library.util;
+
+/**
+ * SQL statements and JDBC time of the HTTP request running on this thread, fed by the
+ * Hibernate hooks registered in config. Statements issued on other threads (after-commit
+ * writers, dispatchers, schedulers) are not attributed to any request.
+ */
+public final class RequestSqlStats {
+
+  private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+  private int statements;
+  private long jdbcNanos;
+
+  private RequestSqlStats() {}
+
+  /** Start counting for the request on this thread. */
+  public static RequestSqlStats begin() {
+    RequestSqlStats stats = new RequestSqlStats();
+    CURRENT.set(stats);
+    return stats;
+  }
+
+  /** Stop counting; the returned totals are final. */
+  public static RequestSqlStats end() {
+    RequestSqlStats stats = CURRENT.get();
+    CURRENT.remove();
+    return stats;
+  }
+
+  public static void statementPrepared() {
+    RequestSqlStats stats = CURRENT.get();
+    if (stats != null) {
+      stats.statements++;
+    }
+  }
+
+  public static void jdbcTime(long nanos) {
+    RequestSqlStats stats = CURRENT.get();
+    if (stats != null) {
+      stats.jdbcNanos += nanos;
+    }
+  }
+
+  public int statements() {
+    return statements;
+  }
+
+  public double jdbcMillis() {
+    return jdbcNanos / 1_000_000.0;
+  }
+}
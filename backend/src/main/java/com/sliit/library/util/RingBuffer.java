@@ -0,0 +1,55 @@
+package com.sliit.library.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, lock-free buffer of the most recent values. Writers claim a sequence number and
+ * store into its slot, overwriting the value one lap older; readers walk back from the newest
+ * sequence and skip slots that are mid-write or already overwritten, so neither side blocks.
+ */
+public final class RingBuffer<T> {
+
+  private record Slot<T>(long sequence, T value) {}
+
+  private final int capacity;
+  private final AtomicReferenceArray<Slot<T>> slots;
+  private final AtomicLong next = new AtomicLong();
+
+  public RingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  public void add(T value) {
+    long sequence = next.getAndIncrement();
+    slots.set((int) (sequence % capacity), new Slot<>(sequence, value));
+  }
+
+  /** Up to limit of the newest values accepted by the filter, newest first. */
+  public List<T> newest(int limit, Predicate<? super T> filter) {
+    List<T> values = new ArrayList<>(Math.min(limit, capacity));
+    long head = next.get();
+    for (long sequence = head - 1; sequence >= Math.max(0, head - capacity) && values.size() < limit; sequence--) {
+      Slot<T> slot = slots.get((int) (sequence % capacity));
+      if (slot != null && slot.sequence() == sequence && filter.test(slot.value())) {
+        values.add(slot.value());
+      }
+    }
+    return values;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return (int) Math.min(next.get(), capacity);
+  }
+}
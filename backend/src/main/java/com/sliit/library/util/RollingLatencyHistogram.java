@@ -0,0 +1,68 @@
+package com.sliit.library.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latencies of the last hour in one-minute {@link LatencyHistogram}s, kept in a ring that is
+ * overwritten as minutes pass, plus running totals since startup. A window of n minutes
+ * merges the current minute with the n before it, so it spans between n and n + 1 minutes.
+ * The only allocation is a fresh histogram when a minute's first value arrives.
+ */
+public final class RollingLatencyHistogram {
+
+  public static final int MAX_WINDOW_MINUTES = 60;
+  private static final int SLOTS = MAX_WINDOW_MINUTES + 1;
+  private static final long MINUTE_MS = 60_000L;
+
+  private record Minute(long minute, LatencyHistogram histogram) {}
+
+  private final AtomicReferenceArray<Minute> minutes = new AtomicReferenceArray<>(SLOTS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+
+  public void record(long micros, long nowMs) {
+    long minute = nowMs / MINUTE_MS;
+    int index = (int) (minute % SLOTS);
+    Minute slot = minutes.get(index);
+    if (slot == null || slot.minute() < minute) {
+      Minute fresh = new Minute(minute, new LatencyHistogram());
+      // A writer that lost the race records into the winner's histogram for the same minute
+      slot = minutes.compareAndSet(index, slot, fresh) ? fresh : minutes.get(index);
+    }
+    slot.histogram().record(micros);
+    count.incrementAndGet();
+    sum.addAndGet(Math.max(0, micros));
+  }
+
+  /** Values recorded since startup. */
+  public long count() {
+    return count.get();
+  }
+
+  /** Sum of the values recorded since startup, in microseconds. */
+  public long sum() {
+    return sum.get();
+  }
+
+  /** Merge of the minutes within the window ending at nowMs. */
+  public LatencyHistogram.Snapshot window(int windowMinutes, long nowMs) {
+    if (windowMinutes < 0 || windowMinutes > MAX_WINDOW_MINUTES) {
+      throw new IllegalArgumentException("window must be 0.." + MAX_WINDOW_MINUTES + " minutes");
+    }
+    long current = nowMs / MINUTE_MS;
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+    for (int i = 0; i < SLOTS; i++) {
+      Minute slot = minutes.get(i);
+      if (slot != null && slot.minute() <= current && slot.minute() >= current - windowMinutes) {
+        slot.histogram().addTo(snapshot);
+      }
+    }
+    return snapshot;
+  }
+
+  /** Milliseconds actually covered by a window ending at nowMs (the current minute is partial). */
+  public static long windowMs(int windowMinutes, long nowMs) {
+    return windowMinutes * MINUTE_MS + nowMs % MINUTE_MS;
+  }
+}
@@ -0,0 +1,149 @@
+package com.sliit.library.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of keyed deadlines (epoch millis). Each level covers wheelSize
+ * ticks of the level below; deadlines beyond a level's span go to a lazily created coarser
+ * level and cascade down as the clock reaches them. Only non-empty buckets are queued, so
+ * {@link #advance(long)} costs the number of expired entries rather than elapsed ticks.
+ * Deadlines are rounded up to whole ticks, so a key is never returned before its deadline.
+ * Not thread-safe; callers synchronize.
+ */
+public final class TimingWheel<K> {
+
+  private final Level root;
+  private final Map<K, Entry<K>> entries = new HashMap<>();
+  private final PriorityQueue<Bucket<K>> queue = new PriorityQueue<>(Comparator.comparingLong(b -> b.expiration));
+  // Entries that were already due when scheduled
+  private final Set<Entry<K>> ready = new LinkedHashSet<>();
+
+  public TimingWheel(long tickMs, int wheelSize, long startMs) {
+    this.root = new Level(tickMs, wheelSize, startMs);
+  }
+
+  /** Schedule key at deadline, replacing any deadline it already had. */
+  public void schedule(K key, long deadlineMs) {
+    cancel(key);
+    Entry<K> entry = new Entry<>(key, Math.ceilDiv(deadlineMs, root.tickMs) * root.tickMs);
+    entries.put(key, entry);
+    root.add(entry);
+  }
+
+  public boolean cancel(K key) {
+    Entry<K> entry = entries.remove(key);
+    if (entry == null) {
+      return false;
+    }
+    if (entry.bucket != null) {
+      entry.bucket.entries.remove(entry);
+      entry.bucket = null;
+    } else {
+      ready.remove(entry);
+    }
+    return true;
+  }
+
+  /** Move the clock to nowMs and return (and forget) the keys whose deadline has passed. */
+  public List<K> advance(long nowMs) {
+    Bucket<K> bucket;
+    while ((bucket = queue.peek()) != null && bucket.expiration <= nowMs) {
+      queue.poll();
+      root.advanceClock(bucket.expiration);
+      List<Entry<K>> flushed = new ArrayList<>(bucket.entries);
+      bucket.entries.clear();
+      bucket.expiration = -1;
+      for (Entry<K> entry : flushed) {
+        entry.bucket = null;
+        // Either due now or re-inserted into a finer level
+        root.add(entry);
+      }
+    }
+    root.advanceClock(nowMs);
+
+    List<K> due = new ArrayList<>(ready.size());
+    for (Entry<K> entry : ready) {
+      entries.remove(entry.key);
+      due.add(entry.key);
+    }
+    ready.clear();
+    return due;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private static final class Entry<K> {
+    final K key;
+    final long deadline;
+    Bucket<K> bucket;
+
+    Entry(K key, long deadline) {
+      this.key = key;
+      this.deadline = deadline;
+    }
+  }
+
+  private static final class Bucket<K> {
+    final Set<Entry<K>> entries = new LinkedHashSet<>();
+    long expiration = -1;
+  }
+
+  private final class Level {
+    final long tickMs;
+    final int wheelSize;
+    final long interval;
+    final List<Bucket<K>> buckets;
+    long currentTime;
+    Level overflow;
+
+    Level(long tickMs, int wheelSize, long startMs) {
+      this.tickMs = tickMs;
+      this.wheelSize = wheelSize;
+      this.interval = tickMs * wheelSize;
+      this.buckets = new ArrayList<>(wheelSize);
+      for (int i = 0; i < wheelSize; i++) {
+        buckets.add(new Bucket<>());
+      }
+      this.currentTime = startMs - (startMs % tickMs);
+    }
+
+    void add(Entry<K> entry) {
+      if (entry.deadline <= currentTime) {
+        ready.add(entry);
+      } else if (entry.deadline < currentTime + interval) {
+        long virtualId = entry.deadline / tickMs;
+        Bucket<K> bucket = buckets.get((int) (virtualId % wheelSize));
+        bucket.entries.add(entry);
+        entry.bucket = bucket;
+        long expiration = virtualId * tickMs;
+        if (bucket.expiration != expiration) {
+          bucket.expiration = expiration;
+          queue.offer(bucket);
+        }
+      } else {
+        if (overflow == null) {
+          overflow = new Level(interval, wheelSize, currentTime);
+        }
+        overflow.add(entry);
+      }
+    }
+
+    void advanceClock(long timeMs) {
+      if (timeMs >= currentTime + tickMs) {
+        currentTime = timeMs - (timeMs % tickMs);
+        if (overflow != null) {
+          overflow.advanceClock(currentTime);
+        }
+      }
+    }
+  }
+}
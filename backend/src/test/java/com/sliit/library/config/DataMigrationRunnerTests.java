@@ -0,0 +1,86 @@
+package com.sliit.library.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.Notification;
+import com.sliit.library.model.NotificationChannel;
+import com.sliit.library.model.NotificationStatus;
+import com.sliit.library.model.NotificationType;
+import com.sliit.library.repository.NotificationRepository;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.NotificationService;
+
+/**
+ * Starts against a database whose notifications.status column is still the ENUM of the
+ * statuses known before SKIPPED: the column ends up as text, so an undeliverable
+ * notification is closed as SKIPPED instead of failing the write and being retried forever.
+ */
+@SpringBootTest(properties = {
+    // The table as an older release left it; ddl-auto=update adds the other columns
+    "spring.datasource.url=jdbc:h2:mem:legacy_notifications;DB_CLOSE_DELAY=-1;"
+            + "INIT=CREATE TABLE IF NOT EXISTS notifications (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "status ENUM('PENDING','SENT','DELIVERED','READ','FAILED','CANCELLED'))",
+    "app.notifications.dispatcher.enabled=true"
+})
+@ActiveProfiles("test")
+class DataMigrationRunnerTests {
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DataMigrationRunner dataMigrationRunner;
+
+    @Test
+    void legacyStatusColumnAcceptsSkipped() {
+        assertThat(statusColumnType()).isEqualTo("CHARACTER VARYING");
+
+        Notification sms = new Notification();
+        sms.setUser(userRepository.findByUsername("john_doe").orElseThrow());
+        sms.setType(NotificationType.FINE_NOTICE);
+        sms.setSubject("Text message");
+        sms.setMessage("Body of text message");
+        sms.setChannel(NotificationChannel.SMS);
+        transactionTemplate.executeWithoutResult(status -> notificationService.sendAll(List.of(sms)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                notificationRepository.findById(sms.getId()).orElseThrow().getStatus() == NotificationStatus.SKIPPED);
+        assertThat(notificationRepository.findById(sms.getId()).orElseThrow().getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void enumColumnLeftByAnUnmanagedSchemaIsConverted() {
+        // As if schema update had not run; the column may only hold statuses the ENUM lists
+        jdbcTemplate.update("DELETE FROM notifications WHERE status = 'SKIPPED'");
+        jdbcTemplate.execute("""
+                ALTER TABLE notifications ALTER COLUMN status
+                SET DATA TYPE ENUM('PENDING','SENT','DELIVERED','READ','FAILED','CANCELLED')
+                """);
+
+        dataMigrationRunner.migrateNotificationStatusColumn();
+        assertThat(statusColumnType()).isEqualTo("CHARACTER VARYING");
+
+        // Nothing left to do the second time
+        dataMigrationRunner.migrateNotificationStatusColumn();
+        assertThat(statusColumnType()).isEqualTo("CHARACTER VARYING");
+    }
+
+    private String statusColumnType() {
+        return jdbcTemplate.queryForObject("""
+                SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_NAME = 'NOTIFICATIONS' AND COLUMN_NAME = 'STATUS'
+                """, String.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.sliit.library.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.Principal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Runs STOMP frames through the interceptor: only staff may subscribe to the activity feed,
+ * whether by its name or by a pattern the simple broker would match against it, and no
+ * client may publish to a broker destination.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WebSocketAuthInterceptorTests {
+
+    private static final String[] FEED_PATTERNS = {
+        "/topic/activities", "/topic/**", "/topic/*", "/topic/activit?es", "/**", "/topic/{name}"
+    };
+
+    @Autowired private WebSocketAuthInterceptor interceptor;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void memberAndAnonymousCannotReachTheFeed() {
+        Principal member = connect("john_doe");
+        for (String destination : FEED_PATTERNS) {
+            assertThatThrownBy(() -> subscribe(member, destination)).isInstanceOf(MessagingException.class);
+            assertThatThrownBy(() -> subscribe(null, destination)).isInstanceOf(MessagingException.class);
+        }
+        assertThatCode(() -> subscribe(member, "/topic/notifications")).doesNotThrowAnyException();
+        assertThatCode(() -> subscribe(null, "/queue/notifications")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void staffCanSubscribeByNameOrPattern() {
+        Principal librarian = connect("librarian");
+        for (String destination : FEED_PATTERNS) {
+            assertThatCode(() -> subscribe(librarian, destination)).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void clientsCannotSendToBrokerDestinations() {
+        Principal member = connect("john_doe");
+        Principal librarian = connect("librarian");
+        assertThatThrownBy(() -> send(member, "/topic/activities")).isInstanceOf(MessagingException.class);
+        assertThatThrownBy(() -> send(null, "/topic/activities")).isInstanceOf(MessagingException.class);
+        assertThatThrownBy(() -> send(librarian, "/topic/activities")).isInstanceOf(MessagingException.class);
+        assertThatThrownBy(() -> send(member, "/queue/notifications")).isInstanceOf(MessagingException.class);
+        assertThatThrownBy(() -> send(member, "/user/librarian/queue/notifications")).isInstanceOf(MessagingException.class);
+        assertThatCode(() -> send(member, "/app/ping")).doesNotThrowAnyException();
+    }
+
+    private Principal connect(String username) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization",
+                "Bearer " + jwtTokenUtil.generateToken(userRepository.findByUsername(username).orElseThrow()));
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return StompHeaderAccessor.wrap(interceptor.preSend(message, null)).getUser();
+    }
+
+    private void subscribe(Principal user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(user);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), null);
+    }
+
+    private void send(Principal user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        interceptor.preSend(MessageBuilder.createMessage("{}".getBytes(), accessor.getMessageHeaders()), null);
+    }
+}
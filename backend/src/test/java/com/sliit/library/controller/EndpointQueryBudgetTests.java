@@ -0,0 +1,284 @@
+package com.sliit.library.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.config.SqlStatsFilter;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.BookCondition;
+import com.sliit.library.model.BookCopy;
+import com.sliit.library.model.BookRequest;
+import com.sliit.library.model.BookReview;
+import com.sliit.library.model.BookStatus;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.Fine;
+import com.sliit.library.model.FineStatus;
+import com.sliit.library.model.FineType;
+import com.sliit.library.model.Notification;
+import com.sliit.library.model.NotificationStatus;
+import com.sliit.library.model.NotificationType;
+import com.sliit.library.model.Payment;
+import com.sliit.library.model.PaymentMethod;
+import com.sliit.library.model.PaymentStatus;
+import com.sliit.library.model.PaymentType;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookCopyRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.BookRequestRepository;
+import com.sliit.library.repository.BookReviewRepository;
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.FineRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.NotificationRepository;
+import com.sliit.library.repository.PaymentRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Statement budgets for the read endpoints, measured through the debug headers of
+ * {@link SqlStatsFilter} against a dataset of a few hundred rows. Each budget sits a little
+ * above today's count and far below what the endpoint would issue with a query per row, so
+ * an N+1 introduced in a mapper or a lazy association fails here instead of in production.
+ */
+@SpringBootTest(properties = {
+    "app.sql-stats.debug-headers=true",
+    "app.tracing.sample-rate=0"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTests {
+
+    // Books in the dataset; loans, fines, payments, requests and notifications scale with it
+    private static final int BOOKS = 40;
+
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private BookCopyRepository bookCopyRepository;
+    @Autowired private BookTransactionRepository transactionRepository;
+    @Autowired private FineRepository fineRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private BookRequestRepository bookRequestRepository;
+    @Autowired private BookReviewRepository bookReviewRepository;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+
+    private long bookId;
+    private long memberId;
+
+    @BeforeAll
+    void seed() {
+        User librarian = userRepository.findByUsername("librarian").orElseThrow();
+        List<User> members = List.of(userRepository.findByUsername("john_doe").orElseThrow(),
+                userRepository.findByUsername("jane_smith").orElseThrow());
+        memberId = members.get(0).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Budget Book " + i);
+            book.setIsbn(String.format("979%010d", i));
+            book.setYear(1990 + i % 30);
+            book.setAuthor(authorRepository.findAll().get(i % (int) authorRepository.count()));
+            book.setPublisher(publisherRepository.findAll().get(0));
+            book.setCategory(categoryRepository.findAll().get(0));
+            book.setLanguage(languageRepository.findAll().get(0));
+            books.add(book);
+        }
+        books = bookRepository.saveAll(books);
+        bookId = books.get(0).getId();
+
+        List<BookCopy> copies = new ArrayList<>();
+        for (Book book : books) {
+            for (int c = 0; c < 3; c++) {
+                BookCopy copy = new BookCopy();
+                copy.setBook(book);
+                copy.setBarcode("BUDGET-" + book.getId() + "-" + c);
+                copy.setStatus(c == 0 ? BookStatus.CHECKED_OUT : BookStatus.AVAILABLE);
+                copy.setCondition(BookCondition.GOOD);
+                copy.setLocation("Shelf " + c);
+                copy.setCreatedAt(now);
+                copies.add(copy);
+            }
+        }
+        copies = bookCopyRepository.saveAll(copies);
+
+        List<BookTransaction> loans = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            TransactionStatus status = switch (i % 3) {
+                case 0 -> TransactionStatus.ACTIVE;
+                case 1 -> TransactionStatus.OVERDUE;
+                default -> TransactionStatus.RETURNED;
+            };
+            BookTransaction loan = new BookTransaction();
+            loan.setUser(members.get(i % 2));
+            loan.setBookCopy(copies.get(i * 3));
+            loan.setStatus(status);
+            loan.setIssuedAt(now.minusDays(20));
+            loan.setDueDate(status == TransactionStatus.ACTIVE ? now.plusDays(5) : now.minusDays(6));
+            loan.setReturnedAt(status == TransactionStatus.RETURNED ? now.minusDays(1) : null);
+            loan.setIssuedBy(librarian);
+            loans.add(loan);
+        }
+        loans = transactionRepository.saveAll(loans);
+
+        List<Fine> fines = new ArrayList<>();
+        for (BookTransaction loan : loans) {
+            if (loan.getStatus() == TransactionStatus.ACTIVE) {
+                continue;
+            }
+            Fine fine = new Fine();
+            fine.setUser(loan.getUser());
+            fine.setTransaction(loan);
+            fine.setType(FineType.OVERDUE);
+            fine.setAmount(6.0);
+            fine.setStatus(fines.size() % 2 == 0 ? FineStatus.PENDING : FineStatus.PAID);
+            fine.setDescription("Overdue by 6 days");
+            fine.setCreatedAt(now.minusDays(1));
+            fine.setDueDate(now.plusDays(13));
+            fine.setCreatedBy(librarian);
+            fines.add(fine);
+        }
+        fines = fineRepository.saveAll(fines);
+
+        List<Payment> payments = new ArrayList<>();
+        for (Fine fine : fines) {
+            Payment payment = new Payment();
+            payment.setUser(fine.getUser());
+            payment.setFine(fine);
+            payment.setAmount(fine.getAmount());
+            payment.setType(PaymentType.OVERDUE_CHARGE);
+            payment.setStatus(fine.getStatus() == FineStatus.PAID ? PaymentStatus.COMPLETED : PaymentStatus.PENDING);
+            payment.setMethod(PaymentMethod.CASH);
+            payment.setCreatedAt(now.minusHours(12));
+            payments.add(payment);
+        }
+        paymentRepository.saveAll(payments);
+
+        List<BookRequest> requests = new ArrayList<>();
+        List<BookReview> reviews = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            User member = members.get(i % 2);
+
+            BookRequest request = new BookRequest();
+            request.setUser(member);
+            request.setBook(books.get(i % 4));
+            request.setRequestedAt(now.minusHours(i));
+            request.setExpiresAt(now.plusDays(7));
+            request.setQueuePosition(i / 4 + 1);
+            requests.add(request);
+
+            BookReview review = new BookReview();
+            review.setUser(members.get(0));
+            review.setBook(books.get(i));
+            review.setRating(1 + i % 5);
+            review.setReview("Review " + i);
+            reviews.add(review);
+
+            Notification notification = new Notification();
+            notification.setUser(member);
+            notification.setType(NotificationType.BOOK_DUE_REMINDER);
+            notification.setSubject("Reminder " + i);
+            notification.setMessage("Your book is due soon");
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setCreatedAt(now.minusMinutes(i));
+            notifications.add(notification);
+        }
+        bookRequestRepository.saveAll(requests);
+        bookReviewRepository.saveAll(reviews);
+        notificationRepository.saveAll(notifications);
+    }
+
+    Stream<Arguments> budgets() {
+        return Stream.of(
+                // Catalogue
+                Arguments.of("john_doe", "/api/books?page=0&pageSize=" + BOOKS, 4),
+                Arguments.of("john_doe", "/api/books/" + bookId, 4),
+                Arguments.of("john_doe", "/api/books/search?query=Budget", 3),
+                Arguments.of("john_doe", "/api/books/" + bookId + "/reviews?pageSize=" + BOOKS, 4),
+                Arguments.of("admin", "/api/book-copies?page=0&pageSize=" + BOOKS, 4),
+                Arguments.of("admin", "/api/book-copies/available", 4),
+                Arguments.of("admin", "/api/book-copies/by-book/" + bookId, 4),
+                Arguments.of("admin", "/api/book-reviews?pageSize=" + BOOKS, 4),
+                Arguments.of("john_doe", "/api/book-reviews/my-reviews?pageSize=" + BOOKS, 3),
+                // Circulation
+                Arguments.of("admin", "/api/transactions", 6),
+                Arguments.of("john_doe", "/api/transactions", 6),
+                Arguments.of("admin", "/api/transactions/my-active", 6),
+                Arguments.of("john_doe", "/api/transactions/my-history", 6),
+                Arguments.of("admin", "/api/transactions/overdue", 3),
+                Arguments.of("admin", "/api/transactions/renewable", 5),
+                Arguments.of("admin", "/api/transactions/stats", 7),
+                Arguments.of("admin", "/api/book-requests?pageSize=" + BOOKS, 5),
+                Arguments.of("admin", "/api/book-requests/pending", 5),
+                Arguments.of("admin", "/api/book-requests/queue/" + bookId, 5),
+                Arguments.of("john_doe", "/api/book-requests/my-requests", 5),
+                // Fines and payments
+                Arguments.of("admin", "/api/fines?pageSize=" + BOOKS, 5),
+                Arguments.of("admin", "/api/fines/overdue", 3),
+                Arguments.of("admin", "/api/fines/stats", 3),
+                Arguments.of("admin", "/api/fines/summary/" + memberId, 3),
+                Arguments.of("john_doe", "/api/fines/my-fines", 6),
+                Arguments.of("john_doe", "/api/fines/my-unpaid", 6),
+                // /api/payments serialises the Payment entities as they are and is not budgeted yet
+                // Users and notifications
+                Arguments.of("admin", "/api/users?pageSize=" + BOOKS, 3),
+                Arguments.of("john_doe", "/api/notifications", 4),
+                Arguments.of("john_doe", "/api/notifications/unread-count", 4),
+                // Dashboards
+                Arguments.of("admin", "/api/dashboard/admin/stats", 30),
+                Arguments.of("admin", "/api/dashboard/admin/overview", 3),
+                Arguments.of("admin", "/api/dashboard/admin/financial", 5),
+                Arguments.of("admin", "/api/dashboard/admin/users", 6),
+                Arguments.of("admin", "/api/dashboard/librarian/stats", 5),
+                Arguments.of("admin", "/api/dashboard/librarian/circulation", 5),
+                Arguments.of("admin", "/api/dashboard/librarian/overdue", 3),
+                Arguments.of("admin", "/api/dashboard/librarian/requests", 5),
+                Arguments.of("admin", "/api/dashboard/librarian/activity", 3));
+    }
+
+    @ParameterizedTest(name = "{0} GET {1} <= {2} statements")
+    @MethodSource("budgets")
+    void staysWithinStatementBudget(String username, String path, int budget) throws Exception {
+        MvcResult result = mvc.perform(get(path).header("Authorization", bearer(username)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        int statements = Integer.parseInt(result.getResponse().getHeader(SqlStatsFilter.STATEMENTS_HEADER));
+        assertThat(statements).as("SQL statements for %s", path).isLessThanOrEqualTo(budget);
+        assertThat(result.getResponse().getHeader(SqlStatsFilter.JDBC_TIME_HEADER)).isNotNull();
+    }
+
+    private String bearer(String username) {
+        return "Bearer " + jwtTokenUtil.generateToken(userRepository.findByUsername(username).orElseThrow());
+    }
+}
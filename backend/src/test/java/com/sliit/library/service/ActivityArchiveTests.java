@@ -0,0 +1,146 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sliit.library.model.User;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.ActivityArchive.ArchiveResult;
+import com.sliit.library.service.ActivityArchive.ArchivedActivity;
+import com.sliit.library.service.ActivityArchive.Filter;
+
+/**
+ * Moves old activities into segment files and reads them back, including after a run that
+ * stopped between writing a segment and deleting its rows, and with a row that committed
+ * late under an id below ones already archived.
+ */
+@SpringBootTest(properties = {
+    // Several blocks per segment
+    "app.activity.archive.block-size=4"
+})
+@ActiveProfiles("test")
+class ActivityArchiveTests {
+
+    private static final Path ARCHIVE_DIR = tempDir();
+
+    @Autowired private ActivityArchive archive;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.activity.archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Test
+    void archivedRowsLeaveTheTableAndReadBackNewestFirst() {
+        User user = user("archive_reader");
+        LocalDate day = LocalDate.now().minusDays(120);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(insert(user, day.atTime(8, 0).plusMinutes(i * 7), "Read back " + i));
+        }
+
+        ArchiveResult result = archive.archive();
+
+        assertThat(result.rowsArchived()).isGreaterThanOrEqualTo(10);
+        assertThat(countOn(day)).isZero();
+        List<ArchivedActivity> page = archive.page(new Filter(user.getId(), null, null), LocalDateTime.now(), Long.MAX_VALUE, 100);
+        assertThat(page).extracting(ArchivedActivity::id).containsExactlyElementsOf(ids.reversed());
+        assertThat(page.get(0).message()).isEqualTo("Read back 9");
+        assertThat(page.get(0).timestamp()).isEqualTo(day.atTime(9, 3));
+
+        // Paging continues strictly before the last row seen
+        ArchivedActivity fourth = page.get(3);
+        assertThat(archive.page(new Filter(user.getId(), null, null), fourth.timestamp(), fourth.id(), 3))
+                .extracting(ArchivedActivity::id).containsExactlyElementsOf(ids.reversed().subList(4, 7));
+    }
+
+    @Test
+    void interruptedRunNeitherLosesNorDuplicatesRows() {
+        User user = user("archive_crash");
+        LocalDate day = LocalDate.now().minusDays(130);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(insert(user, day.atTime(10, i), "Crash " + i));
+        }
+        // This id is taken by a transaction that only commits after the day was archived
+        long lateId = ids.remove(2);
+        jdbcTemplate.update("DELETE FROM activities WHERE id = ?", lateId);
+        archive.archive();
+
+        // Crash between writing the segment and deleting its rows: they are all back in the table
+        for (int i = 0; i < ids.size(); i++) {
+            insert(ids.get(i), user, day.atTime(10, i < 2 ? i : i + 1), "Crash " + (i < 2 ? i : i + 1));
+        }
+        insert(lateId, user, day.atTime(10, 2), "Crash 2");
+
+        ArchiveResult result = archive.archive();
+
+        assertThat(countOn(day)).isZero();
+        assertThat(result.rowsArchived()).isEqualTo(1);
+        assertThat(result.rowsDeleted()).isEqualTo(6);
+        List<ArchivedActivity> page = archive.page(new Filter(user.getId(), null, null), LocalDateTime.now(), Long.MAX_VALUE, 100);
+        assertThat(page).extracting(ArchivedActivity::message)
+                .containsExactly("Crash 5", "Crash 4", "Crash 3", "Crash 2", "Crash 1", "Crash 0");
+        assertThat(page).extracting(ArchivedActivity::id).doesNotHaveDuplicates().contains(lateId);
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@library.test")
+                .name(username)
+                .passwordHash("x")
+                .build());
+    }
+
+    private long insert(User user, LocalDateTime timestamp, String message) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(
+                    "INSERT INTO activities (user_id, type, message, severity, timestamp) VALUES (?, 'USER_UPDATED', ?, 'INFO', ?)",
+                    new String[] {"id"});
+            statement.setLong(1, user.getId());
+            statement.setString(2, message);
+            statement.setObject(3, timestamp);
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    private void insert(long id, User user, LocalDateTime timestamp, String message) {
+        jdbcTemplate.update("INSERT INTO activities (id, user_id, type, message, severity, timestamp) VALUES (?, ?, 'USER_UPDATED', ?, 'INFO', ?)",
+                id, user.getId(), message, timestamp);
+    }
+
+    private long countOn(LocalDate day) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM activities WHERE timestamp >= ? AND timestamp < ?",
+                Long.class, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("activity-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sliit.library.model.ActivitySeverity;
+import com.sliit.library.model.ActivityType;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.ActivityWriter.ActivityRecord;
+
+/**
+ * Records spilled to disk (queue full, database down, or shutdown) are written back by the
+ * idle writer: valid ones reach the table, ones the table rejects or that no longer parse are
+ * dropped, and the spill files do not linger.
+ */
+@SpringBootTest(properties = {
+    "app.activity.writer.flush-interval-ms=50"
+})
+@ActiveProfiles("test")
+class ActivityWriterTests {
+
+    private static final Path SPILL_DIR = tempDir();
+
+    @Autowired private ActivityWriter writer;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void spillProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.activity.writer.spill-dir", SPILL_DIR::toString);
+    }
+
+    @Test
+    void spilledRecordsAreReplayedWhenIdle() throws IOException {
+        User user = userRepository.findByUsername("john_doe").orElseThrow();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+        long replayedBefore = writer.getStats().replayed();
+        long droppedBefore = writer.getStats().dropped();
+        List<ActivityRecord> spilled = List.of(
+                record(user.getId(), "Spilled 1", timestamp),
+                // References a user that does not exist, so the table rejects it
+                record(-1L, "Spilled orphan", timestamp),
+                record(user.getId(), "Spilled 2", timestamp.plusSeconds(1)));
+        StringBuilder lines = new StringBuilder();
+        for (ActivityRecord record : spilled) {
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+        }
+        writeSpillFile("activities.spill.jsonl", lines.toString());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> spillFiles().isEmpty());
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT message FROM activities WHERE message LIKE 'Spilled%' ORDER BY timestamp", String.class))
+                .containsExactly("Spilled 1", "Spilled 2");
+        // Replayed counts every record taken out of the spill, written or dropped
+        assertThat(writer.getStats().replayed() - replayedBefore).isEqualTo(3);
+        assertThat(writer.getStats().dropped() - droppedBefore).isEqualTo(1);
+    }
+
+    @Test
+    void unreadableSpillLinesAreDroppedWithoutStallingReplay() throws IOException {
+        User user = userRepository.findByUsername("john_doe").orElseThrow();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+        long replayedBefore = writer.getStats().replayed();
+        long droppedBefore = writer.getStats().dropped();
+        String valid = objectMapper.writeValueAsString(record(user.getId(), "Corrupt spill 2", timestamp.plusSeconds(1)));
+        String corrupt = String.join("\n",
+                objectMapper.writeValueAsString(record(user.getId(), "Corrupt spill 1", timestamp)),
+                "{not json",
+                "{\"type\":\"NO_SUCH_TYPE\",\"message\":\"Corrupt spill unknown type\"}",
+                valid,
+                // Cut short by a crash while spilling
+                valid.substring(0, valid.length() / 2));
+        writeSpillFile("activities.replay.1.jsonl", corrupt);
+        writeSpillFile("activities.replay.2.jsonl",
+                objectMapper.writeValueAsString(record(user.getId(), "Corrupt spill 3", timestamp.plusSeconds(2))) + "\n");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> spillFiles().isEmpty());
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT message FROM activities WHERE message LIKE 'Corrupt spill%' ORDER BY timestamp", String.class))
+                .containsExactly("Corrupt spill 1", "Corrupt spill 2", "Corrupt spill 3");
+        assertThat(writer.getStats().replayed() - replayedBefore).isEqualTo(3);
+        assertThat(writer.getStats().dropped() - droppedBefore).isEqualTo(3);
+    }
+
+    private static void writeSpillFile(String name, String lines) throws IOException {
+        // Written aside and moved in, so the writer never reads it half written
+        Path partial = SPILL_DIR.resolve(name + ".tmp");
+        Files.writeString(partial, lines, StandardCharsets.UTF_8);
+        Files.move(partial, SPILL_DIR.resolve(name));
+    }
+
+    private static ActivityRecord record(Long userId, String message, LocalDateTime timestamp) {
+        return new ActivityRecord(userId, null, ActivityType.USER_UPDATED, message, null, null, null, null,
+                ActivitySeverity.INFO, "127.0.0.1", "test", timestamp);
+    }
+
+    private static List<Path> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(SPILL_DIR)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jsonl")).toList();
+        }
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("activity-spill");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
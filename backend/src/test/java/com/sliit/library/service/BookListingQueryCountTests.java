@@ -0,0 +1,132 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sliit.library.dto.BookDto.BookSummaryResponse;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.BookReview;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.BookReviewRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that listing a page of books costs the same number of statements whatever the
+ * page size, i.e. that ratings are resolved for the whole page at once instead of per row.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@Transactional
+class BookListingQueryCountTests {
+
+    private static final int BOOKS = 100;
+
+    @Autowired private BookService bookService;
+    @Autowired private BookRatingStatsService ratingStatsService;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private BookReviewRepository bookReviewRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    // Rating each book created by seed() was reviewed with
+    private final Map<Long, Integer> seededRatings = new HashMap<>();
+
+    @BeforeEach
+    void seed() {
+        var author = authorRepository.findAll().get(0);
+        var publisher = publisherRepository.findAll().get(0);
+        var category = categoryRepository.findAll().get(0);
+        var language = languageRepository.findAll().get(0);
+        var reviewer = userRepository.findAll().get(0);
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Query Count Book " + i);
+            book.setIsbn(String.format("978%010d", i));
+            book.setYear(2000);
+            book.setAuthor(author);
+            book.setPublisher(publisher);
+            book.setCategory(category);
+            book.setLanguage(language);
+            bookRepository.save(book);
+
+            BookReview review = new BookReview();
+            review.setBook(book);
+            review.setUser(reviewer);
+            review.setRating(1 + i % 5);
+            bookReviewRepository.save(review);
+            seededRatings.put(book.getId(), review.getRating());
+        }
+        entityManager.flush();
+        // Reviews were inserted directly, so let the repair job build their aggregates
+        ratingStatsService.repairAll();
+        entityManager.flush();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(10);
+        long medium = statementsFor(50);
+        long large = statementsFor(BOOKS);
+
+        assertThat(medium).isEqualTo(small);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void pageCarriesRepairedRatingStatistics() {
+        // Page 0 lists every book, so all the seeded ones are on it whatever else the database holds
+        var page = bookService.get(0, BOOKS);
+        Map<Long, Long> reviewCounts = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(
+                "SELECT r.book.id, COUNT(r) FROM BookReview r GROUP BY r.book.id", Object[].class).getResultList()) {
+            reviewCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        assertThat(page).extracting(BookSummaryResponse::id).containsAll(seededRatings.keySet());
+        assertThat(page).allSatisfy(book -> {
+            assertThat(book.totalReviews()).isEqualTo(reviewCounts.getOrDefault(book.id(), 0L));
+            Integer rating = seededRatings.get(book.id());
+            if (rating != null) {
+                assertThat(book.totalReviews()).isEqualTo(1L);
+                assertThat(book.averageRating()).isEqualTo(rating.doubleValue());
+            }
+        });
+    }
+
+    private long statementsFor(int pageSize) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var page = bookService.get(1, pageSize);
+
+        assertThat(page).hasSize(pageSize);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,185 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sliit.library.dto.BookReviewDto.BookReviewCreateRequest;
+import com.sliit.library.dto.BookReviewDto.BookReviewSummary;
+import com.sliit.library.dto.BookReviewDto.BookReviewUpdateRequest;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.BookReview;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookRatingStatsRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.BookReviewRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Review writes keep the book's rating aggregates in step: each create, update and delete
+ * moves the histogram and average, a book without a stats row is seeded from the reviews it
+ * already has, and concurrent first reviews of such a book all count.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookRatingStatsServiceTests {
+
+    @Autowired private BookReviewService bookReviewService;
+    @Autowired private BookRatingStatsService ratingStatsService;
+    @Autowired private BookRatingStatsRepository statsRepository;
+    @Autowired private BookReviewRepository bookReviewRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createUpdateAndDeleteMoveTheAggregates() {
+        Book book = book("9790000098001");
+        ratingStatsService.initialize(book.getId());
+
+        Long first = review("stats_first", book, 5);
+        assertSummary(book, 1, 5.0, 0, 0, 0, 0, 1);
+
+        Long second = review("stats_second", book, 3);
+        assertSummary(book, 2, 4.0, 0, 0, 1, 0, 1);
+
+        signIn("stats_first");
+        bookReviewService.updateReview(first, update(1));
+        assertSummary(book, 2, 2.0, 1, 0, 1, 0, 0);
+
+        signIn("stats_second");
+        bookReviewService.deleteReview(second);
+        assertSummary(book, 1, 1.0, 1, 0, 0, 0, 0);
+    }
+
+    @Test
+    void bookWithoutStatsIsSeededFromItsReviews() {
+        Book book = book("9790000098002");
+        // Reviewed before the stats table existed
+        BookReview legacy = new BookReview();
+        legacy.setUser(user("stats_legacy"));
+        legacy.setBook(book);
+        legacy.setRating(4);
+        bookReviewRepository.save(legacy);
+        assertThat(statsRepository.existsById(book.getId())).isFalse();
+
+        review("stats_seeding", book, 2);
+
+        assertSummary(book, 2, 3.0, 0, 1, 0, 1, 0);
+    }
+
+    @Test
+    void concurrentFirstReviewsAllCount() throws Exception {
+        Book book = book("9790000098003");
+        int reviewers = 8;
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < reviewers; i++) {
+            usernames.add(user("stats_concurrent_" + i).getUsername());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(reviewers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < reviewers; i++) {
+            String username = usernames.get(i);
+            int rating = i % 5 + 1;
+            Callable<Long> write = () -> {
+                start.await();
+                try {
+                    return review(username, book, rating);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            };
+            results.add(executor.submit(write));
+        }
+        start.countDown();
+        for (Future<Long> result : results) {
+            // Throws if any reviewer's transaction was rolled back
+            assertThat(result.get()).isNotNull();
+        }
+        executor.shutdown();
+
+        // Ratings 1..5, 1..3
+        assertSummary(book, 8, 21.0 / 8, 2, 2, 2, 1, 1);
+    }
+
+    private Long review(String username, Book book, int rating) {
+        user(username);
+        signIn(username);
+        BookReviewCreateRequest request = new BookReviewCreateRequest();
+        request.setBookId(book.getId());
+        request.setRating(rating);
+        request.setReview("Rated " + rating);
+        return bookReviewService.createReview(request).getId();
+    }
+
+    private static BookReviewUpdateRequest update(int rating) {
+        BookReviewUpdateRequest request = new BookReviewUpdateRequest();
+        request.setRating(rating);
+        request.setReview("Rated " + rating);
+        return request;
+    }
+
+    private void assertSummary(Book book, long total, double average, long one, long two, long three, long four,
+                               long five) {
+        BookReviewSummary summary = ratingStatsService.getSummaries(List.of(book.getId())).get(book.getId());
+        assertThat(summary.getTotalReviews()).isEqualTo(total);
+        assertThat(summary.getAverageRating()).isEqualTo(average);
+        assertThat(List.of(summary.getOneStarCount(), summary.getTwoStarCount(), summary.getThreeStarCount(),
+                summary.getFourStarCount(), summary.getFiveStarCount()))
+                .containsExactly(one, two, three, four, five);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private User user(String username) {
+        return userRepository.findByUsername(username).orElseGet(() -> userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@library.test")
+                .name(username)
+                .passwordHash("x")
+                .build()));
+    }
+
+    private Book book(String isbn) {
+        Book book = new Book();
+        book.setTitle("Rated Book " + isbn);
+        book.setIsbn(isbn);
+        book.setYear(2002);
+        book.setAuthor(authorRepository.findAll().get(0));
+        book.setPublisher(publisherRepository.findAll().get(0));
+        book.setCategory(categoryRepository.findAll().get(0));
+        book.setLanguage(languageRepository.findAll().get(0));
+        return bookRepository.save(book);
+    }
+}
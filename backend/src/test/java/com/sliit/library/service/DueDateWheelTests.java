@@ -0,0 +1,102 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sliit.library.model.Book;
+import com.sliit.library.model.BookCondition;
+import com.sliit.library.model.BookCopy;
+import com.sliit.library.model.BookStatus;
+import com.sliit.library.model.BookTransaction;
+import com.sliit.library.model.TransactionStatus;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookCopyRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.BookTransactionRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Loads the due-date wheel from the loans table: a reminder whose moment passed while the
+ * wheel was not loaded still fires as long as the loan is not yet due and the reminder was
+ * not sent, instead of being dropped.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DueDateWheelTests {
+
+    @Autowired private DueDateWheel dueDateWheel;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private BookCopyRepository bookCopyRepository;
+    @Autowired private BookTransactionRepository transactionRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+
+    @Test
+    void missedReminderFiresOnLoadUnlessAlreadySent() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookCopy> copies = copies(4);
+        long missed = loan(copies.get(0), now.plusHours(2), null);
+        long alreadySent = loan(copies.get(1), now.plusHours(2), now.minusHours(3));
+        long later = loan(copies.get(2), now.plusDays(3), null);
+        long pastDue = loan(copies.get(3), now.minusHours(1), null);
+
+        dueDateWheel.load();
+        DueDateWheel.DueEvents due = dueDateWheel.poll();
+
+        assertThat(due.reminders()).contains(missed).doesNotContain(alreadySent, later, pastDue);
+        assertThat(due.overdue()).contains(pastDue).doesNotContain(missed, alreadySent, later);
+    }
+
+    private List<BookCopy> copies(int count) {
+        Book book = new Book();
+        book.setTitle("Due Wheel Book");
+        book.setIsbn("9790000099001");
+        book.setYear(2001);
+        book.setAuthor(authorRepository.findAll().get(0));
+        book.setPublisher(publisherRepository.findAll().get(0));
+        book.setCategory(categoryRepository.findAll().get(0));
+        book.setLanguage(languageRepository.findAll().get(0));
+        book = bookRepository.save(book);
+
+        List<BookCopy> copies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BookCopy copy = new BookCopy();
+            copy.setBook(book);
+            copy.setBarcode("DUE-WHEEL-" + i);
+            copy.setStatus(BookStatus.CHECKED_OUT);
+            copy.setCondition(BookCondition.GOOD);
+            copy.setLocation("Shelf " + i);
+            copy.setCreatedAt(LocalDateTime.now());
+            copies.add(copy);
+        }
+        return bookCopyRepository.saveAll(copies);
+    }
+
+    private long loan(BookCopy copy, LocalDateTime dueDate, LocalDateTime reminderSentAt) {
+        User member = userRepository.findByUsername("john_doe").orElseThrow();
+        BookTransaction loan = new BookTransaction();
+        loan.setUser(member);
+        loan.setBookCopy(copy);
+        loan.setStatus(TransactionStatus.ACTIVE);
+        loan.setIssuedAt(dueDate.minusDays(14));
+        loan.setDueDate(dueDate);
+        loan.setDueReminderSentAt(reminderSentAt);
+        loan.setIssuedBy(userRepository.findByUsername("librarian").orElseThrow());
+        return transactionRepository.save(loan).getId();
+    }
+}
@@ -0,0 +1,253 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sliit.library.model.Notification;
+import com.sliit.library.model.NotificationChannel;
+import com.sliit.library.model.NotificationStatus;
+import com.sliit.library.model.NotificationType;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.NotificationRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Drives the notification outbox against a local SMTP stub: mail goes out only after the
+ * business transaction commits, a batch shares one SMTP session, and a rejected recipient
+ * is retried later without holding back the rest of the batch. Channels that cannot deliver
+ * end SKIPPED rather than being reported as sent.
+ */
+@SpringBootTest(properties = {
+    "app.notifications.dispatcher.enabled=true",
+    "app.notifications.retry.initial-backoff-ms=600000"
+})
+@ActiveProfiles("test")
+class NotificationDispatcherTests {
+
+    private static final SmtpStub SMTP = SmtpStub.start();
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", SMTP::port);
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        SMTP.reset();
+    }
+
+    @Test
+    void mailIsSentAfterCommitInOneSession() {
+        User member = member("outbox_member", "outbox.member@library.test");
+        List<Long> ids = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Notification> batch = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                batch.add(email(member, "Outbox " + i));
+            }
+            notificationService.sendAll(batch);
+            batch.forEach(notification -> ids.add(notification.getId()));
+
+            // Nothing may reach the mail server while the transaction is still open
+            sleep(300);
+            assertThat(SMTP.messages()).isEmpty();
+        });
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> SMTP.messages().size() == 5);
+        await().atMost(Duration.ofSeconds(5)).until(() -> notificationRepository.findAllById(ids).stream()
+                .allMatch(n -> n.getStatus() == NotificationStatus.SENT));
+        assertThat(SMTP.sessions()).isEqualTo(1);
+        assertThat(notificationRepository.findAllById(ids)).allSatisfy(n -> {
+            assertThat(n.getSentAt()).isNotNull();
+            assertThat(n.getNextAttemptAt()).isNull();
+        });
+    }
+
+    @Test
+    void rejectedRecipientIsRetriedWithBackoff() {
+        User accepted = member("outbox_accepted", "outbox.accepted@library.test");
+        User rejected = member("outbox_rejected", "reject.me@library.test");
+        Notification good = email(accepted, "Accepted");
+        Notification bad = email(rejected, "Rejected");
+
+        transactionTemplate.executeWithoutResult(status -> notificationService.sendAll(List.of(good, bad)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                notificationRepository.findById(bad.getId()).orElseThrow().getStatus() == NotificationStatus.FAILED);
+        Notification failed = notificationRepository.findById(bad.getId()).orElseThrow();
+        assertThat(failed.getRetryCount()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(5));
+        assertThat(notificationRepository.findById(good.getId()).orElseThrow().getStatus())
+                .isEqualTo(NotificationStatus.SENT);
+        assertThat(SMTP.messages()).hasSize(1);
+    }
+
+    @Test
+    void undeliverableSmsIsSkippedNotSent() {
+        User member = member("outbox_sms", "outbox.sms@library.test");
+        Notification sms = email(member, "Text message");
+        sms.setChannel(NotificationChannel.SMS);
+
+        transactionTemplate.executeWithoutResult(status -> notificationService.sendAll(List.of(sms)));
+
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                notificationRepository.findById(sms.getId()).orElseThrow().getStatus() != NotificationStatus.PENDING);
+        Notification skipped = notificationRepository.findById(sms.getId()).orElseThrow();
+        assertThat(skipped.getStatus()).isEqualTo(NotificationStatus.SKIPPED);
+        assertThat(skipped.getErrorMessage()).isNotBlank();
+        assertThat(skipped.getSentAt()).isNull();
+        assertThat(skipped.getNextAttemptAt()).isNull();
+    }
+
+    private User member(String username, String email) {
+        return userRepository.findByUsername(username).orElseGet(() -> userRepository.save(User.builder()
+                .username(username)
+                .email(email)
+                .name(username)
+                .passwordHash("x")
+                .build()));
+    }
+
+    private static Notification email(User user, String subject) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(NotificationType.FINE_NOTICE);
+        notification.setSubject(subject);
+        notification.setMessage("Body of " + subject);
+        notification.setChannel(NotificationChannel.EMAIL);
+        notification.setStatus(NotificationStatus.PENDING);
+        return notification;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Just enough SMTP to accept mail; recipients starting with "reject" are refused. */
+    static final class SmtpStub implements AutoCloseable {
+
+        private final ServerSocket server;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        private SmtpStub(ServerSocket server) {
+            this.server = server;
+        }
+
+        static SmtpStub start() {
+            try {
+                SmtpStub stub = new SmtpStub(new ServerSocket(0));
+                Thread acceptor = new Thread(stub::accept, "smtp-stub");
+                acceptor.setDaemon(true);
+                acceptor.start();
+                return stub;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        List<String> messages() {
+            return messages;
+        }
+
+        int sessions() {
+            return sessions.get();
+        }
+
+        void reset() {
+            messages.clear();
+            sessions.set(0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    sessions.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Server closed or client went away
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 localhost SMTP stub");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("RCPT TO:") && command.contains("<REJECT")) {
+                    reply(out, "550 Mailbox unavailable");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line).append('\n');
+                    }
+                    messages.add(data.toString());
+                    reply(out, "250 Queued");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
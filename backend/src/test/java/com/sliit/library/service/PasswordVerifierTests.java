@@ -0,0 +1,118 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sliit.library.exception.ServiceUnavailableException;
+
+/**
+ * Exercises the hashing pool with an encoder that blocks until released: no more hashes run
+ * at once than the pool allows, callers beyond the queue are turned away without waiting,
+ * and outdated hashes are replaced only when the password matched.
+ */
+class PasswordVerifierTests {
+
+    // One thread per caller, like request threads arriving together
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private PasswordVerifier verifier;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (verifier != null) {
+            verifier.shutdown();
+        }
+    }
+
+    @Test
+    void hashesRunNoWiderThanTheParallelism() {
+        verifier = new PasswordVerifier(new BlockingEncoder(), 2, 10, 2);
+
+        List<CompletableFuture<PasswordVerifier.Verification>> logins = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            logins.add(CompletableFuture.supplyAsync(() -> verifier.verify("secret", "secret"), callers));
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() -> verifier.getStats().queued() == 4);
+        assertThat(running.get()).isEqualTo(2);
+
+        release.countDown();
+
+        assertThat(logins).allSatisfy(login -> assertThat(login.join().matched()).isTrue());
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(verifier.getStats().completed()).isEqualTo(6);
+    }
+
+    @Test
+    void saturatedPoolRefusesWithoutWaiting() {
+        verifier = new PasswordVerifier(new BlockingEncoder(), 1, 1, 3);
+        CompletableFuture.runAsync(() -> verifier.verify("secret", "secret"), callers);
+        CompletableFuture.runAsync(() -> verifier.verify("secret", "secret"), callers);
+        await().atMost(Duration.ofSeconds(5)).until(() -> verifier.getStats().queued() == 1);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> verifier.verify("secret", "secret"))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+
+        // Turned away at once rather than holding the request thread behind the queue
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(verifier.getStats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void outdatedHashIsUpgradedOnlyWhenThePasswordMatches() {
+        verifier = new PasswordVerifier(new BCryptPasswordEncoder(5), 1, 4, 2);
+        String outdated = new BCryptPasswordEncoder(4).encode("secret");
+        String current = new BCryptPasswordEncoder(5).encode("secret");
+
+        PasswordVerifier.Verification upgraded = verifier.verify("secret", outdated);
+        assertThat(upgraded.matched()).isTrue();
+        assertThat(upgraded.upgradedHash()).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder(5).matches("secret", upgraded.upgradedHash())).isTrue();
+
+        assertThat(verifier.verify("wrong", outdated)).isEqualTo(new PasswordVerifier.Verification(false, null));
+        assertThat(verifier.verify("secret", current)).isEqualTo(new PasswordVerifier.Verification(true, null));
+        assertThat(verifier.getStats().upgraded()).isEqualTo(1);
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
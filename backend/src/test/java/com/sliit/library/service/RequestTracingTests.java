@@ -0,0 +1,110 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.model.Book;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+import com.sliit.library.service.TraceService.SpanKind;
+import com.sliit.library.service.TraceService.SpanView;
+import com.sliit.library.service.TraceService.TraceRecord;
+
+/**
+ * A sampled request keeps a span tree of its service and repository calls with the SQL each
+ * issued, and an unsampled one leaves nothing behind.
+ */
+@SpringBootTest(properties = {
+    "app.tracing.sample-rate=1.0"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class RequestTracingTests {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private TraceService traceService;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+
+    @AfterEach
+    void restoreSampling() {
+        traceService.setSampleRate(1.0);
+    }
+
+    @Test
+    void sampledRequestRecordsNestedSpansWithStatements() throws Exception {
+        Book book = newBook("9780000000031");
+
+        mvc.perform(get("/api/books/" + book.getId()).header("Authorization", bearer("john_doe")))
+                .andExpect(status().isOk());
+
+        TraceRecord trace = traceService.find(traceService.getRecent(1).get(0).id()).orElseThrow();
+        assertThat(trace.summary().name()).isEqualTo("GET /api/books/{id}");
+        assertThat(trace.summary().status()).isEqualTo(200);
+
+        SpanView service = only(trace.root().children(), "BookService.getById");
+        assertThat(service.kind()).isEqualTo(SpanKind.SERVICE);
+        assertThat(service.children()).anySatisfy(call -> {
+            assertThat(call.kind()).isEqualTo(SpanKind.REPOSITORY);
+            assertThat(call.name()).startsWith("BookRepository.");
+            assertThat(call.sqlStatements()).isPositive();
+        });
+        assertThat(trace.summary().sqlStatements()).isPositive();
+        assertThat(traceService.render(trace)).contains("GET /api/books/{id}", "  BookService.getById", "BookRepository.");
+        assertThat(traceService.getSlowest()).extracting(TraceService.TraceSummary::id).contains(trace.summary().id());
+    }
+
+    @Test
+    void unsampledRequestLeavesNoTrace() throws Exception {
+        Book book = newBook("9780000000048");
+        traceService.setSampleRate(0);
+        List<TraceService.TraceSummary> before = traceService.getRecent(200);
+
+        mvc.perform(get("/api/books/" + book.getId()).header("Authorization", bearer("john_doe")))
+                .andExpect(status().isOk());
+
+        assertThat(traceService.getRecent(200)).isEqualTo(before);
+    }
+
+    private static SpanView only(List<SpanView> spans, String name) {
+        assertThat(spans).extracting(SpanView::name).containsExactly(name);
+        return spans.get(0);
+    }
+
+    private String bearer(String username) {
+        return "Bearer " + jwtTokenUtil.generateToken(userRepository.findByUsername(username).orElseThrow());
+    }
+
+    private Book newBook(String isbn) {
+        Book book = new Book();
+        book.setTitle("Tracing " + isbn);
+        book.setIsbn(isbn);
+        book.setYear(2000);
+        book.setAuthor(authorRepository.findAll().get(0));
+        book.setPublisher(publisherRepository.findAll().get(0));
+        book.setCategory(categoryRepository.findAll().get(0));
+        book.setLanguage(languageRepository.findAll().get(0));
+        return bookRepository.save(book);
+    }
+}
@@ -0,0 +1,147 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sliit.library.service.SyntheticDataGenerator.Result;
+import com.sliit.library.service.SyntheticDataGenerator.Spec;
+
+/**
+ * Checks that the synthetic dataset is repeatable and internally consistent: a copy is out
+ * on at most one loan, members stay within the loan limit and derived state matches the rows.
+ */
+@SpringBootTest(properties = {
+    // Deletes and regenerates whole tables, so it must not share a database with other classes
+    "spring.datasource.url=jdbc:h2:mem:synthetic_data;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SyntheticDataGeneratorTests {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 1);
+    private static final Spec SPEC = new Spec(7L, AS_OF, 300, 40, 10, 500, 2, 5_000, 365, 0.2, 1_000);
+
+    @Autowired private SyntheticDataGenerator generator;
+    @Autowired private LibraryPolicyService policyService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private long seededUsers;
+    private long seededAuthors;
+    private long seededPublishers;
+    private Result result;
+
+    @BeforeAll
+    void generate() {
+        seededUsers = maxId("users");
+        seededAuthors = maxId("authors");
+        seededPublishers = maxId("publishers");
+        result = generator.generate(SPEC);
+    }
+
+    @Test
+    void sameSpecGeneratesTheSameRows() {
+        List<String> first = fingerprint();
+
+        jdbcTemplate.update("DELETE FROM activities");
+        jdbcTemplate.update("DELETE FROM notifications");
+        jdbcTemplate.update("DELETE FROM book_reviews");
+        jdbcTemplate.update("DELETE FROM book_rating_stats");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM fines");
+        jdbcTemplate.update("DELETE FROM book_transactions");
+        jdbcTemplate.update("DELETE FROM book_copies");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM users WHERE id > ?", seededUsers);
+        jdbcTemplate.update("DELETE FROM authors WHERE id > ?", seededAuthors);
+        jdbcTemplate.update("DELETE FROM publishers WHERE id > ?", seededPublishers);
+        generator.generate(SPEC);
+
+        assertThat(fingerprint()).isEqualTo(first);
+    }
+
+    @Test
+    void generatesTheRequestedVolumes() {
+        assertThat(result.rows()).containsEntry("users", 300L).containsEntry("books", 500L)
+                .containsEntry("book_transactions", 5_000L);
+        assertThat(count("SELECT COUNT(*) FROM book_copies")).isBetween(500L, 1_500L);
+        assertThat(count("SELECT COUNT(*) FROM fines")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM payments WHERE status = 'COMPLETED'")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM book_reviews")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM book_transactions WHERE status = 'OVERDUE'")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM book_transactions WHERE status = 'ACTIVE'")).isPositive();
+    }
+
+    @Test
+    void loansAreConsistentWithCopiesAndPolicy() {
+        // A copy is out on at most one loan, and exactly the copies out are CHECKED_OUT
+        assertThat(count("""
+                SELECT COUNT(*) FROM (SELECT book_copy_id FROM book_transactions
+                                      WHERE status IN ('ACTIVE', 'OVERDUE', 'LOST')
+                                      GROUP BY book_copy_id HAVING COUNT(*) > 1)
+                """)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM book_copies WHERE status = 'CHECKED_OUT'"))
+                .isEqualTo(count("SELECT COUNT(*) FROM book_transactions WHERE status IN ('ACTIVE', 'OVERDUE')"));
+        assertThat(count("""
+                SELECT COALESCE(MAX(open_loans), 0) FROM (SELECT COUNT(*) AS open_loans FROM book_transactions
+                                                          WHERE status IN ('ACTIVE', 'OVERDUE') GROUP BY user_id)
+                """)).isLessThanOrEqualTo(policyService.current().maxBooksPerUser());
+
+        // Loans are issued before asOf, returned before asOf, and overdue exactly when past due
+        assertThat(count("SELECT COUNT(*) FROM book_transactions WHERE issued_at >= DATE '2025-06-01'")).isZero();
+        assertThat(count("""
+                SELECT COUNT(*) FROM book_transactions
+                WHERE returned_at IS NOT NULL AND (returned_at < issued_at OR returned_at >= DATE '2025-06-01')
+                """)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM book_transactions WHERE status = 'ACTIVE' AND due_date <= DATE '2025-06-01'"))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM book_transactions WHERE status = 'OVERDUE' AND due_date > DATE '2025-06-01'"))
+                .isZero();
+    }
+
+    @Test
+    void derivedStateMatchesTheRows() {
+        assertThat(count("SELECT COALESCE(SUM(rating_count), 0) FROM book_rating_stats"))
+                .isEqualTo(count("SELECT COUNT(*) FROM book_reviews"));
+        assertThat(count("""
+                SELECT COUNT(*) FROM book_transactions t
+                WHERE t.fine_amount <> COALESCE((SELECT SUM(f.amount) FROM fines f WHERE f.transaction_id = t.id), 0)
+                """)).isZero();
+    }
+
+    private List<String> fingerprint() {
+        List<String> rows = new ArrayList<>();
+        for (String sql : List.of(
+                "SELECT status, COUNT(*), SUM(LENGTH(username)), MIN(created_at), MAX(created_at) FROM users GROUP BY status ORDER BY status",
+                "SELECT COUNT(*), SUM(LENGTH(title)), SUM(author_id), SUM(publisher_id), SUM(publication_year) FROM books",
+                "SELECT status, COUNT(*), SUM(book_id), SUM(book_condition) FROM book_copies GROUP BY status ORDER BY status",
+                "SELECT status, COUNT(*), SUM(user_id), SUM(book_copy_id), SUM(overdue_days), SUM(fine_amount), MIN(issued_at), MAX(returned_at) "
+                        + "FROM book_transactions GROUP BY status ORDER BY status",
+                "SELECT type, status, COUNT(*), SUM(amount), SUM(paid_amount), MAX(paid_at) FROM fines GROUP BY type, status ORDER BY type, status",
+                "SELECT status, method, COUNT(*), SUM(amount), MAX(paid_at) FROM payments GROUP BY status, method ORDER BY status, method",
+                "SELECT rating, COUNT(*), SUM(user_id), SUM(book_id), MAX(created_at) FROM book_reviews GROUP BY rating ORDER BY rating",
+                "SELECT type, status, COUNT(*), MAX(read_at) FROM notifications GROUP BY type, status ORDER BY type, status",
+                "SELECT type, COUNT(*), SUM(user_id), MAX(timestamp) FROM activities GROUP BY type ORDER BY type")) {
+            rows.add(jdbcTemplate.queryForList(sql).toString());
+        }
+        return rows;
+    }
+
+    private long maxId(String table) {
+        return count("SELECT COALESCE(MAX(id), 0) FROM " + table);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
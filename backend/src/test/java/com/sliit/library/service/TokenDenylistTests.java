@@ -0,0 +1,60 @@
+package com.sliit.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.config.JwtTokenUtil.TokenUser;
+import com.sliit.library.model.DeletedUser;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.DeletedUserRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Tokens are trusted on their claims, so a user deleted on another node must reach this
+ * node's denylist through the deletion tombstones it polls.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenDenylistTests {
+
+    @Autowired private TokenDenylist tokenDenylist;
+    @Autowired private DeletedUserRepository deletedUserRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void userDeletedOnAnotherNodeIsRefusedAfterRefresh() {
+        User user = userRepository.save(User.builder()
+                .username("denylist_deleted")
+                .email("denylist.deleted@library.test")
+                .name("Denylist Deleted")
+                .passwordHash("x")
+                .build());
+        TokenUser claims = new TokenUser(user.getId(), user.getUsername(), user.getRole(), user.getStatus(), new Date());
+        assertThat(tokenDenylist.isRevoked(claims)).isFalse();
+
+        // What UserService.delete leaves behind on the node that ran it
+        userRepository.delete(user);
+        deletedUserRepository.save(new DeletedUser(user.getId(), LocalDateTime.now()));
+        assertThat(tokenDenylist.isRevoked(claims)).isFalse();
+
+        tokenDenylist.refresh();
+        assertThat(tokenDenylist.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void tombstonesOutlivingEveryTokenArePurged() {
+        deletedUserRepository.save(new DeletedUser(-1L, LocalDateTime.now().minusSeconds(JwtTokenUtil.JWT_TOKEN_VALIDITY + 60)));
+
+        tokenDenylist.refresh();
+
+        assertThat(deletedUserRepository.existsById(-1L)).isFalse();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sliit.library.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.sliit.library.config.JwtTokenUtil;
+import com.sliit.library.config.JwtTokenUtil.TokenUser;
+import com.sliit.library.model.Book;
+import com.sliit.library.model.User;
+import com.sliit.library.repository.AuthorRepository;
+import com.sliit.library.repository.BookRepository;
+import com.sliit.library.repository.CategoryRepository;
+import com.sliit.library.repository.LanguageRepository;
+import com.sliit.library.repository.PublisherRepository;
+import com.sliit.library.repository.UserRepository;
+
+/**
+ * Counts how many times each endpoint loads the authenticated user. Authentication itself
+ * works from the token's claims, and {@link CurrentUser} resolves the user at most once per
+ * request however many services ask for it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class CurrentUserLookupTests {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private JwtTokenUtil jwtTokenUtil;
+    @Autowired private CurrentUser currentUser;
+    @MockitoSpyBean private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private AuthorRepository authorRepository;
+    @Autowired private PublisherRepository publisherRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private LanguageRepository languageRepository;
+
+    @Test
+    void authenticationAloneLoadsNoUser() throws Exception {
+        assertUserLookups(0, get("/api/notifications/dispatcher/stats"), "admin");
+    }
+
+    @Test
+    void endpointsNeedingOnlyTheIdLoadNoUser() throws Exception {
+        assertUserLookups(0, get("/api/activities"), "admin");
+        assertUserLookups(0, get("/api/book-reviews/my-reviews"), "john_doe");
+    }
+
+    @Test
+    void controllerLookupIsLoadedOnce() throws Exception {
+        assertUserLookups(1, get("/api/notifications/unread-count"), "john_doe");
+    }
+
+    @Test
+    void serviceLookupIsLoadedOnce() throws Exception {
+        assertUserLookups(1, post("/api/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Lookup Counting\"}"), "admin");
+    }
+
+    @Test
+    void bookRequestLoadsUserOnce() throws Exception {
+        Book book = newBook("9780000000017");
+        assertUserLookups(1, post("/api/book-requests")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookId\":" + book.getId() + "}"), "jane_smith");
+    }
+
+    @Test
+    void reviewLoadsUserOnce() throws Exception {
+        Book book = newBook("9780000000024");
+        assertUserLookups(1, post("/api/book-reviews")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookId\":" + book.getId() + ",\"rating\":4}"), "john_doe");
+    }
+
+    @Test
+    void repeatedCallsInOneRequestShareOneLookup() {
+        String token = jwtTokenUtil.generateToken(userRepository.findByUsername("john_doe").orElseThrow());
+        TokenUser principal = jwtTokenUtil.toUser(jwtTokenUtil.parse(token));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities()));
+        try {
+            clearInvocations(userRepository);
+
+            // Outside a transaction each call would otherwise query in a session of its own
+            User first = currentUser.require();
+            User second = currentUser.require();
+
+            assertThat(second).isSameAs(first);
+            assertThat(userLookups()).isEqualTo(1);
+        } finally {
+            SecurityContextHolder.clearContext();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private void assertUserLookups(long expected, MockHttpServletRequestBuilder request, String username) throws Exception {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        String token = jwtTokenUtil.generateToken(user);
+
+        clearInvocations(userRepository);
+
+        mvc.perform(request.header("Authorization", "Bearer " + token)).andExpect(status().is2xxSuccessful());
+
+        assertThat(userLookups()).as("user lookups by %s", request.buildRequest(null).getRequestURI()).isEqualTo(expected);
+    }
+
+    private long userLookups() {
+        return mockingDetails(userRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().matches("findById|findByUsername"))
+                .count();
+    }
+
+    private Book newBook(String isbn) {
+        Book book = new Book();
+        book.setTitle("Lookup Counting " + isbn);
+        book.setIsbn(isbn);
+        book.setYear(2000);
+        book.setAuthor(authorRepository.findAll().get(0));
+        book.setPublisher(publisherRepository.findAll().get(0));
+        book.setCategory(categoryRepository.findAll().get(0));
+        book.setLanguage(languageRepository.findAll().get(0));
+        return bookRepository.save(book);
+    }
+}
@@ -0,0 +1,83 @@
+package com.sliit.library.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Quantiles read back from the log-linear buckets stay within a bucket's width of the exact
+ * values, and the rolling histogram's windows take in only the minutes they cover.
+ */
+class LatencyHistogramTests {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    @Test
+    void bucketsTileTheRangeWithoutGaps() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertThat(LatencyHistogram.bucketOf(upper)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucketOf(upper + 1)).isEqualTo(bucket + 1);
+        }
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void quantilesAreWithinOneBucketOfExact() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform from 50 µs to 5 s, like a mix of cached reads and slow reports
+            values[i] = (long) Math.exp(random.nextDouble(Math.log(50), Math.log(5_000_000)));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot();
+        histogram.addTo(snapshot);
+
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertThat((double) snapshot.quantile(q)).isCloseTo(exact, within(exact / 16.0 + 1));
+            assertThat(snapshot.quantile(q)).isGreaterThanOrEqualTo(exact);
+        }
+        assertThat(snapshot.max()).isEqualTo(values[values.length - 1]);
+        assertThat(snapshot.quantile(1.0)).isEqualTo(snapshot.max());
+        assertThat(snapshot.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void windowsCoverOnlyTheirMinutes() {
+        RollingLatencyHistogram rolling = new RollingLatencyHistogram();
+        long start = 1_000 * MINUTE_MS;
+        rolling.record(100, start);                     // 90 minutes before now
+        rolling.record(200, start + 80 * MINUTE_MS);    // 10 minutes before now
+        rolling.record(300, start + 87 * MINUTE_MS);    // 3 minutes before now
+        rolling.record(400, start + 90 * MINUTE_MS);    // current minute
+        long now = start + 90 * MINUTE_MS + 30_000;
+
+        assertThat(rolling.window(1, now).count()).isEqualTo(1);
+        assertThat(rolling.window(5, now).count()).isEqualTo(2);
+        assertThat(rolling.window(60, now).count()).isEqualTo(3);
+        assertThat(rolling.window(5, now).max()).isEqualTo(400);
+        assertThat(rolling.window(60, now).sum()).isEqualTo(900);
+        assertThat(rolling.count()).isEqualTo(4);
+        assertThat(rolling.sum()).isEqualTo(1_000);
+    }
+
+    @Test
+    void minuteSlotIsReusedAfterAnHour() {
+        RollingLatencyHistogram rolling = new RollingLatencyHistogram();
+        long start = 1_000 * MINUTE_MS;
+        rolling.record(100, start);
+        rolling.record(900, start + 61 * MINUTE_MS); // same slot, one lap later
+
+        LatencyHistogram.Snapshot hour = rolling.window(60, start + 61 * MINUTE_MS);
+        assertThat(hour.count()).isEqualTo(1);
+        assertThat(hour.max()).isEqualTo(900);
+    }
+}
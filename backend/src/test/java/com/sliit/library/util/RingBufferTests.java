@@ -0,0 +1,100 @@
+package com.sliit.library.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The buffer hands back the newest values newest first, forgets values once they are a lap
+ * old, and never returns a value out of order while writers keep overwriting it.
+ */
+class RingBufferTests {
+
+    @Test
+    void returnsNewestFirstBeforeFilling() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(5);
+        assertThat(buffer.newest(10, value -> true)).isEmpty();
+
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.newest(10, value -> true)).containsExactly(3, 2, 1);
+        assertThat(buffer.newest(2, value -> true)).containsExactly(3, 2);
+    }
+
+    @Test
+    void wrapsAroundKeepingOnlyTheLastLap() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int value = 1; value <= 11; value++) {
+            buffer.add(value);
+        }
+
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(buffer.newest(10, value -> true)).containsExactly(11, 10, 9, 8);
+    }
+
+    @Test
+    void filterSkipsValuesWithoutReachingPastTheLastLap() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(6);
+        for (int value = 1; value <= 20; value++) {
+            buffer.add(value);
+        }
+
+        // Only 15..20 are held: 16, 18 and 20 are even, the older even values are gone
+        assertThat(buffer.newest(10, value -> value % 2 == 0)).containsExactly(20, 18, 16);
+        assertThat(buffer.newest(2, value -> value % 2 == 1)).containsExactly(19, 17);
+    }
+
+    @Test
+    void readsStayOrderedWhileWritersOverwrite() throws InterruptedException {
+        RingBuffer<Long> buffer = new RingBuffer<>(64);
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int writer = 0; writer < writers; writer++) {
+            long base = writer * 1_000_000L;
+            executor.execute(() -> {
+                for (long value = base; value < base + 200_000; value++) {
+                    buffer.add(value);
+                }
+                done.countDown();
+            });
+        }
+
+        List<String> violations = new ArrayList<>();
+        while (done.getCount() > 0 && violations.isEmpty()) {
+            List<Long> newest = buffer.newest(64, value -> true);
+            assertThat(newest.size()).isLessThanOrEqualTo(64);
+            // Each writer's values go in ascending, so read back newest first they descend
+            for (int i = 0; i < newest.size(); i++) {
+                for (int j = i + 1; j < newest.size(); j++) {
+                    long newer = newest.get(i);
+                    long older = newest.get(j);
+                    if (newer / 1_000_000 == older / 1_000_000 && newer <= older) {
+                        violations.add(newer + " before " + older);
+                    }
+                }
+            }
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(violations).isEmpty();
+        assertThat(buffer.size()).isEqualTo(64);
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new RingBuffer<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}